@@ -0,0 +1,66 @@
+package benchmarks;
+
+import manager.ColumnarTaskManager;
+import manager.ConcurrentTaskManager;
+import manager.InMemoryTaskManager;
+import manager.ShardedTaskManager;
+import manager.TaskManager;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Наполнение досок для бенчмарков. Задачи идут подряд с шагом SLOT: каждая длится
+// минуту, так что пересечений нет, а свободные окна между задачами остаются.
+// Половина записей - задачи, половина - подзадачи эпиков по EPIC_SIZE штук.
+final class Boards {
+
+    static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    static final Duration TASK_DURATION = Duration.ofMinutes(1);
+    static final int SLOT = 2;
+    static final int EPIC_SIZE = 100;
+
+    private Boards() {
+    }
+
+    static TaskManager create(String implementation) {
+        return switch (implementation) {
+            case "InMemory" -> new InMemoryTaskManager();
+            case "Concurrent" -> new ConcurrentTaskManager();
+            case "Columnar" -> new ColumnarTaskManager();
+            case "Sharded" -> new ShardedTaskManager();
+            default -> throw new IllegalArgumentException("Неизвестная реализация: " + implementation);
+        };
+    }
+
+    // Возвращает id созданных задач (без эпиков и подзадач)
+    static int[] populate(TaskManager manager, int size) {
+        int[] taskIds = new int[(size + 1) / 2];
+        int slot = 0;
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = manager.createTask(new Task("Task " + i, "Description", Status.NEW,
+                    TASK_DURATION, slotStart(slot++))).getId();
+        }
+        Epic epic = null;
+        for (int i = 0; i < size / 2; i++) {
+            if (i % EPIC_SIZE == 0) {
+                epic = manager.createEpic(new Epic("Epic " + i / EPIC_SIZE, "Description", null, null));
+            }
+            manager.createSubtask(new Subtask("Subtask " + i, "Description", i % 2 == 0 ? Status.NEW : Status.DONE,
+                    epic.getId(), TASK_DURATION, slotStart(slot++)));
+        }
+        return taskIds;
+    }
+
+    // Свободное окно сразу после задачи со слотом slot
+    static LocalDateTime gapAfter(int slot) {
+        return slotStart(slot).plus(TASK_DURATION);
+    }
+
+    static LocalDateTime slotStart(int slot) {
+        return START.plusMinutes((long) slot * SLOT);
+    }
+}
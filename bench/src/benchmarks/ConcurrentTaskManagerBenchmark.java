@@ -0,0 +1,135 @@
+package benchmarks;
+
+import exceptions.ManagerOverlapException;
+import manager.ShardedTaskManager;
+import manager.TaskManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Многопоточные сценарии для потокобезопасных менеджеров: ConcurrentTaskManager с
+// полосами блокировок против ShardedTaskManager с потоком на шард.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ConcurrentTaskManagerBenchmark {
+
+    @Param({"Concurrent", "Sharded"})
+    public String implementation;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private TaskManager manager;
+    private int[] taskIds;
+    private int slots;
+    private List<Epic> epics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = Boards.create(implementation);
+        taskIds = Boards.populate(manager, size);
+        slots = taskIds.length + size / 2;
+        epics = manager.getAllEpics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (manager instanceof ShardedTaskManager sharded) {
+            sharded.close();
+        }
+    }
+
+    // Каждый поток пишет в свой эпик, чтобы мерить общий путь, а не блокировку одного эпика
+    @State(Scope.Thread)
+    public static class ThreadEpic {
+        private Epic epic;
+
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentTaskManagerBenchmark benchmark) {
+            List<Epic> epics = benchmark.epics;
+            epic = epics.get(ThreadLocalRandom.current().nextInt(epics.size()));
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<Task> getTaskById() {
+        return manager.getTaskById(taskIds[ThreadLocalRandom.current().nextInt(taskIds.length)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int createAndDeleteTask() {
+        return createAndDeleteTaskOnce();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int createAndDeleteSubtask(ThreadEpic threadEpic) {
+        try {
+            Subtask subtask = manager.createSubtask(new Subtask("Subtask", "Description", Status.IN_PROGRESS,
+                    threadEpic.epic.getId(), Boards.TASK_DURATION, Boards.gapAfter(randomSlot())));
+            manager.deleteSubtaskById(subtask.getId());
+            return subtask.getId();
+        } catch (ManagerOverlapException e) {
+            return -1;
+        }
+    }
+
+    // Смешанная нагрузка: три читателя на одного писателя
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Optional<Task> mixedRead() {
+        return manager.getTaskById(taskIds[ThreadLocalRandom.current().nextInt(taskIds.length)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public int mixedWrite() {
+        return createAndDeleteTaskOnce();
+    }
+
+    // Потоки могут выбрать одно и то же окно; проигравший получает отказ по пересечению
+    private int createAndDeleteTaskOnce() {
+        try {
+            Task task = manager.createTask(new Task("Task", "Description", Status.NEW,
+                    Boards.TASK_DURATION, Boards.gapAfter(randomSlot())));
+            manager.deleteTaskById(task.getId());
+            return task.getId();
+        } catch (ManagerOverlapException e) {
+            return -1;
+        }
+    }
+
+    private int randomSlot() {
+        return ThreadLocalRandom.current().nextInt(slots);
+    }
+}
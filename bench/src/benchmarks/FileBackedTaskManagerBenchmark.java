@@ -0,0 +1,64 @@
+package benchmarks;
+
+import manager.DurabilityPolicy;
+import manager.FileBackedTaskManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+// Полная запись снимка и загрузка файла. Доска наполняется через журнал с асинхронной
+// записью, иначе каждая операция наполнения перезаписывала бы весь файл.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class FileBackedTaskManagerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private File file;
+    private FileBackedTaskManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("bench", ".csv");
+        manager = new FileBackedTaskManager(file, true, DurabilityPolicy.async());
+        Boards.populate(manager, size);
+        manager.compact();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        manager.close();
+        Files.deleteIfExists(file.toPath());
+        Files.deleteIfExists(new File(file.getPath() + FileBackedTaskManager.JOURNAL_SUFFIX).toPath());
+    }
+
+    @Benchmark
+    public void save() {
+        manager.compact();
+    }
+
+    @Benchmark
+    public FileBackedTaskManager load() {
+        return FileBackedTaskManager.loadFromFile(file);
+    }
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import manager.ConcurrentHistoryManager;
+import manager.HistoryManager;
+import manager.InMemoryHistoryManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tasks.Status;
+import tasks.Task;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// История, заполненная size просмотренными задачами. Многопоточная запись в историю
+// измеряется через ConcurrentTaskManagerBenchmark.getTaskById.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class HistoryManagerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"InMemory", "Concurrent"})
+    public String implementation;
+
+    private HistoryManager history;
+    private Task[] tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = "InMemory".equals(implementation) ? new InMemoryHistoryManager() : new ConcurrentHistoryManager();
+        tasks = new Task[size];
+        for (int i = 0; i < size; i++) {
+            tasks[i] = new Task("Task " + i, "Description", Status.NEW, null, null);
+            tasks[i].setId(i + 1);
+            history.add(tasks[i]);
+        }
+    }
+
+    // Повторный просмотр переносит задачу в конец истории
+    @Benchmark
+    public void add() {
+        history.add(randomTask());
+    }
+
+    @Benchmark
+    public List<Task> getRecentHistory() {
+        return history.getRecentHistory(10);
+    }
+
+    @Benchmark
+    public List<Task> getHistory() {
+        return history.getHistory();
+    }
+
+    private Task randomTask() {
+        return tasks[ThreadLocalRandom.current().nextInt(size)];
+    }
+}
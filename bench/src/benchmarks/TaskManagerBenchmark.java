@@ -0,0 +1,119 @@
+package benchmarks;
+
+import exceptions.ManagerOverlapException;
+import manager.TaskManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Однопоточные горячие пути TaskManager на досках разного размера
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TaskManagerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"InMemory", "Concurrent", "Columnar"})
+    public String implementation;
+
+    private TaskManager manager;
+    private int[] taskIds;
+    private int slots;
+    private Epic epic;
+    private Subtask epicSubtask;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = Boards.create(implementation);
+        taskIds = Boards.populate(manager, size);
+        slots = taskIds.length + size / 2;
+        // Эпик с полным набором подзадач для пересчета статуса и сроков
+        epic = manager.getAllEpics().get(0);
+        epicSubtask = manager.getSubtasksByEpicId(epic.getId()).get(0);
+    }
+
+    // Создание в свободном окне: проверка пересечений по всему расписанию
+    @Benchmark
+    public int createAndDeleteTask() {
+        Task task = manager.createTask(new Task("Task", "Description", Status.NEW,
+                Boards.TASK_DURATION, Boards.gapAfter(randomSlot())));
+        manager.deleteTaskById(task.getId());
+        return task.getId();
+    }
+
+    @Benchmark
+    public boolean createOverlappingTask() {
+        try {
+            manager.createTask(new Task("Task", "Description", Status.NEW,
+                    Boards.TASK_DURATION, Boards.slotStart(randomSlot())));
+            return false;
+        } catch (ManagerOverlapException e) {
+            return true;
+        }
+    }
+
+    // Создание и удаление подзадачи дважды пересчитывает эпик
+    @Benchmark
+    public int createAndDeleteSubtask() {
+        Subtask subtask = manager.createSubtask(new Subtask("Subtask", "Description", Status.IN_PROGRESS,
+                epic.getId(), Boards.TASK_DURATION, Boards.gapAfter(randomSlot())));
+        manager.deleteSubtaskById(subtask.getId());
+        return subtask.getId();
+    }
+
+    @Benchmark
+    public Status updateSubtaskStatus() {
+        epicSubtask.setStatus(epicSubtask.getStatus() == Status.DONE ? Status.NEW : Status.DONE);
+        manager.updateSubtask(epicSubtask);
+        return epicSubtask.getStatus();
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasks() {
+        return manager.getPrioritizedTasks();
+    }
+
+    // Страница из 50 задач со случайного места расписания
+    @Benchmark
+    public List<Task> getPrioritizedTasksPage() {
+        return manager.getPrioritizedTasks(Boards.slotStart(randomSlot()), null, 50);
+    }
+
+    // Чтение по id с записью в историю
+    @Benchmark
+    public Optional<Task> getTaskById() {
+        return manager.getTaskById(taskIds[ThreadLocalRandom.current().nextInt(taskIds.length)]);
+    }
+
+    @Benchmark
+    public Optional<Epic> getEpicById() {
+        return manager.getEpicById(epic.getId());
+    }
+
+    private int randomSlot() {
+        return ThreadLocalRandom.current().nextInt(slots);
+    }
+}
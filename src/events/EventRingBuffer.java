@@ -0,0 +1,83 @@
+package events;
+
+import manager.TaskType;
+import tasks.Task;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Ограниченный кольцевой буфер без блокировок для многих писателей и одного читателя.
+// У каждой ячейки свой счетчик: писатель занимает позицию CAS по tail и открывает
+// ячейку читателю записью счетчика, читатель освобождает ее для следующего круга.
+// Позиция в буфере и есть номер события.
+final class EventRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final TaskEvent[] events;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Меняется только потоком-читателем
+    private long head;
+
+    EventRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Размер буфера событий должен быть степенью двойки.");
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.events = new TaskEvent[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // false - буфер полон
+    boolean offer(TaskEventType type, TaskType taskType, int id, Task task) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events[index] = new TaskEvent(position, type, taskType, id, task);
+                    // Полная запись, а не lazySet: поток доставки после нее проверяет
+                    // флаг ожидания, и обе записи должны быть видны в одном порядке.
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (lag < 0) {
+                return false;
+            }
+        }
+    }
+
+    // Вызывается только читателем
+    int drainTo(List<TaskEvent> sink, int max) {
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            sink.add(events[index]);
+            events[index] = null;
+            sequences.set(index, head + capacity);
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+
+    // Вызывается только читателем
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    // Число занятых позиций, включая еще не дописанные
+    long claimed() {
+        return tail.get();
+    }
+}
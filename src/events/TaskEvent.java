@@ -0,0 +1,10 @@
+package events;
+
+import manager.TaskType;
+import tasks.Task;
+
+// Изменение доски. sequence растет на единицу на событие в порядке публикации, пропуск
+// номера у подписчика невозможен. task - копия задачи после изменения; у DELETED и
+// HISTORY_TOUCHED ее нет.
+public record TaskEvent(long sequence, TaskEventType type, TaskType taskType, int id, Task task) {
+}
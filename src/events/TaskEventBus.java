@@ -0,0 +1,169 @@
+package events;
+
+import manager.TaskType;
+import tasks.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Шина изменений доски для кэшей и индексов, которые ведут производные представления
+// по событиям вместо опроса getAllTasks(). События проходят через EventRingBuffer, а
+// отдельный поток доставки раздает их подписчикам пачками до maxBatch штук.
+//
+// Когда буфер полон, публикующий поток ждет, пока подписчики его разгрузят: события не
+// теряются, а медленный подписчик тормозит изменения доски. Поэтому подписчик не должен
+// синхронно обращаться к менеджеру - писатель может держать его блокировку и ждать.
+//
+// Класс final: поток доставки запускается в конструкторе.
+public final class TaskEventBus implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_MAX_BATCH = 256;
+
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long PARK_NANOS = 50_000;
+
+    private final EventRingBuffer buffer;
+    private final int maxBatch;
+    private final List<TaskEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread dispatcher;
+    private final LongAdder stalls = new LongAdder();
+    private volatile boolean dispatcherParked;
+    private volatile boolean closed;
+    // Число доставленных событий. Пишет поток доставки, а после его остановки - опоздавшие
+    // публикующие потоки под монитором шины
+    private volatile long delivered;
+
+    public TaskEventBus() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    public TaskEventBus(int capacity, int maxBatch) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("Размер пачки событий должен быть положительным.");
+        }
+        this.buffer = new EventRingBuffer(capacity);
+        this.maxBatch = maxBatch;
+        this.dispatcher = new Thread(this::dispatch, "task-event-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    public void subscribe(TaskEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(TaskEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(TaskEventType type, TaskType taskType, int id, Task task) {
+        if (closed) {
+            throw new IllegalStateException("Шина событий закрыта.");
+        }
+        int spins = 0;
+        while (!buffer.offer(type, taskType, id, task)) {
+            if (spins++ == 0) {
+                stalls.increment();
+            }
+            if (closed && !dispatcher.isAlive()) {
+                deliverAfterClose();
+                continue;
+            }
+            LockSupport.unpark(dispatcher);
+            if (spins < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+        if (dispatcherParked) {
+            LockSupport.unpark(dispatcher);
+        }
+        // close() мог завершиться между проверкой closed и занятием позиции: поток доставки
+        // тогда уже остановлен и события не увидит, поэтому его доставляет сам писатель
+        if (closed) {
+            deliverAfterClose();
+        }
+    }
+
+    // Сколько раз публикация ждала освобождения буфера
+    public long getStalls() {
+        return stalls.sum();
+    }
+
+    // Возвращается, когда все события, опубликованные до вызова, доставлены подписчикам
+    public void flush() {
+        long target = buffer.claimed();
+        while (delivered < target && dispatcher.isAlive()) {
+            LockSupport.unpark(dispatcher);
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    // Доставляет оставшиеся события и останавливает поток доставки
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(dispatcher);
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Доставляет все дописанные события, когда поток доставки уже остановлен. Событие,
+    // которое другой опоздавший писатель еще не дописал, доставит он сам.
+    private void deliverAfterClose() {
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        synchronized (this) {
+            List<TaskEvent> batch = new ArrayList<>(maxBatch);
+            while (buffer.drainTo(batch, maxBatch) > 0) {
+                deliver(batch);
+            }
+        }
+    }
+
+    private void dispatch() {
+        List<TaskEvent> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            int drained = buffer.drainTo(batch, maxBatch);
+            if (drained == 0) {
+                if (closed && buffer.claimed() == delivered) {
+                    return;
+                }
+                // Флаг ставится до повторной проверки: писатель, дописавший событие после
+                // нее, увидит флаг и разбудит поток.
+                dispatcherParked = true;
+                if (buffer.isEmpty() && !closed) {
+                    LockSupport.park(this);
+                }
+                dispatcherParked = false;
+                continue;
+            }
+            deliver(batch);
+        }
+    }
+
+    private void deliver(List<TaskEvent> batch) {
+        List<TaskEvent> events = List.copyOf(batch);
+        batch.clear();
+        for (TaskEventListener listener : listeners) {
+            try {
+                listener.onEvents(events);
+            } catch (RuntimeException e) {
+                // Ошибка одного подписчика не должна останавливать доставку остальным
+            }
+        }
+        delivered += events.size();
+    }
+}
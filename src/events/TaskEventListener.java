@@ -0,0 +1,10 @@
+package events;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface TaskEventListener {
+
+    // Вызывается из потока доставки пачками событий по возрастанию sequence
+    void onEvents(List<TaskEvent> events);
+}
@@ -0,0 +1,11 @@
+package events;
+
+public enum TaskEventType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    // Пересчитан статус эпика; событие несет эпик целиком, отдельного UPDATED нет
+    EPIC_STATUS_CHANGED,
+    // Задача просмотрена и переместилась в конец истории
+    HISTORY_TOUCHED
+}
@@ -0,0 +1,9 @@
+package exceptions;
+
+public class JsonFormatException extends RuntimeException {
+
+    public JsonFormatException(String message) {
+        super(message);
+    }
+
+}
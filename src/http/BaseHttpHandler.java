@@ -0,0 +1,139 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import exceptions.JsonFormatException;
+import exceptions.ManagerOverlapException;
+import json.JsonReader;
+import json.JsonWriter;
+import json.TaskJson;
+import manager.TaskManager;
+import manager.TaskType;
+import tasks.Task;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+// Общая часть обработчиков: разбор пути, чтение тела запроса и запись ответа, а также
+// перевод исключений менеджера в коды ответа. Ответ пишется потоком по мере обхода
+// задач (chunked), поэтому большой список не собирается в памяти целиком.
+abstract class BaseHttpHandler implements HttpHandler {
+
+    protected static final String GET = "GET";
+    protected static final String POST = "POST";
+    protected static final String DELETE = "DELETE";
+
+    protected final TaskManager manager;
+
+    protected BaseHttpHandler(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            handle(exchange, exchange.getRequestMethod(), path(exchange));
+        } catch (ManagerOverlapException e) {
+            sendError(exchange, 406, e.getMessage());
+        } catch (JsonFormatException | IllegalArgumentException | ArithmeticException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            sendError(exchange, 500, "Внутренняя ошибка сервера.");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // path - сегменты пути без пустых, например ["tasks", "1"]
+    protected abstract void handle(HttpExchange exchange, String method, String[] path) throws IOException;
+
+    protected void sendTask(HttpExchange exchange, int code, Task task) throws IOException {
+        sendJson(exchange, code, writer -> TaskJson.write(writer, task));
+    }
+
+    protected void sendTasks(HttpExchange exchange, Iterable<? extends Task> tasks) throws IOException {
+        sendJson(exchange, 200, writer -> TaskJson.writeAll(writer, tasks));
+    }
+
+    protected void sendOptional(HttpExchange exchange, Optional<? extends Task> task) throws IOException {
+        if (task.isPresent()) {
+            sendTask(exchange, 200, task.get());
+        } else {
+            sendNotFound(exchange);
+        }
+    }
+
+    // Обновление несуществующей задачи менеджер молча пропускает, поэтому наличие проверяется
+    // заранее, а в ответ уходит сохраненная задача, а не тело запроса. Задача читается через
+    // findById, чтобы обновление не попадало в историю просмотров.
+    protected <T extends Task> void sendUpdated(HttpExchange exchange, T task, Consumer<T> update)
+            throws IOException {
+        if (stored(task).isEmpty()) {
+            sendNotFound(exchange);
+            return;
+        }
+        update.accept(task);
+        Optional<Task> stored = stored(task);
+        if (stored.isPresent()) {
+            sendTask(exchange, 201, stored.get());
+        } else {
+            sendNotFound(exchange);
+        }
+    }
+
+    protected void sendJson(HttpExchange exchange, int code, Consumer<JsonWriter> body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, 0);
+        JsonWriter writer = new JsonWriter(exchange.getResponseBody());
+        body.accept(writer);
+        writer.flush();
+    }
+
+    protected void sendOk(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    protected void sendNotFound(HttpExchange exchange) throws IOException {
+        sendError(exchange, 404, "Ресурс не найден.");
+    }
+
+    protected void sendMethodNotAllowed(HttpExchange exchange) throws IOException {
+        sendError(exchange, 405, "Метод " + exchange.getRequestMethod() + " не поддерживается.");
+    }
+
+    protected Task readTask(HttpExchange exchange, TaskType type) {
+        JsonReader reader = new JsonReader(exchange.getRequestBody());
+        Task task = TaskJson.read(reader, type);
+        reader.endDocument();
+        return task;
+    }
+
+    protected static int parseId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный id: " + segment);
+        }
+    }
+
+    // Ответ уже мог быть начат, тогда ошибку передать нельзя и соединение просто закрывается
+    private void sendError(HttpExchange exchange, int code, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            return;
+        }
+        sendJson(exchange, code, writer -> writer.beginObject().name("error").value(message).endObject());
+    }
+
+    // Сохраненная задача того же типа, что и task: id подзадачи в /tasks не найден
+    private Optional<Task> stored(Task task) {
+        return manager.findById(task.getId()).filter(stored -> stored.getClass() == task.getClass());
+    }
+
+    private static String[] path(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.endsWith("/") && path.length() > start ? path.length() - 1 : path.length();
+        return start >= end ? new String[0] : path.substring(start, end).split("/");
+    }
+}
@@ -0,0 +1,63 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import manager.TaskType;
+import tasks.Epic;
+
+import java.io.IOException;
+
+// /epics, /epics/{id} и /epics/{id}/subtasks. У эпика обновляются только имя и описание,
+// остальные поля пересчитываются менеджером по подзадачам.
+class EpicsHandler extends BaseHttpHandler {
+
+    EpicsHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length == 1) {
+            switch (method) {
+                case GET -> sendTasks(exchange, manager.getAllEpics());
+                case POST -> {
+                    Epic epic = (Epic) readTask(exchange, TaskType.EPIC);
+                    if (epic.getId() == 0) {
+                        sendTask(exchange, 201, manager.createEpic(epic));
+                    } else {
+                        sendUpdated(exchange, epic, manager::updateEpic);
+                    }
+                }
+                case DELETE -> {
+                    manager.deleteAllEpics();
+                    sendOk(exchange);
+                }
+                default -> sendMethodNotAllowed(exchange);
+            }
+        } else if (path.length == 2) {
+            int id = parseId(path[1]);
+            switch (method) {
+                case GET -> sendOptional(exchange, manager.getEpicById(id));
+                case DELETE -> {
+                    manager.deleteEpicById(id);
+                    sendOk(exchange);
+                }
+                default -> sendMethodNotAllowed(exchange);
+            }
+        } else if (path.length == 3 && path[2].equals("subtasks")) {
+            if (!method.equals(GET)) {
+                sendMethodNotAllowed(exchange);
+                return;
+            }
+            // Эпик проверяется без отметки в истории: смотрят его подзадачи, а не его самого
+            int id = parseId(path[1]);
+            if (manager.findById(id).filter(Epic.class::isInstance).isPresent()) {
+                sendTasks(exchange, manager.getSubtasksByEpicId(id));
+            } else {
+                sendNotFound(exchange);
+            }
+        } else {
+            sendNotFound(exchange);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+
+import java.io.IOException;
+
+// /history: история просмотров от давних к недавним
+class HistoryHandler extends BaseHttpHandler {
+
+    HistoryHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length != 1) {
+            sendNotFound(exchange);
+        } else if (!method.equals(GET)) {
+            sendMethodNotAllowed(exchange);
+        } else {
+            sendTasks(exchange, manager.getHistory());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package http;
+
+import com.sun.net.httpserver.HttpServer;
+import manager.ConcurrentTaskManager;
+import manager.TaskManager;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// HTTP API поверх TaskManager на встроенном в JDK HttpServer. Каждый запрос обрабатывается
+// в своем виртуальном потоке, поэтому блокировки менеджера и запись ответа не занимают
+// потоков платформы. Запросы идут параллельно, так что менеджер должен быть
+// потокобезопасным, например ConcurrentTaskManager.
+public class HttpTaskServer {
+
+    public static final int DEFAULT_PORT = 8080;
+
+    // Очередь входящих соединений: при всплеске нагрузки системное значение по умолчанию
+    // слишком мало, и соединения отбрасываются еще до обработки.
+    private static final int BACKLOG = 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, DEFAULT_PORT);
+    }
+
+    // Порт 0 - любой свободный, занятый порт возвращает getPort()
+    public HttpTaskServer(TaskManager manager, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/tasks", new TasksHandler(manager));
+        server.createContext("/subtasks", new SubtasksHandler(manager));
+        server.createContext("/epics", new EpicsHandler(manager));
+        server.createContext("/history", new HistoryHandler(manager));
+        server.createContext("/prioritized", new PrioritizedHandler(manager));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.close();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws IOException {
+        HttpTaskServer server = new HttpTaskServer(new ConcurrentTaskManager());
+        server.start();
+        System.out.println("HTTP-сервер запущен на порту " + server.getPort());
+    }
+}
@@ -0,0 +1,50 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import manager.TaskType;
+import tasks.Subtask;
+
+import java.io.IOException;
+
+// /subtasks и /subtasks/{id}. POST без id создает подзадачу, с id - обновляет ее.
+class SubtasksHandler extends BaseHttpHandler {
+
+    SubtasksHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length == 1) {
+            switch (method) {
+                case GET -> sendTasks(exchange, manager.getAllSubtasks());
+                case POST -> {
+                    Subtask subtask = (Subtask) readTask(exchange, TaskType.SUBTASK);
+                    if (subtask.getId() == 0) {
+                        sendTask(exchange, 201, manager.createSubtask(subtask));
+                    } else {
+                        sendUpdated(exchange, subtask, manager::updateSubtask);
+                    }
+                }
+                case DELETE -> {
+                    manager.deleteAllSubtasks();
+                    sendOk(exchange);
+                }
+                default -> sendMethodNotAllowed(exchange);
+            }
+        } else if (path.length == 2) {
+            int id = parseId(path[1]);
+            switch (method) {
+                case GET -> sendOptional(exchange, manager.getSubtaskById(id));
+                case DELETE -> {
+                    manager.deleteSubtaskById(id);
+                    sendOk(exchange);
+                }
+                default -> sendMethodNotAllowed(exchange);
+            }
+        } else {
+            sendNotFound(exchange);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.TaskManager;
+import manager.TaskType;
+import tasks.Task;
+
+import java.io.IOException;
+
+// /tasks и /tasks/{id}. POST без id создает задачу, с id - обновляет ее.
+class TasksHandler extends BaseHttpHandler {
+
+    TasksHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    @Override
+    protected void handle(HttpExchange exchange, String method, String[] path) throws IOException {
+        if (path.length == 1) {
+            switch (method) {
+                case GET -> sendTasks(exchange, manager.getAllTasks());
+                case POST -> {
+                    Task task = readTask(exchange, TaskType.TASK);
+                    if (task.getId() == 0) {
+                        sendTask(exchange, 201, manager.createTask(task));
+                    } else {
+                        sendUpdated(exchange, task, manager::updateTask);
+                    }
+                }
+                case DELETE -> {
+                    manager.deleteAllTasks();
+                    sendOk(exchange);
+                }
+                default -> sendMethodNotAllowed(exchange);
+            }
+        } else if (path.length == 2) {
+            int id = parseId(path[1]);
+            switch (method) {
+                case GET -> sendOptional(exchange, manager.getTaskById(id));
+                case DELETE -> {
+                    manager.deleteTaskById(id);
+                    sendOk(exchange);
+                }
+                default -> sendMethodNotAllowed(exchange);
+            }
+        } else {
+            sendNotFound(exchange);
+        }
+    }
+}
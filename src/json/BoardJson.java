@@ -0,0 +1,123 @@
+package json;
+
+import exceptions.JsonFormatException;
+import manager.TaskManager;
+import manager.TaskSnapshot;
+import manager.TaskSource;
+import manager.TaskType;
+import tasks.Epic;
+import tasks.Subtask;
+import utils.IntObjectHashMap;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+
+// Выгрузка всей доски в JSON и загрузка обратно для переноса между окружениями.
+// Выгрузка пишет задачи в поток по мере обхода доски, загрузка читает документ
+// потоково и создает задачи по одной, так что ни документ, ни списки задач в памяти
+// не собираются. Формат:
+// {"formatVersion":1,"epics":[...],"tasks":[...],"subtasks":[...]}
+public final class BoardJson {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private BoardJson() {
+    }
+
+    // Выгружается согласованное состояние: менеджер, который сам обходит свое хранилище
+    // (однопоточные store-менеджеры), выгружается напрямую без копии доски, остальные -
+    // через срез, так что изменения доски во время записи в выгрузку не попадут.
+    public static void export(TaskManager manager, OutputStream out) {
+        write(manager instanceof TaskSource source ? source : manager.snapshot(), out);
+    }
+
+    public static void export(TaskSnapshot snapshot, OutputStream out) {
+        write(snapshot, out);
+    }
+
+    // Эпики пишутся первыми, чтобы при загрузке их новые id были известны до подзадач
+    private static void write(TaskSource source, OutputStream out) {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject().name("formatVersion").value(FORMAT_VERSION);
+        writer.name("epics").beginArray();
+        source.forEachEpic(epic -> TaskJson.write(writer, epic));
+        writer.endArray();
+        writer.name("tasks").beginArray();
+        source.forEachTask(task -> TaskJson.write(writer, task));
+        writer.endArray();
+        writer.name("subtasks").beginArray();
+        source.forEachSubtask(subtask -> TaskJson.write(writer, subtask));
+        writer.endArray();
+        writer.endObject();
+        writer.flush();
+    }
+
+    public static int importInto(TaskManager manager, InputStream in) {
+        return importInto(manager, new JsonReader(in));
+    }
+
+    public static int importInto(TaskManager manager, Reader in) {
+        return importInto(manager, new JsonReader(in));
+    }
+
+    // Задачи создаются через менеджер и получают новые id; подзадачи переназначаются на
+    // новые id своих эпиков, поэтому в памяти держится только соответствие id эпиков.
+    // Загрузка не атомарна: при ошибке уже созданные задачи остаются, для отката ее
+    // можно выполнить внутри TaskManager.batch(). Возвращает число созданных задач.
+    private static int importInto(TaskManager manager, JsonReader reader) {
+        IntObjectHashMap<Integer> epicIds = new IntObjectHashMap<>();
+        int imported = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String section = reader.nextName();
+            switch (section) {
+                case "formatVersion" -> {
+                    long version = reader.nextLong();
+                    if (version != FORMAT_VERSION) {
+                        throw new JsonFormatException("Неподдерживаемая версия выгрузки: " + version);
+                    }
+                }
+                case "epics" -> {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        Epic epic = (Epic) TaskJson.read(reader, TaskType.EPIC);
+                        int exportedId = epic.getId();
+                        epicIds.put(exportedId, manager.createEpic(epic).getId());
+                        imported++;
+                    }
+                    reader.endArray();
+                }
+                case "tasks" -> {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        manager.createTask(TaskJson.read(reader, TaskType.TASK));
+                        imported++;
+                    }
+                    reader.endArray();
+                }
+                case "subtasks" -> {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        manager.createSubtask(remap((Subtask) TaskJson.read(reader, TaskType.SUBTASK), epicIds));
+                        imported++;
+                    }
+                    reader.endArray();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        reader.endDocument();
+        return imported;
+    }
+
+    private static Subtask remap(Subtask subtask, IntObjectHashMap<Integer> epicIds) {
+        Integer epicId = epicIds.get(subtask.getEpicId());
+        if (epicId == null) {
+            throw new JsonFormatException("Эпик с id " + subtask.getEpicId() + " не найден в выгрузке.");
+        }
+        return new Subtask(subtask.getName(), subtask.getDescription(), subtask.getStatus(), epicId,
+                subtask.getDuration(), subtask.getStartTime());
+    }
+}
@@ -0,0 +1,284 @@
+package json;
+
+import exceptions.JsonFormatException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+// Потоковое чтение JSON: вызывающий код сам идет по документу вызовами begin/next/end,
+// как и при записи через JsonWriter, поэтому дерево документа не строится.
+public final class JsonReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int offset;
+    // Перед следующим элементом текущего объекта или массива должна стоять запятая
+    private boolean needComma;
+
+    public JsonReader(InputStream in) {
+        this(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public JsonReader(Reader in) {
+        this.in = in;
+    }
+
+    public void beginObject() {
+        expect('{');
+        needComma = false;
+    }
+
+    public void endObject() {
+        expect('}');
+        needComma = true;
+    }
+
+    public void beginArray() {
+        expect('[');
+        needComma = false;
+    }
+
+    public void endArray() {
+        expect(']');
+        needComma = true;
+    }
+
+    // Есть ли в текущем объекте или массиве еще элемент; разделяющую запятую съедает сам
+    public boolean hasNext() {
+        int c = peekToken();
+        if (c == '}' || c == ']') {
+            return false;
+        }
+        if (needComma) {
+            expect(',');
+            needComma = false;
+        }
+        return true;
+    }
+
+    public String nextName() {
+        String name = readString();
+        expect(':');
+        needComma = false;
+        return name;
+    }
+
+    public String nextString() {
+        String value = readString();
+        needComma = true;
+        return value;
+    }
+
+    public long nextLong() {
+        skipWhitespace();
+        boolean negative = peekChar() == '-';
+        if (negative) {
+            position++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (peekChar() >= '0' && peekChar() <= '9') {
+            value = Math.addExact(Math.multiplyExact(value, 10), buffer[position++] - '0');
+            digits++;
+        }
+        if (digits == 0) {
+            throw error("ожидалось целое число");
+        }
+        int c = peekChar();
+        if (c == '.' || c == 'e' || c == 'E') {
+            throw error("ожидалось целое число");
+        }
+        needComma = true;
+        return negative ? -value : value;
+    }
+
+    public int nextInt() {
+        return Math.toIntExact(nextLong());
+    }
+
+    public boolean nextBoolean() {
+        if (peekToken() == 't') {
+            literal("true");
+            return true;
+        }
+        literal("false");
+        return false;
+    }
+
+    // Пропускает null и возвращает true, если следующее значение - null
+    public boolean nextNull() {
+        if (peekToken() != 'n') {
+            return false;
+        }
+        literal("null");
+        return true;
+    }
+
+    public void skipValue() {
+        switch (peekToken()) {
+            case '{' -> {
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+            }
+            case '[' -> {
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+            }
+            case '"' -> nextString();
+            case 't', 'f' -> nextBoolean();
+            case 'n' -> nextNull();
+            default -> skipNumber();
+        }
+    }
+
+    // Проверяет, что после документа ничего, кроме пробелов, нет
+    public void endDocument() {
+        if (peekToken() != -1) {
+            throw error("лишние данные после документа");
+        }
+    }
+
+    private void skipNumber() {
+        skipWhitespace();
+        int start = offset + position;
+        while (true) {
+            int c = peekChar();
+            if (c >= '0' && c <= '9' || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                position++;
+            } else {
+                break;
+            }
+        }
+        if (offset + position == start) {
+            throw error("ожидалось значение");
+        }
+        needComma = true;
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            if (position == limit && !fill()) {
+                throw error("незакрытая строка");
+            }
+            int start = position;
+            while (position < limit && buffer[position] != '"' && buffer[position] != '\\') {
+                if (buffer[position] < 0x20) {
+                    throw error("управляющий символ в строке");
+                }
+                position++;
+            }
+            value.append(buffer, start, position - start);
+            if (position == limit) {
+                continue;
+            }
+            if (buffer[position++] == '"') {
+                return value.toString();
+            }
+            value.append(readEscape());
+        }
+    }
+
+    private char readEscape() {
+        int c = nextChar();
+        return switch (c) {
+            case '"', '\\', '/' -> (char) c;
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(nextChar(), 16);
+                    if (digit < 0) {
+                        throw error("неверная escape-последовательность");
+                    }
+                    code = code << 4 | digit;
+                }
+                yield (char) code;
+            }
+            default -> throw error("неверная escape-последовательность");
+        };
+    }
+
+    private void literal(String literal) {
+        skipWhitespace();
+        for (int i = 0; i < literal.length(); i++) {
+            if (nextChar() != literal.charAt(i)) {
+                throw error("ожидалось " + literal);
+            }
+        }
+        needComma = true;
+    }
+
+    private void expect(char expected) {
+        if (peekToken() != expected) {
+            throw error("ожидался символ '" + expected + "'");
+        }
+        position++;
+    }
+
+    private int peekToken() {
+        skipWhitespace();
+        return peekChar();
+    }
+
+    private void skipWhitespace() {
+        while (true) {
+            int c = peekChar();
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private int nextChar() {
+        int c = peekChar();
+        if (c == -1) {
+            throw error("неожиданный конец документа");
+        }
+        position++;
+        return c;
+    }
+
+    private int peekChar() {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() {
+        try {
+            offset += limit;
+            position = 0;
+            limit = Math.max(in.read(buffer), 0);
+            return limit > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private JsonFormatException error(String message) {
+        return new JsonFormatException("Некорректный JSON в позиции " + (offset + position) + ": " + message + ".");
+    }
+}
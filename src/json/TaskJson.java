@@ -0,0 +1,120 @@
+package json;
+
+import exceptions.JsonFormatException;
+import manager.TaskType;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+// Отображение задач в JSON и обратно, поле за полем. Длительность пишется в минутах,
+// время - в формате ISO-8601. Производные поля (тип, окончание, подзадачи эпика)
+// только выводятся: при чтении они пропускаются.
+public final class TaskJson {
+
+    private TaskJson() {
+    }
+
+    public static void write(JsonWriter writer, Task task) {
+        writer.beginObject()
+                .name("id").value(task.getId())
+                .name("type").value(task.getType().name())
+                .name("name").value(task.getName())
+                .name("description").value(task.getDescription())
+                .name("status").value(task.getStatus() == null ? null : task.getStatus().name());
+        writer.name("duration");
+        if (task.getDuration() == null) {
+            writer.nullValue();
+        } else {
+            writer.value(task.getDuration().toMinutes());
+        }
+        writer.name("startTime").value(format(task.getStartTime()));
+        if (task instanceof Epic epic) {
+            writer.name("endTime").value(format(epic.getEndTime()));
+            writer.name("subtaskIds").beginArray();
+            for (int subtaskId : epic.getSubtaskIds().toSortedArray()) {
+                writer.value(subtaskId);
+            }
+            writer.endArray();
+        } else if (task.getStartTime() != null && task.getDuration() != null) {
+            writer.name("endTime").value(format(task.getEndTime()));
+        }
+        if (task instanceof Subtask subtask) {
+            writer.name("epicId").value(subtask.getEpicId());
+        }
+        writer.endObject();
+    }
+
+    public static void writeAll(JsonWriter writer, Iterable<? extends Task> tasks) {
+        writer.beginArray();
+        for (Task task : tasks) {
+            write(writer, task);
+        }
+        writer.endArray();
+    }
+
+    // Читает один объект задачи заданного типа; отсутствующий id читается как 0
+    public static Task read(JsonReader reader, TaskType type) {
+        int id = 0;
+        String name = null;
+        String description = null;
+        Status status = Status.NEW;
+        Duration duration = null;
+        LocalDateTime startTime = null;
+        Integer epicId = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (reader.nextNull()) {
+                continue;
+            }
+            switch (field) {
+                case "id" -> id = reader.nextInt();
+                case "name" -> name = reader.nextString();
+                case "description" -> description = reader.nextString();
+                case "status" -> status = parseStatus(reader.nextString());
+                case "duration" -> duration = Duration.ofMinutes(reader.nextLong());
+                case "startTime" -> startTime = parseTime(reader.nextString());
+                case "epicId" -> epicId = reader.nextInt();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        Task task = switch (type) {
+            case TASK -> new Task(name, description, status, duration, startTime);
+            case EPIC -> new Epic(name, description, duration, startTime);
+            case SUBTASK -> {
+                if (epicId == null) {
+                    throw new JsonFormatException("У подзадачи не указан epicId.");
+                }
+                yield new Subtask(name, description, status, epicId, duration, startTime);
+            }
+        };
+        task.setId(id);
+        return task;
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toString();
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new JsonFormatException("Неверный формат времени: " + value);
+        }
+    }
+
+    private static Status parseStatus(String value) {
+        try {
+            return Status.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new JsonFormatException("Неизвестный статус: " + value);
+        }
+    }
+}
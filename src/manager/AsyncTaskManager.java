@@ -0,0 +1,91 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+// Неблокирующий вариант TaskManager для вызывающих из циклов событий: каждая операция
+// сразу возвращает CompletableFuture. Ошибки менеджера (например, пересечение по
+// времени) завершают future исключением. streamHistory() нет: поток живой истории
+// нельзя безопасно отдать из другого потока.
+public interface AsyncTaskManager extends AutoCloseable {
+
+    // Методы для работы с задачами
+    CompletableFuture<Task> createTask(Task task);
+
+    CompletableFuture<List<Task>> createTasks(Collection<Task> tasks);
+
+    CompletableFuture<List<Task>> getAllTasks();
+
+    CompletableFuture<Void> deleteAllTasks();
+
+    CompletableFuture<Optional<Task>> getTaskById(int id);
+
+    CompletableFuture<Void> updateTask(Task task);
+
+    CompletableFuture<Void> deleteTaskById(int id);
+
+    // Методы для работы с подзадачами
+    CompletableFuture<Subtask> createSubtask(Subtask subtask);
+
+    CompletableFuture<List<Subtask>> createSubtasks(Collection<Subtask> subtasks);
+
+    CompletableFuture<List<Subtask>> getAllSubtasks();
+
+    CompletableFuture<Void> deleteAllSubtasks();
+
+    CompletableFuture<Optional<Subtask>> getSubtaskById(int id);
+
+    CompletableFuture<Void> updateSubtask(Subtask subtask);
+
+    CompletableFuture<Void> deleteSubtaskById(int id);
+
+    // Методы для работы с эпиками
+    CompletableFuture<Epic> createEpic(Epic epic);
+
+    CompletableFuture<List<Epic>> getAllEpics();
+
+    CompletableFuture<Void> deleteAllEpics();
+
+    CompletableFuture<Optional<Epic>> getEpicById(int id);
+
+    CompletableFuture<Void> updateEpic(Epic epic);
+
+    CompletableFuture<Void> deleteEpicById(int id);
+
+    // Дополнительные методы
+    CompletableFuture<List<Subtask>> getSubtasksByEpicId(int epicId);
+
+    CompletableFuture<List<Task>> getHistory();
+
+    CompletableFuture<List<Task>> getHistory(int offset, int limit);
+
+    CompletableFuture<List<Task>> getRecentHistory(int n);
+
+    CompletableFuture<List<Task>> getPrioritizedTasks();
+
+    CompletableFuture<List<Task>> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit);
+
+    CompletableFuture<List<Task>> findOverlapping(LocalDateTime start, LocalDateTime end);
+
+    CompletableFuture<List<Task>> find(TaskQuery query);
+
+    CompletableFuture<Void> batch(Consumer<TaskManager> changes);
+
+    // Последний опубликованный срез; не ждет очереди изменений
+    TaskSnapshot snapshot();
+
+    // Завершается, когда все изменения, принятые до вызова, сохранены
+    CompletableFuture<Void> flush();
+
+    // Дожидается выполнения принятых операций и останавливает менеджер
+    @Override
+    void close();
+}
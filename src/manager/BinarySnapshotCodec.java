@@ -0,0 +1,208 @@
+package manager;
+
+import exceptions.ManagerLoadException;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+// Двоичный формат снимка: сигнатура KNBN и версия, затем записи без разделителей.
+// Запись: тип и статус (порядковые номера), флаги наличия полей, id и id эпика в varint,
+// строки с длиной в varint, длительность в минутах, начало в минутах от эпохи (UTC)
+// и остаток внутри минуты в наносекундах, который обычно занимает один байт.
+public class BinarySnapshotCodec implements SnapshotCodec {
+
+    static final BinarySnapshotCodec INSTANCE = new BinarySnapshotCodec();
+
+    private static final byte[] SIGNATURE = {'K', 'N', 'B', 'N'};
+    private static final byte VERSION = 1;
+
+    private static final int HAS_NAME = 1;
+    private static final int HAS_DESCRIPTION = 1 << 1;
+    private static final int HAS_DURATION = 1 << 2;
+    private static final int HAS_START_TIME = 1 << 3;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    static boolean hasSignature(ByteBuffer buffer) {
+        if (buffer.remaining() < SIGNATURE.length) {
+            return false;
+        }
+        for (int i = 0; i < SIGNATURE.length; i++) {
+            if (buffer.get(buffer.position() + i) != SIGNATURE[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public ByteBuffer encode(Collection<? extends Task> tasks) {
+        Output output = new Output(64 + tasks.size() * 48);
+        output.writeBytes(SIGNATURE);
+        output.writeByte(VERSION);
+        for (Task task : tasks) {
+            writeTask(output, task);
+        }
+        return output.toByteBuffer();
+    }
+
+    @Override
+    public void decode(ByteBuffer buffer, Consumer<Task> consumer) {
+        if (!hasSignature(buffer)) {
+            throw new ManagerLoadException("Файл не является двоичным снимком задач.");
+        }
+        buffer.position(buffer.position() + SIGNATURE.length);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new ManagerLoadException("Неподдерживаемая версия двоичного снимка: " + version);
+        }
+        try {
+            while (buffer.hasRemaining()) {
+                consumer.accept(readTask(buffer));
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new ManagerLoadException("Двоичный снимок поврежден.");
+        }
+    }
+
+    private void writeTask(Output output, Task task) {
+        int flags = 0;
+        if (task.getName() != null) flags |= HAS_NAME;
+        if (task.getDescription() != null) flags |= HAS_DESCRIPTION;
+        if (task.getDuration() != null) flags |= HAS_DURATION;
+        if (task.getStartTime() != null) flags |= HAS_START_TIME;
+
+        output.writeByte(task.getType().ordinal());
+        output.writeByte(task.getStatus().ordinal());
+        output.writeByte(flags);
+        output.writeVarLong(task.getId());
+        if (task.getType() == TaskType.SUBTASK) {
+            output.writeVarLong(((Subtask) task).getEpicId());
+        }
+        if (task.getName() != null) {
+            output.writeString(task.getName());
+        }
+        if (task.getDescription() != null) {
+            output.writeString(task.getDescription());
+        }
+        if (task.getDuration() != null) {
+            output.writeVarLong(zigZag(task.getDuration().toMinutes()));
+        }
+        if (task.getStartTime() != null) {
+            long epochSecond = task.getStartTime().toEpochSecond(ZoneOffset.UTC);
+            long nanosOfMinute = Math.floorMod(epochSecond, 60) * NANOS_PER_SECOND + task.getStartTime().getNano();
+            output.writeVarLong(zigZag(Math.floorDiv(epochSecond, 60)));
+            output.writeVarLong(nanosOfMinute);
+        }
+    }
+
+    private Task readTask(ByteBuffer buffer) {
+        TaskType type = TYPES[buffer.get()];
+        Status status = STATUSES[buffer.get()];
+        int flags = buffer.get();
+        int id = (int) readVarLong(buffer);
+        int epicId = type == TaskType.SUBTASK ? (int) readVarLong(buffer) : -1;
+        String name = (flags & HAS_NAME) != 0 ? readString(buffer) : null;
+        String description = (flags & HAS_DESCRIPTION) != 0 ? readString(buffer) : null;
+        Duration duration = (flags & HAS_DURATION) != 0 ? Duration.ofMinutes(unZigZag(readVarLong(buffer))) : null;
+        LocalDateTime startTime = null;
+        if ((flags & HAS_START_TIME) != 0) {
+            long epochMinute = unZigZag(readVarLong(buffer));
+            long nanosOfMinute = readVarLong(buffer);
+            startTime = LocalDateTime.ofEpochSecond(epochMinute * 60 + nanosOfMinute / NANOS_PER_SECOND,
+                    (int) (nanosOfMinute % NANOS_PER_SECOND), ZoneOffset.UTC);
+        }
+        return TaskRestorer.restore(type, id, name, description, status, epicId, duration, startTime);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarLong(buffer);
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(buffer.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get();
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static class Output {
+        private byte[] bytes;
+        private int size;
+
+        Output(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] value) {
+            ensureCapacity(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        void writeString(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(encoded.length);
+            writeBytes(encoded);
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+    }
+}
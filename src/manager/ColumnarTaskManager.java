@@ -0,0 +1,16 @@
+package manager;
+
+import utils.Managers;
+
+// Менеджер для очень больших досок: задачи хранятся по колонкам в примитивных массивах
+// (ColumnarTaskStore), объекты Task создаются только при выдаче наружу.
+public class ColumnarTaskManager extends StoreBackedTaskManager {
+
+    public ColumnarTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public ColumnarTaskManager(HistoryManager historyManager) {
+        super(new ColumnarTaskStore(), historyManager);
+    }
+}
@@ -0,0 +1,172 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+// Колоночное хранилище: поле каждой задачи лежит в своем примитивном массиве, номер
+// строки совпадает с id. Строки кодируются словарем. Запись занимает около 26 байт
+// против нескольких сотен у объекта Task со всеми вложенными объектами.
+final class ColumnarTaskStore implements TaskStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final byte EMPTY = 0;
+    private static final int NO_SPAN = Integer.MIN_VALUE;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final StringDictionary dictionary = new StringDictionary();
+    // 0 - пустая строка, иначе ordinal типа + 1
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private int[] names = new int[INITIAL_CAPACITY];
+    private int[] descriptions = new int[INITIAL_CAPACITY];
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    // Для подзадачи - id эпика, для эпика - минуты от начала до окончания
+    private int[] links = new int[INITIAL_CAPACITY];
+    private int size;
+
+    @Override
+    public void put(Task task) {
+        int id = task.getId();
+        if (id < 0) {
+            throw new IllegalArgumentException("Отрицательный id задачи: " + id);
+        }
+        ensureCapacity(id);
+        if (types[id] == EMPTY) {
+            size++;
+        } else {
+            dictionary.release(names[id]);
+            dictionary.release(descriptions[id]);
+        }
+        types[id] = (byte) (task.getType().ordinal() + 1);
+        statuses[id] = (byte) task.getStatus().ordinal();
+        names[id] = dictionary.acquire(task.getName());
+        descriptions[id] = dictionary.acquire(task.getDescription());
+        starts[id] = TaskStore.toMinute(task.getStartTime());
+        durations[id] = TaskStore.toMinutes(task.getDuration());
+        if (task instanceof Subtask subtask) {
+            links[id] = subtask.getEpicId();
+        } else if (task instanceof Epic epic) {
+            links[id] = span(starts[id], TaskStore.toMinute(epic.getEndTime()));
+        } else {
+            links[id] = 0;
+        }
+    }
+
+    @Override
+    public Task get(int id) {
+        TaskType type = type(id);
+        if (type == null) {
+            return null;
+        }
+        Task task = TaskRestorer.restore(type, id, dictionary.get(names[id]), dictionary.get(descriptions[id]),
+                STATUSES[statuses[id]], links[id], TaskStore.fromMinutes(durations[id]),
+                TaskStore.fromMinute(starts[id]));
+        if (task instanceof Epic epic && links[id] != NO_SPAN) {
+            epic.setEndTime(TaskStore.fromMinute(starts[id] + links[id]));
+        }
+        return task;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return type(id) != null;
+    }
+
+    @Override
+    public void remove(int id) {
+        if (!contains(id)) {
+            return;
+        }
+        dictionary.release(names[id]);
+        dictionary.release(descriptions[id]);
+        types[id] = EMPTY;
+        size--;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(types, EMPTY);
+        dictionary.clear();
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public TaskType type(int id) {
+        if (id < 0 || id >= types.length || types[id] == EMPTY) {
+            return null;
+        }
+        return TYPES[types[id] - 1];
+    }
+
+    @Override
+    public Status status(int id) {
+        return STATUSES[statuses[id]];
+    }
+
+    @Override
+    public long startMinute(int id) {
+        return starts[id];
+    }
+
+    @Override
+    public int durationMinutes(int id) {
+        return durations[id];
+    }
+
+    @Override
+    public int epicId(int id) {
+        return links[id];
+    }
+
+    @Override
+    public void setEpicEstimates(int epicId, Status status, long startMinute, int durationMinutes, long endMinute) {
+        statuses[epicId] = (byte) status.ordinal();
+        starts[epicId] = startMinute;
+        durations[epicId] = durationMinutes;
+        links[epicId] = span(startMinute, endMinute);
+    }
+
+    @Override
+    public boolean forEachId(TaskType type, IntPredicate action) {
+        byte code = (byte) (type.ordinal() + 1);
+        for (int id = 0; id < types.length; id++) {
+            if (types[id] == code && !action.test(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int span(long startMinute, long endMinute) {
+        if (startMinute == NO_START || endMinute == NO_START) {
+            return NO_SPAN;
+        }
+        return Math.toIntExact(endMinute - startMinute);
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < types.length) {
+            return;
+        }
+        int capacity = Math.max(id + 1, types.length + (types.length >> 1));
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        links = Arrays.copyOf(links, capacity);
+    }
+}
@@ -0,0 +1,247 @@
+package manager;
+
+import tasks.Task;
+import utils.IntObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Потокобезопасная история просмотров. Просмотр не берет общую блокировку: событие
+// кладется в кольцевой буфер полосы текущего потока, а переносит события в связный
+// список InMemoryHistoryManager тот поток, которому удалось взять блокировку через
+// tryLock. Перед remove и getHistory буферы сливаются полностью, поэтому эти вызовы
+// видят все завершившиеся add.
+// Общего счетчика событий нет, чтобы потоки не спорили за одну ячейку: событие помечается
+// System.nanoTime(), а слив сливает полосы по этой метке, выбирая самое раннее событие из
+// голов полос. Так просмотры, следующие друг за другом в разных потоках, не меняются местами.
+public class ConcurrentHistoryManager implements HistoryManager {
+
+    private static final int BUFFER_CAPACITY = 32;
+    private static final int BUFFER_MASK = BUFFER_CAPACITY - 1;
+    private static final int DRAIN_THRESHOLD = BUFFER_CAPACITY / 2;
+
+    private final InMemoryHistoryManager history = new InMemoryHistoryManager();
+    private final ReentrantLock drainLock = new ReentrantLock();
+    // add, начатый до remove(id), может положить событие в буфер уже после слива в remove
+    // и вернуть удаленную задачу в историю. Поэтому add запоминает номер последнего remove,
+    // а слив отбрасывает событие, если именно его id удален позже. Номер читается уже после
+    // того, как add занял ячейку буфера, поэтому, когда все буферы пусты, будущие события
+    // не старше ни одного remove и removedAt очищается. Пишутся только под drainLock.
+    private volatile long removals;
+    private final IntObjectHashMap<Long> removedAt = new IntObjectHashMap<>();
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    public ConcurrentHistoryManager() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentHistoryManager(int concurrencyLevel) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, concurrencyLevel - 1)) << 1;
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        stripeMask = stripeCount - 1;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        long stamp = System.nanoTime();
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & stripeMask];
+        while (!stripe.offer(task, this, stamp)) {
+            // Буфер полон - ждем слива, иначе событие потеряется
+            drainLock.lock();
+            try {
+                drainBuffers();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+        if (stripe.size() >= DRAIN_THRESHOLD && drainLock.tryLock()) {
+            try {
+                drainBuffers();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            history.remove(id);
+            removedAt.put(id, ++removals);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return history.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return history.getHistory(offset, limit);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getRecentHistory(int n) {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return history.getRecentHistory(n);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        drainLock.lock();
+        try {
+            drainBuffers();
+            return history.size();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Без слива и без drainLock: просмотры, еще лежащие в буферах, не учитываются
+    @Override
+    public int approximateSize() {
+        return history.approximateSize();
+    }
+
+    // Живой список нельзя обходить без блокировки, поэтому поток строится по копии
+    @Override
+    public Stream<Task> streamHistory() {
+        return getHistory().stream();
+    }
+
+    // Вызывается под drainLock. Берутся только события, опубликованные к началу слива,
+    // иначе при непрерывных add слив мог бы не закончиться.
+    private void drainBuffers() {
+        for (Stripe stripe : stripes) {
+            stripe.mark();
+        }
+        while (true) {
+            Stripe earliest = null;
+            for (Stripe stripe : stripes) {
+                if (stripe.ready() && (earliest == null || stripe.headStamp() < earliest.headStamp())) {
+                    earliest = stripe;
+                }
+            }
+            if (earliest == null) {
+                break;
+            }
+            earliest.poll(this);
+        }
+        if (!removedAt.isEmpty() && allStripesEmpty()) {
+            removedAt.clear();
+        }
+    }
+
+    private boolean allStripesEmpty() {
+        for (Stripe stripe : stripes) {
+            if (stripe.size() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Вызывается под drainLock
+    private void apply(Task task, long removal) {
+        if (removal == removals) {
+            history.add(task);
+            return;
+        }
+        Long removed = removedAt.get(task.getId());
+        if (removed == null || removed <= removal) {
+            history.add(task);
+        }
+    }
+
+    // Кольцевой буфер с многими писателями и одним читателем (держателем drainLock).
+    // Писатель резервирует ячейку CAS-ом по writeCounter, затем читает номер remove,
+    // записывает его с меткой и публикует в ячейку задачу; читатель забирает ячейки по порядку до первой еще
+    // не опубликованной. Событие хранится в параллельных массивах, чтобы add ничего не выделял.
+    private static final class Stripe {
+        private final AtomicReferenceArray<Task> slots = new AtomicReferenceArray<>(BUFFER_CAPACITY);
+        private final long[] stamps = new long[BUFFER_CAPACITY];
+        private final long[] removals = new long[BUFFER_CAPACITY];
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+        // Граница текущего слива, только под drainLock
+        private long limit;
+
+        boolean offer(Task task, ConcurrentHistoryManager manager, long stamp) {
+            while (true) {
+                long read = readCounter;
+                long write = writeCounter.get();
+                if (write - read >= BUFFER_CAPACITY) {
+                    return false;
+                }
+                if (writeCounter.compareAndSet(write, write + 1)) {
+                    int index = (int) write & BUFFER_MASK;
+                    stamps[index] = stamp;
+                    removals[index] = manager.removals;
+                    slots.lazySet(index, task);
+                    return true;
+                }
+            }
+        }
+
+        int size() {
+            return (int) (writeCounter.get() - readCounter);
+        }
+
+        void mark() {
+            limit = writeCounter.get();
+        }
+
+        boolean ready() {
+            long read = readCounter;
+            return read < limit && slots.get((int) read & BUFFER_MASK) != null;
+        }
+
+        // Только после ready()
+        long headStamp() {
+            return stamps[(int) readCounter & BUFFER_MASK];
+        }
+
+        // Только после ready()
+        void poll(ConcurrentHistoryManager manager) {
+            long read = readCounter;
+            int index = (int) read & BUFFER_MASK;
+            Task task = slots.get(index);
+            slots.lazySet(index, null);
+            manager.apply(task, removals[index]);
+            readCounter = read + 1;
+        }
+    }
+}
@@ -0,0 +1,814 @@
+package manager;
+
+import exceptions.ManagerOverlapException;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import utils.IntHashSet;
+import utils.Managers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+// Потокобезопасная реализация TaskManager. Задачи лежат в ConcurrentHashMap, id выдает
+// AtomicInteger. Изменения подзадач и эпиков защищены блокировкой полосы эпика, поэтому
+// подзадачи разных эпиков меняются параллельно. Проверка пересечений и вставка в
+// расписание выполняются под отдельной короткой блокировкой, чтобы две задачи не могли
+// одновременно занять одно время.
+public class ConcurrentTaskManager implements TaskManager, Instrumentable {
+
+    private static final int EPIC_LOCK_STRIPES = 64;
+    private static final int TASK_LOCK_STRIPES = 64;
+
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final ConcurrentHashMap<Integer, Task> tasks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Subtask> subtasks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Epic> epics = new ConcurrentHashMap<>();
+    // Агрегат эпика меняется только под блокировкой полосы этого эпика
+    private final ConcurrentHashMap<Integer, EpicAggregate> epicAggregates = new ConcurrentHashMap<>();
+    // Индекс не потокобезопасен, обращения к нему синхронизируются на нем самом
+    private final TaskIndex taskIndex = new TaskIndex();
+    private final HistoryManager historyManager = Managers.getConcurrentHistory();
+    private volatile IntConsumer overlapScanListener = NO_SCAN_LISTENER;
+
+    private final ConcurrentSkipListMap<LocalDateTime, Task> sortedTasks = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Integer, LocalDateTime> scheduledStartTimes = new ConcurrentHashMap<>();
+    private final ReentrantLock scheduleLock = new ReentrantLock();
+    // Неизменяемая копия расписания; сбрасывается и собирается под scheduleLock, чтобы
+    // не опубликовать копию, собранную до изменения, после ее сброса.
+    private volatile List<Task> prioritizedView;
+    private final ReentrantLock[] epicLocks = new ReentrantLock[EPIC_LOCK_STRIPES];
+    // Обновление и удаление задачи идут под блокировкой полосы ее id: иначе обновление,
+    // проверившее наличие задачи до удаления, вернуло бы ее в карту и в расписание.
+    private final ReentrantLock[] taskLocks = new ReentrantLock[TASK_LOCK_STRIPES];
+    // Срез ведется только после первого snapshot() или batch() (до этого null), чтобы
+    // менеджер без срезов не держал копий задач. Публикация - CAS без общей блокировки:
+    // новый срез строится по текущему состоянию карт, а если тем временем срез сменил
+    // другой поток, строится заново от его среза. Поэтому последний успешный CAS после
+    // изменения задачи уже видит это изменение, и устаревшее состояние не затрет свежее.
+    // Подзадачи и эпики публикуются под блокировкой эпика вместе, одним срезом.
+    private final AtomicReference<TaskSnapshot> snapshot = new AtomicReference<>();
+    // Изменения берут блокировку на чтение и идут параллельно; batch() берет ее на запись,
+    // чтобы откат не затер чужие изменения, сделанные во время пакета.
+    private final ReentrantReadWriteLock batchLock = new ReentrantReadWriteLock();
+
+    public ConcurrentTaskManager() {
+        for (int i = 0; i < epicLocks.length; i++) {
+            epicLocks[i] = new ReentrantLock();
+        }
+        for (int i = 0; i < taskLocks.length; i++) {
+            taskLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        batchLock.readLock().lock();
+        try {
+            scheduleLock.lock();
+            try {
+                if (hasOverlap(task)) {
+                    throw new ManagerOverlapException("Невозможно создать задачу, так как она пересекается с другой задачей.");
+                }
+                task.setId(nextId.incrementAndGet());
+                schedule(task);
+            } finally {
+                scheduleLock.unlock();
+            }
+            tasks.put(task.getId(), task);
+            index(task);
+            publish(task.getId());
+            return task;
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> createTasks(Collection<Task> newTasks) {
+        batchLock.readLock().lock();
+        try {
+            scheduleLock.lock();
+            try {
+                checkBatchOverlap(newTasks);
+                for (Task task : newTasks) {
+                    task.setId(nextId.incrementAndGet());
+                    schedule(task);
+                }
+            } finally {
+                scheduleLock.unlock();
+            }
+            List<Task> created = new ArrayList<>(newTasks);
+            int[] ids = new int[created.size()];
+            for (int i = 0; i < ids.length; i++) {
+                Task task = created.get(i);
+                tasks.put(task.getId(), task);
+                index(task);
+                ids[i] = task.getId();
+            }
+            publish(ids);
+            return created;
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return new ArrayList<>(tasks.values());
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        tasks.keySet().forEach(this::deleteTaskById);
+    }
+
+    @Override
+    public Optional<Task> getTaskById(int id) {
+        return Optional.ofNullable(tasks.get(id))
+                .map(task -> {
+                    historyManager.add(task);
+                    return task;
+                });
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        batchLock.readLock().lock();
+        ReentrantLock taskLock = taskLock(task.getId());
+        taskLock.lock();
+        try {
+            if (!tasks.containsKey(task.getId())) {
+                return;
+            }
+            reschedule(task);
+            tasks.put(task.getId(), task);
+            index(task);
+            publish(task.getId());
+        } finally {
+            taskLock.unlock();
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        batchLock.readLock().lock();
+        ReentrantLock taskLock = taskLock(id);
+        taskLock.lock();
+        try {
+            if (tasks.remove(id) != null) {
+                unschedule(id);
+                unindex(id);
+                historyManager.remove(id);
+                publish(id);
+            }
+        } finally {
+            taskLock.unlock();
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        batchLock.readLock().lock();
+        try {
+            ReentrantLock epicLock = epicLock(subtask.getEpicId());
+            epicLock.lock();
+            try {
+                Epic epic = epics.get(subtask.getEpicId());
+                if (epic == null) {
+                    throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не найден.");
+                }
+                scheduleLock.lock();
+                try {
+                    if (hasOverlap(subtask)) {
+                        throw new ManagerOverlapException("Невозможно создать подзадачу, так как она пересекается с другой задачей.");
+                    }
+                    subtask.setId(nextId.incrementAndGet());
+                    schedule(subtask);
+                } finally {
+                    scheduleLock.unlock();
+                }
+                subtasks.put(subtask.getId(), subtask);
+                index(subtask);
+                epic.addSubtaskId(subtask.getId());
+                EpicAggregate aggregate = epicAggregates.get(epic.getId());
+                aggregate.add(subtask);
+                aggregate.applyTo(epic);
+                index(epic);
+                publish(subtask.getId(), epic.getId());
+                return subtask;
+            } finally {
+                epicLock.unlock();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    // Полосы всех затронутых эпиков берутся по возрастанию номера, чтобы два пакета не
+    // могли захватить их навстречу друг другу.
+    @Override
+    public List<Subtask> createSubtasks(Collection<Subtask> newSubtasks) {
+        batchLock.readLock().lock();
+        try {
+            IntHashSet affectedEpics = new IntHashSet();
+            newSubtasks.forEach(subtask -> affectedEpics.add(subtask.getEpicId()));
+            int[] stripes = Arrays.stream(affectedEpics.toArray())
+                    .map(epicId -> Math.floorMod(epicId, EPIC_LOCK_STRIPES))
+                    .distinct()
+                    .sorted()
+                    .toArray();
+            for (int stripe : stripes) {
+                epicLocks[stripe].lock();
+            }
+            try {
+                affectedEpics.forEach(epicId -> {
+                    if (!epics.containsKey(epicId)) {
+                        throw new IllegalArgumentException("Эпик с id " + epicId + " не найден.");
+                    }
+                });
+                scheduleLock.lock();
+                try {
+                    checkBatchOverlap(newSubtasks);
+                    for (Subtask subtask : newSubtasks) {
+                        subtask.setId(nextId.incrementAndGet());
+                        schedule(subtask);
+                    }
+                } finally {
+                    scheduleLock.unlock();
+                }
+                List<Subtask> created = new ArrayList<>(newSubtasks);
+                for (Subtask subtask : created) {
+                    subtasks.put(subtask.getId(), subtask);
+                    index(subtask);
+                    epics.get(subtask.getEpicId()).addSubtaskId(subtask.getId());
+                    epicAggregates.get(subtask.getEpicId()).add(subtask);
+                }
+                affectedEpics.forEach(epicId -> {
+                    Epic epic = epics.get(epicId);
+                    epicAggregates.get(epicId).applyTo(epic);
+                    index(epic);
+                });
+                int[] changed = Arrays.copyOf(affectedEpics.toArray(), affectedEpics.size() + created.size());
+                for (int i = 0; i < created.size(); i++) {
+                    changed[affectedEpics.size() + i] = created.get(i).getId();
+                }
+                publish(changed);
+                return created;
+            } finally {
+                for (int i = stripes.length - 1; i >= 0; i--) {
+                    epicLocks[stripes[i]].unlock();
+                }
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return new ArrayList<>(subtasks.values());
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        batchLock.readLock().lock();
+        try {
+            for (Epic epic : epics.values()) {
+                ReentrantLock epicLock = epicLock(epic.getId());
+                epicLock.lock();
+                try {
+                    int[] removed = epic.getSubtaskIds().toArray();
+                    removeSubtasksOf(epic);
+                    epicAggregates.get(epic.getId()).applyTo(epic);
+                    index(epic);
+                    int[] changed = Arrays.copyOf(removed, removed.length + 1);
+                    changed[removed.length] = epic.getId();
+                    publish(changed);
+                } finally {
+                    epicLock.unlock();
+                }
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Subtask> getSubtaskById(int id) {
+        return Optional.ofNullable(subtasks.get(id))
+                .map(subtask -> {
+                    historyManager.add(subtask);
+                    return subtask;
+                });
+    }
+
+    // Блокируются полосы и прежнего, и нового эпика подзадачи. Прежний эпик известен только
+    // до блокировки, поэтому, если подзадачу тем временем перенесли, захват повторяется.
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        batchLock.readLock().lock();
+        try {
+            while (true) {
+                Subtask current = subtasks.get(subtask.getId());
+                if (current == null || updateSubtask(subtask, current.getEpicId())) {
+                    return;
+                }
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    // false - подзадача уже не в эпике storedEpicId, нужно повторить
+    private boolean updateSubtask(Subtask subtask, int storedEpicId) {
+        // Полосы берутся по возрастанию номера, как в createSubtasks
+        int oldStripe = Math.floorMod(storedEpicId, EPIC_LOCK_STRIPES);
+        int newStripe = Math.floorMod(subtask.getEpicId(), EPIC_LOCK_STRIPES);
+        ReentrantLock firstLock = epicLocks[Math.min(oldStripe, newStripe)];
+        ReentrantLock secondLock = epicLocks[Math.max(oldStripe, newStripe)];
+        firstLock.lock();
+        if (secondLock != firstLock) {
+            secondLock.lock();
+        }
+        try {
+            Subtask stored = subtasks.get(subtask.getId());
+            if (stored == null) {
+                return true;
+            }
+            if (stored.getEpicId() != storedEpicId) {
+                return false;
+            }
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не найден.");
+            }
+            reschedule(subtask);
+            subtasks.put(subtask.getId(), subtask);
+            index(subtask);
+            // Подзадача перенесена в другой эпик: ее вклад и id уходят из прежнего
+            if (storedEpicId != epic.getId()) {
+                Epic oldEpic = epics.get(storedEpicId);
+                oldEpic.removeSubtaskId(subtask.getId());
+                EpicAggregate oldAggregate = epicAggregates.get(storedEpicId);
+                oldAggregate.remove(subtask.getId());
+                oldAggregate.applyTo(oldEpic);
+                index(oldEpic);
+                epic.addSubtaskId(subtask.getId());
+            }
+            EpicAggregate aggregate = epicAggregates.get(epic.getId());
+            aggregate.add(subtask);
+            aggregate.applyTo(epic);
+            index(epic);
+            if (storedEpicId != epic.getId()) {
+                publish(subtask.getId(), storedEpicId, epic.getId());
+            } else {
+                publish(subtask.getId(), epic.getId());
+            }
+            return true;
+        } finally {
+            if (secondLock != firstLock) {
+                secondLock.unlock();
+            }
+            firstLock.unlock();
+        }
+    }
+
+    // Как и в updateSubtask, эпик подзадачи перечитывается под блокировкой его полосы
+    @Override
+    public void deleteSubtaskById(int id) {
+        batchLock.readLock().lock();
+        try {
+            while (true) {
+                Subtask current = subtasks.get(id);
+                if (current == null || deleteSubtask(id, current.getEpicId())) {
+                    return;
+                }
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    // false - подзадача уже не в эпике epicId, нужно повторить
+    private boolean deleteSubtask(int id, int epicId) {
+        ReentrantLock epicLock = epicLock(epicId);
+        epicLock.lock();
+        try {
+            Subtask stored = subtasks.get(id);
+            if (stored == null) {
+                return true;
+            }
+            if (stored.getEpicId() != epicId) {
+                return false;
+            }
+            subtasks.remove(id);
+            unschedule(id);
+            unindex(id);
+            historyManager.remove(id);
+            Epic epic = epics.get(epicId);
+            if (epic != null) {
+                epic.removeSubtaskId(id);
+                EpicAggregate aggregate = epicAggregates.get(epicId);
+                aggregate.remove(id);
+                aggregate.applyTo(epic);
+                index(epic);
+            }
+            publish(id, epicId);
+            return true;
+        } finally {
+            epicLock.unlock();
+        }
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        batchLock.readLock().lock();
+        try {
+            epic.setId(nextId.incrementAndGet());
+            epicAggregates.put(epic.getId(), new EpicAggregate());
+            epics.put(epic.getId(), epic);
+            index(epic);
+            publish(epic.getId());
+            return epic;
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return new ArrayList<>(epics.values());
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        epics.keySet().forEach(this::deleteEpicById);
+    }
+
+    @Override
+    public Optional<Epic> getEpicById(int id) {
+        return Optional.ofNullable(epics.get(id))
+                .map(epic -> {
+                    historyManager.add(epic);
+                    return epic;
+                });
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        batchLock.readLock().lock();
+        try {
+            ReentrantLock epicLock = epicLock(epic.getId());
+            epicLock.lock();
+            try {
+                Epic savedEpic = epics.get(epic.getId());
+                if (savedEpic != null) {
+                    savedEpic.setName(epic.getName());
+                    savedEpic.setDescription(epic.getDescription());
+                    publish(epic.getId());
+                }
+            } finally {
+                epicLock.unlock();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        batchLock.readLock().lock();
+        try {
+            ReentrantLock epicLock = epicLock(id);
+            epicLock.lock();
+            try {
+                Epic epic = epics.remove(id);
+                if (epic != null) {
+                    historyManager.remove(id);
+                    removeSubtasksOf(epic);
+                    epicAggregates.remove(id);
+                    unindex(id);
+                    publish(id);
+                }
+            } finally {
+                epicLock.unlock();
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        ReentrantLock epicLock = epicLock(epicId);
+        epicLock.lock();
+        try {
+            Epic epic = epics.get(epicId);
+            return subtasksOf(epic);
+        } finally {
+            epicLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        return historyManager.getHistory(offset, limit);
+    }
+
+    @Override
+    public List<Task> getRecentHistory(int n) {
+        return historyManager.getRecentHistory(n);
+    }
+
+    @Override
+    public Stream<Task> streamHistory() {
+        return historyManager.streamHistory();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        List<Task> view = prioritizedView;
+        if (view != null) {
+            return view;
+        }
+        scheduleLock.lock();
+        try {
+            if (prioritizedView == null) {
+                prioritizedView = List.copyOf(sortedTasks.values());
+            }
+            return prioritizedView;
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    // Обход слабо согласован: изменения, идущие параллельно, могут быть видны частично
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return InMemoryTaskManager.prioritizedRange(sortedTasks, from, to, limit);
+    }
+
+    @Override
+    public List<Task> findOverlapping(LocalDateTime start, LocalDateTime end) {
+        List<Task> overlapping = new ArrayList<>();
+        if (start == null || end == null) {
+            return overlapping;
+        }
+        for (Task existingTask : overlapCandidates(start, end)) {
+            if (!existingTask.getEndTime().isAfter(start)) {
+                break;
+            }
+            overlapping.add(existingTask);
+        }
+        Collections.reverse(overlapping);
+        return overlapping;
+    }
+
+    @Override
+    public List<Task> find(TaskQuery query) {
+        synchronized (taskIndex) {
+            return taskIndex.find(query, this::lookup);
+        }
+    }
+
+    @Override
+    public TaskSnapshot snapshot() {
+        TaskSnapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        // Первый срез строится, пока изменения стоят: публикации идут под блокировкой на чтение
+        batchLock.writeLock().lock();
+        try {
+            current = snapshot.get();
+            if (current == null) {
+                current = TaskSnapshot.empty()
+                        .update(this::lookup, tasks.keySet().stream().mapToInt(Integer::intValue).toArray())
+                        .update(this::lookup, subtasks.keySet().stream().mapToInt(Integer::intValue).toArray())
+                        .update(this::lookup, epics.keySet().stream().mapToInt(Integer::intValue).toArray());
+                snapshot.set(current);
+            }
+            return current;
+        } finally {
+            batchLock.writeLock().unlock();
+        }
+    }
+
+    // Пакет выполняется под блокировкой на запись: остальные изменения ждут его конца,
+    // чтение продолжается. При ошибке доска восстанавливается из среза до пакета.
+    @Override
+    public void batch(Consumer<TaskManager> changes) {
+        batchLock.writeLock().lock();
+        try {
+            TaskSnapshot before = snapshot();
+            try {
+                changes.accept(this);
+            } catch (RuntimeException | Error e) {
+                restore(before);
+                throw e;
+            }
+        } finally {
+            batchLock.writeLock().unlock();
+        }
+    }
+
+    // Вызывается под batchLock на запись, поэтому других изменений нет
+    private void restore(TaskSnapshot before) {
+        tasks.clear();
+        subtasks.clear();
+        epics.clear();
+        epicAggregates.clear();
+        sortedTasks.clear();
+        scheduledStartTimes.clear();
+        prioritizedView = null;
+        synchronized (taskIndex) {
+            taskIndex.clear();
+        }
+        before.getAllTasks().forEach(task -> {
+            tasks.put(task.getId(), task);
+            schedule(task);
+            index(task);
+        });
+        before.getAllEpics().forEach(epic -> {
+            epics.put(epic.getId(), epic);
+            epicAggregates.put(epic.getId(), new EpicAggregate());
+        });
+        before.getAllSubtasks().forEach(subtask -> {
+            subtasks.put(subtask.getId(), subtask);
+            schedule(subtask);
+            index(subtask);
+            epics.get(subtask.getEpicId()).addSubtaskId(subtask.getId());
+            epicAggregates.get(subtask.getEpicId()).add(subtask);
+        });
+        epics.values().forEach(epic -> {
+            EpicAggregate aggregate = epicAggregates.get(epic.getId());
+            aggregate.applyStatus(epic);
+            if (!epic.getSubtaskIds().isEmpty()) {
+                aggregate.applyEstimates(epic);
+            }
+            index(epic);
+        });
+        snapshot.set(before.withVersion(snapshot.get().getVersion() + 1));
+    }
+
+    // Вызывается под scheduleLock
+    private void checkBatchOverlap(Collection<? extends Task> batch) {
+        for (Task task : InMemoryTaskManager.scheduleOrder(batch)) {
+            if (hasOverlap(task)) {
+                throw new ManagerOverlapException("Невозможно создать задачи, так как они пересекаются с другими задачами.");
+            }
+        }
+    }
+
+    private void publish(int... ids) {
+        TaskSnapshot current;
+        do {
+            current = snapshot.get();
+            if (current == null) {
+                return;
+            }
+        } while (!snapshot.compareAndSet(current, current.update(this::lookup, ids)));
+    }
+
+    private Task lookup(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        if (task == null) {
+            task = epics.get(id);
+        }
+        return task;
+    }
+
+    private void index(Task task) {
+        synchronized (taskIndex) {
+            taskIndex.index(task);
+        }
+    }
+
+    private void unindex(int id) {
+        synchronized (taskIndex) {
+            taskIndex.unindex(id);
+        }
+    }
+
+    private ReentrantLock epicLock(int epicId) {
+        return epicLocks[Math.floorMod(epicId, EPIC_LOCK_STRIPES)];
+    }
+
+    private ReentrantLock taskLock(int taskId) {
+        return taskLocks[Math.floorMod(taskId, TASK_LOCK_STRIPES)];
+    }
+
+    // Вызывается под блокировкой полосы эпика
+    private void removeSubtasksOf(Epic epic) {
+        epic.getSubtaskIds().forEach(subtaskId -> {
+            subtasks.remove(subtaskId);
+            unschedule(subtaskId);
+            unindex(subtaskId);
+            historyManager.remove(subtaskId);
+        });
+        epic.getSubtaskIds().clear();
+        epicAggregates.get(epic.getId()).clear();
+    }
+
+    private List<Subtask> subtasksOf(Epic epic) {
+        // Как в InMemoryTaskManager: по возрастанию id, то есть в порядке добавления
+        int[] subtaskIds = epic.getSubtaskIds().toSortedArray();
+        List<Subtask> epicSubtasks = new ArrayList<>(subtaskIds.length);
+        for (int subtaskId : subtaskIds) {
+            epicSubtasks.add(subtasks.get(subtaskId));
+        }
+        return epicSubtasks;
+    }
+
+    private void reschedule(Task task) {
+        scheduleLock.lock();
+        try {
+            if (hasOverlap(task)) {
+                throw new ManagerOverlapException("Невозможно обновить задачу, так как она будет пересекаться с другой задачей.");
+            }
+            unschedule(task.getId());
+            schedule(task);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    // Вызывается под scheduleLock
+    private boolean hasOverlap(Task task) {
+        if (task.getStartTime() == null) {
+            return false;
+        }
+        Task sameStart = sortedTasks.get(task.getStartTime());
+        if (sameStart != null && sameStart.getId() != task.getId()) {
+            overlapScanListener.accept(0);
+            return true;
+        }
+        int scanned = 0;
+        boolean overlap = false;
+        for (Task existingTask : overlapCandidates(task.getStartTime(), task.getEndTime())) {
+            scanned++;
+            if (existingTask.getId() == task.getId()) {
+                continue;
+            }
+            overlap = existingTask.getEndTime().isAfter(task.getStartTime());
+            break;
+        }
+        overlapScanListener.accept(scanned);
+        return overlap;
+    }
+
+    @Override
+    public void setOverlapScanListener(IntConsumer listener) {
+        overlapScanListener = listener == null ? NO_SCAN_LISTENER : listener;
+    }
+
+    private Collection<Task> overlapCandidates(LocalDateTime start, LocalDateTime end) {
+        return sortedTasks.headMap(end, false).descendingMap().values();
+    }
+
+    private void schedule(Task task) {
+        if (task.getStartTime() != null) {
+            sortedTasks.put(task.getStartTime(), task);
+            scheduledStartTimes.put(task.getId(), task.getStartTime());
+            prioritizedView = null;
+        }
+    }
+
+    private void unschedule(int id) {
+        scheduleLock.lock();
+        try {
+            LocalDateTime startTime = scheduledStartTimes.remove(id);
+            if (startTime != null) {
+                sortedTasks.remove(startTime);
+                prioritizedView = null;
+            }
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package manager;
+
+import exceptions.ManagerLoadException;
+import tasks.Status;
+import tasks.Task;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+// Разбирает строки CSV-снимка прямо из байтового буфера, в том числе из отображенного
+// в память файла. Числа, даты и перечисления читаются из байтов без промежуточных строк,
+// строки создаются только для названия и описания. Экземпляр не потокобезопасен.
+final class CsvRecordParser {
+
+    private static final int MAX_FIELDS = 8;
+    private static final byte[] HEADER = CsvSnapshotCodec.HEADER.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+    private static final byte[][] TYPE_NAMES = names(TYPES);
+    private static final byte[][] STATUS_NAMES = names(STATUSES);
+
+    private final ByteBuffer buffer;
+    private final int[] fieldStarts = new int[MAX_FIELDS];
+    private final int[] fieldEnds = new int[MAX_FIELDS];
+    private byte[] scratch = new byte[128];
+
+    CsvRecordParser(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    // Разбирает строки, начинающиеся в диапазоне [from, to); to должен указывать
+    // на начало строки или на конец буфера.
+    void parse(int from, int to, Consumer<Task> consumer) {
+        int position = from;
+        while (position < to) {
+            int lineEnd = indexOf((byte) '\n', position, to);
+            int end = lineEnd;
+            if (end > position && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            if (!startsWith(position, end, HEADER)) {
+                consumer.accept(parseRecord(position, end));
+            }
+            position = lineEnd + 1;
+        }
+    }
+
+    int indexOf(byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private Task parseRecord(int start, int end) {
+        int count = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || buffer.get(i) == ',') {
+                if (count == MAX_FIELDS) {
+                    throw formatError();
+                }
+                fieldStarts[count] = fieldStart;
+                fieldEnds[count] = i;
+                count++;
+                fieldStart = i + 1;
+            }
+        }
+        // Как и String.split, пустые поля в конце строки не учитываются
+        while (count > 0 && fieldStarts[count - 1] == fieldEnds[count - 1]) {
+            count--;
+        }
+        if (count != 7 && count != 8) {
+            throw formatError();
+        }
+
+        int id = (int) parseLong(0);
+        TaskType type = TYPES[parseEnum(1, TYPE_NAMES)];
+        String name = parseString(2);
+        Status status = STATUSES[parseEnum(3, STATUS_NAMES)];
+        String description = parseString(4);
+        Duration duration = isNull(5) ? null : Duration.ofMinutes(parseLong(5));
+        LocalDateTime startTime = isNull(6) ? null : parseDateTime(6);
+        int epicId = count == 8 ? (int) parseLong(7) : -1;
+
+        return TaskRestorer.restore(type, id, name, description, status, epicId, duration, startTime);
+    }
+
+    private long parseLong(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+        boolean negative = start < end && buffer.get(start) == '-';
+        if (negative) {
+            start++;
+        }
+        if (start == end) {
+            throw new NumberFormatException("Пустое число в записи снимка");
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + digit(i);
+        }
+        return negative ? -value : value;
+    }
+
+    private int parseEnum(int field, byte[][] names) {
+        for (int i = 0; i < names.length; i++) {
+            if (equalsBytes(field, names[i])) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное значение: " + parseString(field));
+    }
+
+    private String parseString(int field) {
+        int length = fieldEnds[field] - fieldStarts[field];
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(fieldStarts[field], scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private boolean isNull(int field) {
+        return equalsBytes(field, NULL);
+    }
+
+    // Быстрый разбор формата LocalDateTime.toString(): uuuu-MM-ddTHH:mm[:ss[.n]].
+    // Все остальное (например, годы за пределами 0000-9999) отдается LocalDateTime.parse.
+    private LocalDateTime parseDateTime(int field) {
+        int start = fieldStarts[field];
+        int length = fieldEnds[field] - start;
+        if (length < 16 || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-'
+                || buffer.get(start + 10) != 'T' || buffer.get(start + 13) != ':') {
+            return LocalDateTime.parse(parseString(field));
+        }
+        int year = number(start, 4);
+        int month = number(start + 5, 2);
+        int day = number(start + 8, 2);
+        int hour = number(start + 11, 2);
+        int minute = number(start + 14, 2);
+        int second = 0;
+        int nano = 0;
+        if (length > 16) {
+            if (length < 19 || buffer.get(start + 16) != ':') {
+                return LocalDateTime.parse(parseString(field));
+            }
+            second = number(start + 17, 2);
+            if (length > 19) {
+                int fractionLength = length - 20;
+                if (buffer.get(start + 19) != '.' || fractionLength < 1 || fractionLength > 9) {
+                    return LocalDateTime.parse(parseString(field));
+                }
+                nano = number(start + 20, fractionLength);
+                for (int i = fractionLength; i < 9; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    private int number(int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            value = value * 10 + digit(i);
+        }
+        return value;
+    }
+
+    private int digit(int index) {
+        int digit = buffer.get(index) - '0';
+        if (digit < 0 || digit > 9) {
+            throw new NumberFormatException("Недопустимый символ в числе: " + (char) buffer.get(index));
+        }
+        return digit;
+    }
+
+    private boolean equalsBytes(int field, byte[] expected) {
+        int start = fieldStarts[field];
+        if (fieldEnds[field] - start != expected.length) {
+            return false;
+        }
+        return startsWith(start, fieldEnds[field], expected);
+    }
+
+    private boolean startsWith(int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ManagerLoadException formatError() {
+        return new ManagerLoadException("Неверный формат записи.");
+    }
+
+    private static byte[][] names(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name().getBytes(StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+}
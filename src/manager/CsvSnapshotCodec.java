@@ -0,0 +1,149 @@
+package manager;
+
+import exceptions.ManagerLoadException;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+// Текстовый формат снимка: заголовок и по одной строке на задачу. Тем же форматом
+// строки пишутся записи журнала, и в нем же удобно выгружать доску для обмена.
+public class CsvSnapshotCodec implements SnapshotCodec {
+
+    public static final String HEADER = "id,type,name,status,description,duration,startTime,epic";
+
+    static final CsvSnapshotCodec INSTANCE = new CsvSnapshotCodec();
+
+    private static final int PARALLEL_CHUNK_SIZE = 1 << 20;
+
+    @Override
+    public ByteBuffer encode(Collection<? extends Task> tasks) {
+        StringBuilder builder = new StringBuilder(HEADER).append(System.lineSeparator());
+        for (Task task : tasks) {
+            builder.append(format(task)).append(System.lineSeparator());
+        }
+        return StandardCharsets.UTF_8.encode(CharBuffer.wrap(builder));
+    }
+
+    @Override
+    public void decode(ByteBuffer buffer, Consumer<Task> consumer) {
+        new CsvRecordParser(buffer).parse(buffer.position(), buffer.limit(), consumer);
+    }
+
+    // Файл режется на куски примерно по PARALLEL_CHUNK_SIZE байт; граница куска сдвигается
+    // к ближайшему концу строки, поэтому каждая запись целиком попадает в один кусок.
+    @Override
+    public List<Task> decodeParallel(ByteBuffer buffer, ForkJoinPool pool) {
+        int from = buffer.position();
+        int to = buffer.limit();
+        if (to - from < 2 * PARALLEL_CHUNK_SIZE) {
+            return SnapshotCodec.super.decodeParallel(buffer, pool);
+        }
+
+        CsvRecordParser boundaries = new CsvRecordParser(buffer);
+        List<Callable<List<Task>>> chunks = new ArrayList<>();
+        int chunkStart = from;
+        while (chunkStart < to) {
+            int chunkEnd = chunkStart + PARALLEL_CHUNK_SIZE < to
+                    ? Math.min(boundaries.indexOf((byte) '\n', chunkStart + PARALLEL_CHUNK_SIZE, to) + 1, to)
+                    : to;
+            int start = chunkStart;
+            chunks.add(() -> {
+                List<Task> decoded = new ArrayList<>();
+                new CsvRecordParser(buffer.duplicate()).parse(start, chunkEnd, decoded::add);
+                return decoded;
+            });
+            chunkStart = chunkEnd;
+        }
+
+        List<Task> decoded = new ArrayList<>();
+        for (Future<List<Task>> chunk : pool.invokeAll(chunks)) {
+            decoded.addAll(join(chunk));
+        }
+        return decoded;
+    }
+
+    private static List<Task> join(Future<List<Task>> chunk) {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerLoadException("Загрузка снимка прервана.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ManagerLoadException("Ошибка при разборе снимка: " + e.getCause());
+        }
+    }
+
+    static String format(Task task) {
+        return String.format("%s,%s,%s,%s,%s,%s,%s,%s",
+                task.getId(),
+                task.getType(),
+                task.getName(),
+                task.getStatus(),
+                task.getDescription(),
+                getMinutesFromDuration(task),
+                getStartTime(task),
+                getEpicId(task));
+    }
+
+    private static String getEpicId(Task task) {
+        if (TaskType.SUBTASK.equals(task.getType())) {
+            return ((Subtask) task).getEpicId() + "";
+        }
+        return "";
+    }
+
+    static Task parse(String value) {
+        String[] values = value.split(",");
+        if (values.length != 7 && values.length != 8) {
+            throw new ManagerLoadException("Неверный формат записи.");
+        }
+
+        int id = Integer.parseInt(values[0]);
+        TaskType type = TaskType.valueOf(values[1]);
+        String name = values[2];
+        Status status = Status.valueOf(values[3]);
+        String description = values[4];
+        Duration duration = restoreDuration(values[5]);
+        LocalDateTime startTime = restoreStartTime(values[6]);
+        int epicId = values.length == 8 ? Integer.parseInt(values[7]) : -1;
+
+        return TaskRestorer.restore(type, id, name, description, status, epicId, duration, startTime);
+    }
+
+    private static Long getMinutesFromDuration(Task task) {
+        if (task.getDuration() == null) return null;
+        return task.getDuration().toMinutes();
+    }
+
+    private static Duration restoreDuration(String durationInMinutes) {
+        if (durationInMinutes == null || "null".equals(durationInMinutes)) return null;
+        return Duration.ofMinutes(Long.parseLong(durationInMinutes));
+    }
+
+    private static String getStartTime(Task task) {
+        if (task.getStartTime() == null) return null;
+        return task.getStartTime().toString();
+    }
+
+    private static LocalDateTime restoreStartTime(String startTime) {
+        if (startTime == null || "null".equals(startTime)) return null;
+        return LocalDateTime.parse(startTime);
+    }
+}
@@ -0,0 +1,66 @@
+package manager;
+
+import java.time.Duration;
+
+public final class DurabilityPolicy {
+
+    public enum Mode {
+        // Каждое изменение записывается на диск до возврата из метода
+        SYNC_EACH,
+        // Изменения копятся и записываются раз в interval или по достижении maxBatch
+        GROUP_COMMIT,
+        // Изменения записываются фоновым потоком сразу, как только он освободится
+        ASYNC
+    }
+
+    private static final DurabilityPolicy SYNC_EACH = new DurabilityPolicy(Mode.SYNC_EACH, Duration.ZERO, 1);
+    private static final DurabilityPolicy ASYNC = new DurabilityPolicy(Mode.ASYNC, Duration.ZERO, 1);
+
+    private final Mode mode;
+    private final Duration interval;
+    private final int maxBatch;
+
+    private DurabilityPolicy(Mode mode, Duration interval, int maxBatch) {
+        this.mode = mode;
+        this.interval = interval;
+        this.maxBatch = maxBatch;
+    }
+
+    public static DurabilityPolicy syncEach() {
+        return SYNC_EACH;
+    }
+
+    public static DurabilityPolicy groupCommit(Duration interval, int maxBatch) {
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Интервал записи должен быть положительным: " + interval);
+        }
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("Размер пакета должен быть положительным: " + maxBatch);
+        }
+        return new DurabilityPolicy(Mode.GROUP_COMMIT, interval, maxBatch);
+    }
+
+    public static DurabilityPolicy async() {
+        return ASYNC;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    @Override
+    public String toString() {
+        if (mode == Mode.GROUP_COMMIT) {
+            return mode + "(" + interval + ", " + maxBatch + ")";
+        }
+        return mode.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import utils.IntObjectHashMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+// Накопленные показатели подзадач одного эпика: число подзадач в каждом статусе,
+// суммарная длительность и упорядоченные мультимножества начал и окончаний.
+// Добавление, изменение и удаление подзадачи стоят O(log k) вместо пересчета по всем
+// подзадачам эпика.
+final class EpicAggregate {
+
+    // Вклад подзадачи запоминается копией, потому что задачу могут изменить "на месте"
+    // до вызова update, и старые значения для вычитания уже не получить из нее самой.
+    private record Contribution(Status status, Duration duration, LocalDateTime start, LocalDateTime end) {
+    }
+
+    private final IntObjectHashMap<Contribution> contributions = new IntObjectHashMap<>();
+    private final int[] statusCounts = new int[Status.values().length];
+    private final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> ends = new TreeMap<>();
+    private Duration totalDuration = Duration.ZERO;
+
+    void add(Subtask subtask) {
+        remove(subtask.getId());
+        LocalDateTime start = subtask.getStartTime();
+        Duration duration = subtask.getDuration();
+        LocalDateTime end = start != null && duration != null ? start.plus(duration) : null;
+        Contribution contribution = new Contribution(subtask.getStatus(), duration, start, end);
+        contributions.put(subtask.getId(), contribution);
+
+        statusCounts[contribution.status().ordinal()]++;
+        if (duration != null) {
+            totalDuration = totalDuration.plus(duration);
+        }
+        increment(starts, start);
+        increment(ends, end);
+    }
+
+    void remove(int subtaskId) {
+        Contribution contribution = contributions.remove(subtaskId);
+        if (contribution == null) {
+            return;
+        }
+        statusCounts[contribution.status().ordinal()]--;
+        if (contribution.duration() != null) {
+            totalDuration = totalDuration.minus(contribution.duration());
+        }
+        decrement(starts, contribution.start());
+        decrement(ends, contribution.end());
+    }
+
+    void clear() {
+        contributions.clear();
+        Arrays.fill(statusCounts, 0);
+        starts.clear();
+        ends.clear();
+        totalDuration = Duration.ZERO;
+    }
+
+    void applyTo(Epic epic) {
+        applyStatus(epic);
+        applyEstimates(epic);
+    }
+
+    void applyStatus(Epic epic) {
+        int size = contributions.size();
+        if (size == 0 || statusCounts[Status.NEW.ordinal()] == size) {
+            epic.setStatus(Status.NEW);
+        } else if (statusCounts[Status.DONE.ordinal()] == size) {
+            epic.setStatus(Status.DONE);
+        } else {
+            epic.setStatus(Status.IN_PROGRESS);
+        }
+    }
+
+    void applyEstimates(Epic epic) {
+        if (contributions.isEmpty()) {
+            epic.setStartTime(null);
+            epic.setEndTime(null);
+            epic.setDuration(null);
+            return;
+        }
+        epic.setStartTime(starts.isEmpty() ? null : starts.firstKey());
+        epic.setEndTime(ends.isEmpty() ? null : ends.lastKey());
+        epic.setDuration(totalDuration);
+    }
+
+    private static void increment(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime key) {
+        if (key != null) {
+            multiset.merge(key, 1, Integer::sum);
+        }
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime key) {
+        if (key != null) {
+            multiset.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+        }
+    }
+}
@@ -3,235 +3,681 @@ package manager;
 import exceptions.ManagerLoadException;
 import exceptions.ManagerSaveException;
 import tasks.Epic;
-import tasks.Status;
 import tasks.Subtask;
 import tasks.Task;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
 
     private final File file;
-    public static final String HEADER_STRING = "id,type,name,status,description,duration,startTime,epic";
+    private final File journalFile;
+    private final boolean journaled;
+    private final DurabilityPolicy durabilityPolicy;
+    private final SnapshotCodec codec;
+    private final ScheduledExecutorService flusher;
+    private List<String> pendingRecords = new ArrayList<>();
+    private int pendingChanges;
+    private int journalRecords;
+    private boolean flushRequested;
+    // Внутри batch() изменения копятся здесь и сохраняются одним persist() в конце
+    private final List<String> batchRecords = new ArrayList<>();
+    private int batchChanges;
+    private int batchDepth;
+    private volatile SaveListener saveListener = NO_SAVE_LISTENER;
+    // Ошибка фоновой записи, о которой еще никто не узнал: ее получит следующее изменение
+    private volatile ManagerSaveException backgroundFailure;
+    // Обрывок неудачной дозаписи не удалось отрезать: следующая запись должна быть снимком,
+    // иначе обрывок окажется в середине журнала и файл не загрузится
+    private volatile boolean journalTorn;
+    public static final String HEADER_STRING = CsvSnapshotCodec.HEADER;
+    public static final String JOURNAL_SUFFIX = ".journal";
+    public static final int JOURNAL_COMPACTION_THRESHOLD = 10_000;
+    private static final long MAP_THRESHOLD = 1 << 20;
+
+    private static final String UPSERT = "U";
+    private static final String DELETE = "D";
+    private static final String CLEAR = "C";
+    // Запись журнала: "<crc32 в hex> <операция>,<значение>". По сумме обрывок последней
+    // записи после сбоя отличается от порчи: первый отбрасывается, вторая - ошибка загрузки.
+    private static final int CHECKSUM_LENGTH = 8;
 
     public FileBackedTaskManager(File file) {
+        this(file, false);
+    }
+
+    // В режиме журнала каждое изменение дописывает в file.journal одну запись вместо
+    // перезаписи всего файла. Когда записей становится JOURNAL_COMPACTION_THRESHOLD,
+    // журнал сворачивается в снимок (compact).
+    public FileBackedTaskManager(File file, boolean journaled) {
+        this(file, journaled, DurabilityPolicy.syncEach());
+    }
+
+    // Политика определяет, когда изменения попадают на диск. В режимах GROUP_COMMIT и ASYNC
+    // запись выполняет фоновый поток; дождаться ее можно через flush() или flushAsync().
+    public FileBackedTaskManager(File file, boolean journaled, DurabilityPolicy durabilityPolicy) {
+        this(file, journaled, durabilityPolicy, SnapshotCodec.csv());
+    }
+
+    // Кодек задает формат снимка; журнал всегда пишется построчно в формате CSV.
+    public FileBackedTaskManager(File file, boolean journaled, DurabilityPolicy durabilityPolicy, SnapshotCodec codec) {
         this.file = file;
+        this.codec = codec;
+        this.journalFile = new File(file.getPath() + JOURNAL_SUFFIX);
+        this.journaled = journaled;
+        this.durabilityPolicy = durabilityPolicy;
+        this.flusher = createFlusher(durabilityPolicy);
+    }
+
+    private ScheduledExecutorService createFlusher(DurabilityPolicy policy) {
+        if (policy.getMode() == DurabilityPolicy.Mode.SYNC_EACH) {
+            return null;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-manager-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (policy.getMode() == DurabilityPolicy.Mode.GROUP_COMMIT) {
+            long intervalNanos = policy.getInterval().toNanos();
+            executor.scheduleWithFixedDelay(this::writePendingInBackground,
+                    intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        }
+        return executor;
     }
 
     @Override
-    public Task createTask(Task task) {
+    public synchronized Task createTask(Task task) {
         Task savedTask = super.createTask(task);
-        save();
+        saveUpsert(savedTask);
         return savedTask;
     }
 
     @Override
-    public Subtask createSubtask(Subtask subtask) {
+    public synchronized List<Task> createTasks(Collection<Task> tasks) {
+        List<Task> created = super.createTasks(tasks);
+        saveUpserts(created);
+        return created;
+    }
+
+    @Override
+    public synchronized Subtask createSubtask(Subtask subtask) {
         Subtask savedSubtask = super.createSubtask(subtask);
-        save();
+        saveUpsert(savedSubtask);
         return savedSubtask;
     }
 
     @Override
-    public Epic createEpic(Epic epic) {
+    public synchronized List<Subtask> createSubtasks(Collection<Subtask> subtasks) {
+        List<Subtask> created = super.createSubtasks(subtasks);
+        saveUpserts(created);
+        return created;
+    }
+
+    @Override
+    public synchronized Epic createEpic(Epic epic) {
         Epic savedEpic = super.createEpic(epic);
-        save();
+        saveUpsert(savedEpic);
         return savedEpic;
     }
 
     @Override
-    public void updateTask(Task task) {
+    public synchronized void updateTask(Task task) {
         super.updateTask(task);
-        save();
+        saveUpsert(tasks.get(task.getId()));
     }
 
     @Override
-    public void updateSubtask(Subtask subtask) {
+    public synchronized void updateSubtask(Subtask subtask) {
         super.updateSubtask(subtask);
-        save();
+        saveUpsert(subtasks.get(subtask.getId()));
     }
 
     @Override
-    public void updateEpic(Epic epic) {
+    public synchronized void updateEpic(Epic epic) {
         super.updateEpic(epic);
-        save();
+        saveUpsert(epics.get(epic.getId()));
     }
 
     @Override
-    public void deleteTaskById(int id) {
+    public synchronized void deleteTaskById(int id) {
         super.deleteTaskById(id);
-        save();
+        saveDelete(List.of(id));
     }
 
     @Override
-    public void deleteSubtaskById(int id) {
+    public synchronized void deleteSubtaskById(int id) {
         super.deleteSubtaskById(id);
-        save();
+        saveDelete(List.of(id));
     }
 
     @Override
-    public void deleteEpicById(int id) {
+    public synchronized void deleteEpicById(int id) {
+        List<Integer> deletedIds = new ArrayList<>();
+        Epic epic = epics.get(id);
+        if (epic != null) {
+            epic.getSubtaskIds().forEach(deletedIds::add);
+        }
+        deletedIds.add(id);
         super.deleteEpicById(id);
-        save();
+        saveDelete(deletedIds);
     }
 
     @Override
-    public void deleteAllTasks() {
+    public synchronized void deleteAllTasks() {
         super.deleteAllTasks();
-        save();
+        saveClear(List.of(TaskType.TASK));
     }
 
     @Override
-    public void deleteAllSubtasks() {
+    public synchronized void deleteAllSubtasks() {
         super.deleteAllSubtasks();
-        save();
+        saveClear(List.of(TaskType.SUBTASK));
     }
 
     @Override
-    public void deleteAllEpics() {
+    public synchronized void deleteAllEpics() {
         super.deleteAllEpics();
-        save();
+        saveClear(List.of(TaskType.SUBTASK, TaskType.EPIC));
+    }
+
+    // Срез InMemoryTaskManager достраивается при вызове, поэтому под той же блокировкой
+    @Override
+    public synchronized TaskSnapshot snapshot() {
+        return super.snapshot();
+    }
+
+    public boolean isJournaled() {
+        return journaled;
+    }
+
+    public DurabilityPolicy getDurabilityPolicy() {
+        return durabilityPolicy;
+    }
+
+    public SnapshotCodec getCodec() {
+        return codec;
+    }
+
+    @Override
+    public void setSaveListener(SaveListener listener) {
+        saveListener = listener == null ? NO_SAVE_LISTENER : listener;
+    }
+
+    // Выгружает текущее состояние в другой файл в заданном формате, например в CSV
+    // для переноса доски, которая хранится в двоичном снимке.
+    public void exportTo(File target, SnapshotCodec targetCodec) {
+        ByteBuffer snapshot;
+        synchronized (this) {
+            snapshot = targetCodec.encode(allTasks());
+        }
+        writeFile(target, snapshot);
+    }
+
+    // Сворачивает журнал в снимок: после этого загрузка читает только основной файл.
+    public void compact() {
+        await(submit(true));
+    }
+
+    // Барьер: возвращается, когда все изменения, сделанные до вызова, записаны на диск
+    // и сброшены на устройство (fsync).
+    public void flush() {
+        await(flushAsync());
+    }
+
+    public CompletableFuture<Void> flushAsync() {
+        return submit(false);
     }
 
-    private void save() {
+    @Override
+    public void close() {
         try {
-            List<Task> tasks = getAllTasks();
-            List<Subtask> subtasks = getAllSubtasks();
-            List<Epic> epics = getAllEpics();
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
-                writer.write(HEADER_STRING + System.lineSeparator());
-                for (Task task : tasks) {
-                    writer.write(toString(task) + System.lineSeparator());
-                }
-                for (Subtask subtask : subtasks) {
-                    writer.write(toString(subtask) + System.lineSeparator());
+            flush();
+        } finally {
+            if (flusher != null) {
+                flusher.shutdown();
+            }
+        }
+    }
+
+    private void saveUpsert(Task task) {
+        if (task == null) return;
+        persist(journaled ? List.of(UPSERT + "," + CsvSnapshotCodec.format(task)) : List.of());
+    }
+
+    private void saveUpserts(List<? extends Task> created) {
+        if (created.isEmpty()) return;
+        persist(journaled ? created.stream().map(task -> UPSERT + "," + CsvSnapshotCodec.format(task)).toList() : List.of());
+    }
+
+    // Вложенный batch() откатывает только свои записи, сохраняет все изменения внешний
+    @Override
+    public synchronized void batch(Consumer<TaskManager> changes) {
+        int recordsMark = batchRecords.size();
+        int changesMark = batchChanges;
+        batchDepth++;
+        try {
+            super.batch(changes);
+        } catch (RuntimeException | Error e) {
+            batchRecords.subList(recordsMark, batchRecords.size()).clear();
+            batchChanges = changesMark;
+            throw e;
+        } finally {
+            batchDepth--;
+        }
+        if (batchDepth == 0 && batchChanges > 0) {
+            List<String> records = new ArrayList<>(batchRecords);
+            batchRecords.clear();
+            batchChanges = 0;
+            persist(records);
+        }
+    }
+
+    private void saveDelete(List<Integer> ids) {
+        persist(journaled ? ids.stream().map(id -> DELETE + "," + id).toList() : List.of());
+    }
+
+    private void saveClear(List<TaskType> types) {
+        persist(journaled ? types.stream().map(type -> CLEAR + "," + type).toList() : List.of());
+    }
+
+    // Вызывается из synchronized-методов изменения, поэтому видит согласованное состояние.
+    private void persist(List<String> records) {
+        if (batchDepth > 0) {
+            batchRecords.addAll(records);
+            batchChanges++;
+            return;
+        }
+        pendingRecords.addAll(records);
+        pendingChanges++;
+        switch (durabilityPolicy.getMode()) {
+            case SYNC_EACH -> writePending(false);
+            case GROUP_COMMIT -> {
+                if (pendingChanges >= durabilityPolicy.getMaxBatch()) {
+                    requestFlush();
                 }
-                for (Epic epic : epics) {
-                    writer.write(toString(epic) + System.lineSeparator());
+            }
+            case ASYNC -> requestFlush();
+        }
+        // Изменение уже в памяти и в очереди записи, но вызывающий код должен узнать,
+        // что предыдущие изменения на диск не попали.
+        ManagerSaveException failure = backgroundFailure;
+        if (failure != null) {
+            backgroundFailure = null;
+            throw new ManagerSaveException("Фоновая запись на диск не удалась: " + failure.getMessage());
+        }
+    }
+
+    private void requestFlush() {
+        if (!flushRequested) {
+            flushRequested = true;
+            flusher.execute(this::writePendingInBackground);
+        }
+    }
+
+    // Изменения после ошибки остаются в очереди: их запишет следующее окно или flush().
+    // Сама ошибка запоминается, чтобы о ней узнал и тот, кто flush() не вызывает.
+    private void writePendingInBackground() {
+        try {
+            writePending(false);
+        } catch (ManagerSaveException e) {
+            backgroundFailure = e;
+        }
+    }
+
+    private CompletableFuture<Void> submit(boolean snapshot) {
+        if (flusher == null) {
+            try {
+                synchronized (this) {
+                    writePending(snapshot);
                 }
+                return CompletableFuture.completedFuture(null);
+            } catch (ManagerSaveException e) {
+                return CompletableFuture.failedFuture(e);
             }
-        } catch (IOException e) {
-            throw new ManagerSaveException("Произошла ошибка при сохранении в файл.");
         }
+        return CompletableFuture.runAsync(() -> writePending(snapshot), flusher);
     }
 
-    private String toString(Task task) {
-        return String.format("%s,%s,%s,%s,%s,%s,%s,%s",
-                task.getId(),
-                task.getType(),
-                task.getName(),
-                task.getStatus(),
-                task.getDescription(),
-                getMinutesFromDuration(task),
-                getStartTime(task),
-                getEpicId(task));
+    private void await(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ManagerSaveException saveException) {
+                throw saveException;
+            }
+            throw e;
+        }
     }
 
-    private String getEpicId(Task task) {
-        if (TaskType.SUBTASK.equals(task.getType())) {
-            return ((Subtask) task).getEpicId() + "";
+    // Состояние снимается под блокировкой менеджера, а на диск пишется уже без нее.
+    // В фоновых режимах этот метод выполняется только потоком flusher, поэтому записи
+    // попадают в файл в том же порядке, в котором были сделаны изменения.
+    private void writePending(boolean forceSnapshot) {
+        PendingWrite pendingWrite;
+        synchronized (this) {
+            flushRequested = false;
+            if (pendingChanges == 0 && !forceSnapshot) return;
+            pendingWrite = capture(forceSnapshot);
+        }
+        long started = System.nanoTime();
+        try {
+            long bytes;
+            if (pendingWrite.snapshot() != null) {
+                bytes = pendingWrite.snapshot().remaining();
+                writeSnapshot(pendingWrite.snapshot());
+                journalTorn = false;
+            } else {
+                bytes = appendToJournal(pendingWrite.records());
+            }
+            saveListener.saved(bytes, System.nanoTime() - started);
+            backgroundFailure = null;
+        } catch (ManagerSaveException e) {
+            synchronized (this) {
+                pendingRecords.addAll(0, pendingWrite.records());
+                pendingChanges += pendingWrite.changes();
+                journalRecords = pendingWrite.journalRecords();
+            }
+            throw e;
         }
-        return "";
     }
 
-    public static FileBackedTaskManager loadFromFile(File file) {
-        List<String> lines;
+    private PendingWrite capture(boolean forceSnapshot) {
+        List<String> records = pendingRecords;
+        int changes = pendingChanges;
+        int journalRecordsBefore = journalRecords;
+        pendingRecords = new ArrayList<>();
+        pendingChanges = 0;
+
+        if (forceSnapshot || journalTorn || !journaled
+                || journalRecords + records.size() >= JOURNAL_COMPACTION_THRESHOLD) {
+            ByteBuffer snapshot = codec.encode(allTasks());
+            journalRecords = 0;
+            return new PendingWrite(records, changes, journalRecordsBefore, snapshot);
+        }
+        journalRecords += records.size();
+        return new PendingWrite(records, changes, journalRecordsBefore, null);
+    }
+
+    private List<Task> allTasks() {
+        List<Task> all = new ArrayList<>(tasks.size() + subtasks.size() + epics.size());
+        all.addAll(tasks.values());
+        all.addAll(subtasks.values());
+        all.addAll(epics.values());
+        return all;
+    }
+
+    // Одна запись на диск - один force() на все записи окна. Возвращает число записанных байт.
+    // Неудачная дозапись могла записать часть байт, а записи окна вернутся в очередь и будут
+    // дописаны снова, поэтому журнал обрезается до прежнего размера.
+    private long appendToJournal(List<String> records) {
+        StringBuilder builder = new StringBuilder();
+        records.forEach(record -> builder.append(String.format("%08x", checksum(record))).append(' ')
+                .append(record).append(System.lineSeparator()));
+        ByteBuffer bytes = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+        boolean created = !journalFile.exists();
         try {
-            lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long sizeBefore = channel.size();
+                try {
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                    channel.force(false);
+                } catch (IOException e) {
+                    truncateJournal(channel, sizeBefore);
+                    throw e;
+                }
+            }
+            if (created) {
+                syncDirectory(journalFile.toPath());
+            }
+            return bytes.capacity();
         } catch (IOException e) {
-            throw new ManagerLoadException("Произошла ошибка при загрузке из файла.");
+            throw new ManagerSaveException("Ошибка при записи в журнал: " + journalFile);
+        }
+    }
+
+    private void truncateJournal(FileChannel channel, long size) {
+        try {
+            channel.truncate(size);
+            channel.force(false);
+        } catch (IOException e) {
+            journalTorn = true;
         }
+    }
 
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
+    private void writeSnapshot(ByteBuffer snapshot) {
+        writeFile(file, snapshot);
+        try {
+            // Снимок заменяет файл целиком, и только после этого журнал становится не нужен:
+            // при сбое между этими шагами повторное применение журнала ничего не испортит.
+            Files.deleteIfExists(journalFile.toPath());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при удалении журнала: " + journalFile);
+        }
+    }
 
-        lines.forEach(line -> {
-            if (!line.startsWith(HEADER_STRING)) {
-                Task task = manager.fromString(line);
-                if (TaskType.SUBTASK.equals(task.getType())) {
-                    manager.subtasks.put(task.getId(), (Subtask) task);
-                } else if (TaskType.EPIC.equals(task.getType())) {
-                    manager.epics.put(task.getId(), (Epic) task);
-                } else {
-                    manager.tasks.put(task.getId(), task);
+    private void writeFile(File target, ByteBuffer content) {
+        try {
+            Path tempFile = Path.of(target.getPath() + ".tmp");
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (content.hasRemaining()) {
+                    channel.write(content);
                 }
+                channel.force(true);
             }
-        });
-
-        return manager;
+            Files.move(tempFile, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory(target.toPath());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Произошла ошибка при сохранении в файл.");
+        }
     }
 
-    private Task fromString(String value) {
-        String[] values = value.split(",");
-        if (values.length != 7 && values.length != 8) {
-            throw new ManagerLoadException("Неверный формат записи.");
+    // Переименование и создание файла становятся надежными только после сброса каталога.
+    // Windows не открывает каталог как канал - там переименование надежно и без этого.
+    private static void syncDirectory(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
         }
+    }
 
-        int id = Integer.parseInt(values[0]);
-        TaskType type = TaskType.valueOf(values[1]);
-        String name = values[2];
-        Status status = Status.valueOf(values[3]);
-        String description = values[4];
-        Duration duration = restoreDuration(values[5]);
-        LocalDateTime startTime = restoreStartTime(values[6]);
-        int epicId = values.length == 8 ? Integer.parseInt(values[7]) : -1;
+    public static FileBackedTaskManager loadFromFile(File file) {
+        return loadFromFile(file, false);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, boolean journaled) {
+        return loadFromFile(file, journaled, DurabilityPolicy.syncEach());
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, boolean journaled, DurabilityPolicy durabilityPolicy) {
+        return loadFromFile(file, journaled, durabilityPolicy, null);
+    }
 
-        switch (type) {
-            case TASK:
-                return restoreTask(id, name, description, status, duration, startTime);
-            case SUBTASK:
-                return restoreSubtask(id, name, description, status, epicId, duration, startTime);
-            case EPIC:
-                return restoreEpic(id, name, description, status, duration, startTime);
-            default:
-                throw new ManagerLoadException("Неизвестный тип задачи: " + type);
+    // Формат загружаемого файла определяется по его содержимому; codec задает формат,
+    // в котором менеджер будет сохранять снимки дальше (null - тот же, что у файла).
+    public static FileBackedTaskManager loadFromFile(File file, boolean journaled, DurabilityPolicy durabilityPolicy,
+                                                     SnapshotCodec codec) {
+        return loadFromFile(file, journaled, durabilityPolicy, codec, null);
+    }
+
+    // Загружает снимок, разбирая его на потоках общего ForkJoinPool.
+    public static FileBackedTaskManager loadFromFileInParallel(File file) {
+        return loadFromFile(file, false, DurabilityPolicy.syncEach(), null, ForkJoinPool.commonPool());
+    }
+
+    // Если задан pool, снимок разбирается параллельно, а задачи раскладываются по таблицам
+    // уже в вызывающем потоке; производные структуры строятся один раз после журнала.
+    public static FileBackedTaskManager loadFromFile(File file, boolean journaled, DurabilityPolicy durabilityPolicy,
+                                                     SnapshotCodec codec, ForkJoinPool pool) {
+        ByteBuffer content = file.exists() || !new File(file.getPath() + JOURNAL_SUFFIX).exists()
+                ? readSnapshot(file)
+                : ByteBuffer.allocate(0);
+        SnapshotCodec fileCodec = SnapshotCodec.detect(content);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, journaled, durabilityPolicy,
+                codec != null ? codec : fileCodec);
+        if (pool == null) {
+            fileCodec.decode(content, manager::restore);
+        } else {
+            fileCodec.decodeParallel(content, pool).forEach(manager::restore);
         }
+        manager.replayJournal();
+        manager.rebuildDerivedState();
+        return manager;
     }
 
-    private Task restoreTask(int id, String name, String description, Status status, Duration duration, LocalDateTime startTime) {
-        Task task = new Task(name, description, status, duration, startTime);
-        task.setId(id);
-        return task;
+    // Большие снимки отображаются в память и разбираются кодеком прямо из отображения:
+    // файл не копируется в кучу целиком, а страницы подгружает операционная система.
+    private static ByteBuffer readSnapshot(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new ManagerLoadException("Снимок больше 2 ГБ не поддерживается: " + file);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            throw new ManagerLoadException("Произошла ошибка при загрузке из файла.");
+        }
     }
 
-    private Subtask restoreSubtask(int id, String name, String description, Status status, int epicId, Duration duration, LocalDateTime  startTime) {
-        Subtask subtask = new Subtask(name, description, status, epicId, duration, startTime);
-        subtask.setId(id);
-        return subtask;
+    // Запись, оборванная сбоем посреди дозаписи, может быть только последней: она
+    // отбрасывается и отрезается от файла, чтобы следующая запись не дописалась к обрывку.
+    // Испорченная запись в середине журнала означает повреждение файла.
+    private void replayJournal() {
+        if (!journalFile.exists()) return;
+        byte[] content;
+        try {
+            content = Files.readAllBytes(journalFile.toPath());
+        } catch (IOException e) {
+            throw new ManagerLoadException("Ошибка при чтении журнала: " + journalFile);
+        }
+
+        int records = 0;
+        int start = 0;
+        while (start < content.length) {
+            int end = start;
+            while (end < content.length && content[end] != '\n') {
+                end++;
+            }
+            int next = Math.min(end + 1, content.length);
+            int lineEnd = end > start && content[end - 1] == '\r' ? end - 1 : end;
+            String line = new String(content, start, lineEnd - start, StandardCharsets.UTF_8);
+            if (!line.isBlank()) {
+                try {
+                    replayRecord(line);
+                    records++;
+                } catch (RuntimeException e) {
+                    if (!isBlank(content, next)) {
+                        throw new ManagerLoadException("Поврежденная запись журнала: " + line);
+                    }
+                    truncateJournal(start);
+                    break;
+                }
+            }
+            start = next;
+        }
+        journalRecords = records;
     }
 
-    private Epic restoreEpic(int id, String name, String description, Status status, Duration duration, LocalDateTime  startTime) {
-        Epic epic = new Epic(name, description, duration, startTime);
-        epic.setId(id);
-        epic.setStatus(status);
-        return epic;
+    private void replayRecord(String line) {
+        String record = line;
+        // Записи без суммы остались от прежнего формата журнала
+        if (line.length() > CHECKSUM_LENGTH && line.charAt(CHECKSUM_LENGTH) == ' ') {
+            record = line.substring(CHECKSUM_LENGTH + 1);
+            if (Long.parseLong(line.substring(0, CHECKSUM_LENGTH), 16) != checksum(record)) {
+                throw new ManagerLoadException("Неверная контрольная сумма записи журнала: " + line);
+            }
+        }
+        int separator = record.indexOf(',');
+        if (separator < 0) {
+            throw new ManagerLoadException("Неверный формат записи журнала: " + record);
+        }
+        String operation = record.substring(0, separator);
+        String value = record.substring(separator + 1);
+        switch (operation) {
+            case UPSERT -> restore(CsvSnapshotCodec.parse(value));
+            case DELETE -> {
+                int id = Integer.parseInt(value);
+                tasks.remove(id);
+                subtasks.remove(id);
+                epics.remove(id);
+            }
+            case CLEAR -> {
+                switch (TaskType.valueOf(value)) {
+                    case TASK -> tasks.clear();
+                    case SUBTASK -> subtasks.clear();
+                    case EPIC -> epics.clear();
+                }
+            }
+            default -> throw new ManagerLoadException("Неизвестная операция журнала: " + operation);
+        }
     }
 
-    private Long getMinutesFromDuration(Task task) {
-        if (task.getDuration() == null) return null;
-        return task.getDuration().toMinutes();
+    private void truncateJournal(long length) {
+        try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+            channel.force(false);
+        } catch (IOException e) {
+            throw new ManagerLoadException("Ошибка при восстановлении журнала: " + journalFile);
+        }
     }
 
-    private Duration restoreDuration(String durationInMinutes) {
-        if (durationInMinutes == null) return null;
-        return Duration.ofMinutes(Long.parseLong(durationInMinutes));
+    private static boolean isBlank(byte[] content, int from) {
+        for (int i = from; i < content.length; i++) {
+            if (!Character.isWhitespace(content[i])) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private String getStartTime(Task task) {
-        if (task.getStartTime() == null) return null;
-        return task.getStartTime().toString();
+    private static long checksum(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
     }
 
-    private LocalDateTime restoreStartTime(String startTime) {
-        if (startTime == null) return null;
-        return LocalDateTime.parse(startTime);
+    private void restore(Task task) {
+        if (TaskType.SUBTASK.equals(task.getType())) {
+            subtasks.put(task.getId(), (Subtask) task);
+        } else if (TaskType.EPIC.equals(task.getType())) {
+            epics.put(task.getId(), (Epic) task);
+        } else {
+            tasks.put(task.getId(), task);
+        }
     }
 
+    private record PendingWrite(List<String> records, int changes, int journalRecords, ByteBuffer snapshot) {
+    }
 }
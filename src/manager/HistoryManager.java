@@ -3,6 +3,8 @@ package manager;
 import tasks.Task;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface HistoryManager {
 
@@ -11,4 +13,20 @@ public interface HistoryManager {
     void remove(int id);
 
     ArrayList<Task> getHistory();
+
+    // Страница истории от давних просмотров к недавним
+    List<Task> getHistory(int offset, int limit);
+
+    // n последних просмотров, начиная с самого недавнего
+    List<Task> getRecentHistory(int n);
+
+    // Ленивый обход истории без копирования
+    Stream<Task> streamHistory();
+
+    int size();
+
+    // Размер без побочных эффектов, который можно читать из любого потока, например для
+    // показателей. Может отставать: учитывать истекшие, но еще не вытесненные просмотры
+    // или не учитывать просмотры, еще не перенесенные в историю.
+    int approximateSize();
 }
@@ -1,16 +1,59 @@
 package manager;
 
 import tasks.Task;
+import utils.IntObjectHashMap;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+// История просмотров: связный список от давних просмотров к недавним. Может быть
+// ограничена по размеру (вытесняется самый давний просмотр) и по времени с момента
+// последнего просмотра.
 public class InMemoryHistoryManager implements HistoryManager {
 
-    private final Map<Integer, Node> history = new HashMap<>();
+    private final IntObjectHashMap<Node> history = new IntObjectHashMap<>();
+    private final int capacity;
+    private final long expireAfterAccessMillis;
+    private final Clock clock;
     private Node head;
     private Node tail;
+    private int modCount;
+    // Копия history.size() для approximateSize(): история читается из других потоков
+    // только через нее
+    private volatile int publishedSize;
+
+    public InMemoryHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        this(capacity, null, Clock.systemUTC());
+    }
+
+    public InMemoryHistoryManager(int capacity, Duration expireAfterAccess) {
+        this(capacity, expireAfterAccess, Clock.systemUTC());
+    }
+
+    public InMemoryHistoryManager(int capacity, Duration expireAfterAccess, Clock clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным.");
+        }
+        if (expireAfterAccess != null && (expireAfterAccess.isNegative() || expireAfterAccess.isZero())) {
+            throw new IllegalArgumentException("Время хранения истории должно быть положительным.");
+        }
+        this.capacity = capacity;
+        this.expireAfterAccessMillis = expireAfterAccess == null ? -1 : expireAfterAccess.toMillis();
+        this.clock = clock;
+    }
 
     @Override
     public void add(Task task) {
@@ -19,6 +62,11 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
         remove(task.getId());
         linkLast(task);
+        expire();
+        while (history.size() > capacity) {
+            remove(head.getData().getId());
+        }
+        publishedSize = history.size();
     }
 
     @Override
@@ -27,20 +75,113 @@ public class InMemoryHistoryManager implements HistoryManager {
         if (node != null) {
             removeNode(node);
             history.remove(id);
+            publishedSize = history.size();
         }
     }
 
     @Override
     public ArrayList<Task> getHistory() {
+        expire();
         return getTasksFromNodes();
     }
 
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        checkPage(offset, limit);
+        expire();
+        List<Task> page = new ArrayList<>(Math.min(limit, Math.max(0, history.size() - offset)));
+        Node current = head;
+        for (int i = 0; i < offset && current != null; i++) {
+            current = current.getNext();
+        }
+        while (current != null && page.size() < limit) {
+            page.add(current.getData());
+            current = current.getNext();
+        }
+        return page;
+    }
+
+    @Override
+    public List<Task> getRecentHistory(int n) {
+        checkPage(0, n);
+        expire();
+        List<Task> recent = new ArrayList<>(Math.min(n, history.size()));
+        Node current = tail;
+        while (current != null && recent.size() < n) {
+            recent.add(current.getData());
+            current = current.getPrev();
+        }
+        return recent;
+    }
+
+    // Поток читает живой список: изменение истории во время обхода приводит к
+    // ConcurrentModificationException.
+    @Override
+    public Stream<Task> streamHistory() {
+        expire();
+        Iterator<Task> iterator = new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private Node next = head;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Task next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Task task = next.getData();
+                next = next.getNext();
+                return task;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliterator(iterator, history.size(),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public int size() {
+        expire();
+        return history.size();
+    }
+
+    @Override
+    public int approximateSize() {
+        return publishedSize;
+    }
+
+    static void checkPage(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Смещение и размер страницы не могут быть отрицательными.");
+        }
+    }
+
     private boolean isValidTask(Task task) {
         return task != null;
     }
 
+    // Список упорядочен по времени просмотра, поэтому устаревшие узлы всегда в начале
+    private void expire() {
+        if (expireAfterAccessMillis < 0) {
+            return;
+        }
+        long expiredBefore = clock.millis() - expireAfterAccessMillis;
+        while (head != null && head.getAccessTime() <= expiredBefore) {
+            remove(head.getData().getId());
+        }
+    }
+
     private void linkLast(Task task) {
         final Node newNode = new Node(task, null, tail);
+        if (expireAfterAccessMillis >= 0) {
+            newNode.setAccessTime(clock.millis());
+        }
         if (tail == null) {
             head = newNode;
         } else {
@@ -48,10 +189,11 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
         tail = newNode;
         history.put(task.getId(), newNode);
+        modCount++;
     }
 
     private ArrayList<Task> getTasksFromNodes() {
-        ArrayList<Task> tasks = new ArrayList<>();
+        ArrayList<Task> tasks = new ArrayList<>(history.size());
         Node current = head;
         while (current != null) {
             tasks.add(current.getData());
@@ -61,6 +203,7 @@ public class InMemoryHistoryManager implements HistoryManager {
     }
 
     private void removeNode(Node node) {
+        modCount++;
         if (node.getPrev() != null) {
             node.getPrev().setNext(node.getNext());
         } else {
@@ -78,6 +221,7 @@ public class InMemoryHistoryManager implements HistoryManager {
         private Task data;
         private Node next;
         private Node prev;
+        private long accessTime;
 
         public Node(Task data, Node next, Node prev) {
             this.data = data;
@@ -109,5 +253,13 @@ public class InMemoryHistoryManager implements HistoryManager {
             this.prev = prev;
         }
 
+        public long getAccessTime() {
+            return accessTime;
+        }
+
+        public void setAccessTime(long accessTime) {
+            this.accessTime = accessTime;
+        }
+
     }
 }
@@ -1,40 +1,106 @@
 package manager;
 
+import events.TaskEventBus;
+import events.TaskEventType;
 import exceptions.ManagerOverlapException;
 import tasks.Epic;
-import tasks.Status;
 import tasks.Subtask;
 import tasks.Task;
+import utils.IntHashSet;
+import utils.IntObjectHashMap;
 import utils.Managers;
 
-import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
 
-public class InMemoryTaskManager implements TaskManager {
+public class InMemoryTaskManager implements TaskManager, Instrumentable {
     private static int nextId = 0;
-    protected final HashMap<Integer, Task> tasks = new HashMap<>();
-    protected final HashMap<Integer, Subtask> subtasks = new HashMap<>();
-    protected final HashMap<Integer, Epic> epics = new HashMap<>();
-    private final HistoryManager historyManager = Managers.getDefaultHistory();
+    protected final IntObjectHashMap<Task> tasks = new IntObjectHashMap<>();
+    protected final IntObjectHashMap<Subtask> subtasks = new IntObjectHashMap<>();
+    protected final IntObjectHashMap<Epic> epics = new IntObjectHashMap<>();
+    private final HistoryManager historyManager;
+    // Источник id новых задач; ShardedTaskManager выдает id сам, чтобы они не
+    // повторялись между шардами.
+    private final IntSupplier idSupplier;
+
+    // Ключ - время начала на момент добавления, поэтому изменение задачи "на месте"
+    // до вызова update не ломает порядок дерева.
+    private final TreeMap<LocalDateTime, Task> sortedTasks = new TreeMap<>();
+    private final IntObjectHashMap<LocalDateTime> scheduledStartTimes = new IntObjectHashMap<>();
+    // Неизменяемая копия расписания для getPrioritizedTasks; сбрасывается при изменении
+    // расписания и собирается заново при следующем чтении.
+    private List<Task> prioritizedView;
+    private final IntObjectHashMap<EpicAggregate> epicAggregates = new IntObjectHashMap<>();
+    private final TaskIndex taskIndex = new TaskIndex();
+    private IntConsumer overlapScanListener = NO_SCAN_LISTENER;
+    // Срез доски строится по запросу: пока snapshot() и batch() не вызывали, менеджер не
+    // держит копий задач (snapshot == null). Потом изменения только отмечают свои id в
+    // staleIds, и следующий snapshot() переносит в прошлый срез лишь их. В режиме
+    // eagerSnapshots срез обновляется при каждом изменении - для событий и для чтения
+    // snapshot() из других потоков (шарды ShardedTaskManager), поэтому поле volatile.
+    private volatile TaskSnapshot snapshot;
+    private final IntHashSet staleIds = new IntHashSet();
+    private boolean eagerSnapshots;
+    // Число изменений доски - версия среза
+    private long changes;
+    // События изменений; внутри batch() копятся в batchEvents и уходят в шину только
+    // после успешного завершения пакета.
+    private TaskEventBus eventBus;
+    private List<PendingEvent> batchEvents;
+
+    private record PendingEvent(TaskEventType type, TaskType taskType, int id, Task task) {
+    }
+
+    public InMemoryTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, () -> ++nextId);
+    }
 
-    private final TreeSet<Task> sortedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime));
+    InMemoryTaskManager(HistoryManager historyManager, IntSupplier idSupplier) {
+        this.historyManager = historyManager;
+        this.idSupplier = idSupplier;
+    }
 
     @Override
     public Task createTask(Task task) {
-        if (sortedTasks.stream().anyMatch(existingTask -> isOverlap(existingTask, task))) {
+        if (hasOverlap(task)) {
             throw new ManagerOverlapException("Невозможно создать задачу, так как она пересекается с другой задачей.");
         }
 
-        final int id = ++nextId;
+        final int id = idSupplier.getAsInt();
         task.setId(id);
         tasks.put(id, task);
-        if (task.getStartTime() != null) {
-            sortedTasks.add(task);
-        }
+        schedule(task);
+        taskIndex.index(task);
+        publish(id);
         return task;
     }
 
+    @Override
+    public List<Task> createTasks(Collection<Task> newTasks) {
+        checkBatchOverlap(newTasks);
+        List<Task> created = new ArrayList<>(newTasks.size());
+        int[] ids = new int[newTasks.size()];
+        for (Task task : newTasks) {
+            final int id = idSupplier.getAsInt();
+            task.setId(id);
+            tasks.put(id, task);
+            schedule(task);
+            taskIndex.index(task);
+            ids[created.size()] = id;
+            created.add(task);
+        }
+        publish(ids);
+        return created;
+    }
+
     @Override
     public List<Task> getAllTasks() {
         return new ArrayList<>(tasks.values());
@@ -43,8 +109,11 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void deleteAllTasks() {
         cleanTasksHistory();
-        sortedTasks.removeAll(tasks.values());
+        tasks.forEachKey(this::unschedule);
+        tasks.forEachKey(taskIndex::unindex);
+        int[] removed = tasks.keys();
         tasks.clear();
+        publish(removed);
     }
 
     private void cleanTasksHistory() {
@@ -55,7 +124,7 @@ public class InMemoryTaskManager implements TaskManager {
     public Optional<Task> getTaskById(int id) {
         return Optional.ofNullable(tasks.get(id))
                 .map(task -> {
-                    historyManager.add(task);
+                    touched(task);
                     return task;
                 });
     }
@@ -63,45 +132,81 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void updateTask(Task task) {
         if (tasks.containsKey(task.getId())) {
-            if (sortedTasks.stream()
-                    .filter(existingTask -> existingTask.getId() != task.getId())
-                    .anyMatch(existingTask -> isOverlap(existingTask, task))) {
+            if (hasOverlap(task)) {
                 throw new ManagerOverlapException("Невозможно обновить задачу, так как она будет пересекаться с другой задачей.");
             }
             tasks.put(task.getId(), task);
-            if (task.getStartTime() != null) {
-                sortedTasks.remove(task);
-                sortedTasks.add(task);
-            }
-
+            unschedule(task.getId());
+            schedule(task);
+            taskIndex.index(task);
+            publish(task.getId());
         }
     }
 
     @Override
     public void deleteTaskById(int id) {
-        if (tasks.get(id).getStartTime() != null) {
-            sortedTasks.remove(tasks.get(id));
+        unschedule(id);
+        if (tasks.remove(id) != null) {
+            taskIndex.unindex(id);
+            publish(id);
         }
-        tasks.remove(id);
         historyManager.remove(id);
     }
 
     @Override
     public Subtask createSubtask(Subtask subtask) {
-        if (sortedTasks.stream().anyMatch(existingTask -> isOverlap(existingTask, subtask))) {
+        if (hasOverlap(subtask)) {
             throw new ManagerOverlapException("Невозможно создать подзадачу, так как она пересекается с другой задачей.");
         }
-        final int id = ++nextId;
+        final int id = idSupplier.getAsInt();
         subtask.setId(id);
         subtasks.put(id, subtask);
-        sortedTasks.add(subtask);
+        schedule(subtask);
+        taskIndex.index(subtask);
         Epic epic = epics.get(subtask.getEpicId());
         epic.addSubtaskId(subtask.getId());
-        updateEpicStatus(epic.getId());
-        updateEpicEstimates(epic.getId());
+        EpicAggregate aggregate = epicAggregates.get(epic.getId());
+        aggregate.add(subtask);
+        aggregate.applyTo(epic);
+        taskIndex.index(epic);
+        publish(id, epic.getId());
         return subtask;
     }
 
+    @Override
+    public List<Subtask> createSubtasks(Collection<Subtask> newSubtasks) {
+        for (Subtask subtask : newSubtasks) {
+            if (!epics.containsKey(subtask.getEpicId())) {
+                throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не найден.");
+            }
+        }
+        checkBatchOverlap(newSubtasks);
+        List<Subtask> created = new ArrayList<>(newSubtasks.size());
+        IntHashSet affectedEpics = new IntHashSet();
+        for (Subtask subtask : newSubtasks) {
+            final int id = idSupplier.getAsInt();
+            subtask.setId(id);
+            subtasks.put(id, subtask);
+            schedule(subtask);
+            taskIndex.index(subtask);
+            epics.get(subtask.getEpicId()).addSubtaskId(id);
+            epicAggregates.get(subtask.getEpicId()).add(subtask);
+            affectedEpics.add(subtask.getEpicId());
+            created.add(subtask);
+        }
+        affectedEpics.forEach(epicId -> {
+            Epic epic = epics.get(epicId);
+            epicAggregates.get(epicId).applyTo(epic);
+            taskIndex.index(epic);
+        });
+        int[] changed = Arrays.copyOf(affectedEpics.toArray(), affectedEpics.size() + created.size());
+        for (int i = 0; i < created.size(); i++) {
+            changed[affectedEpics.size() + i] = created.get(i).getId();
+        }
+        publish(changed);
+        return created;
+    }
+
     @Override
     public List<Subtask> getAllSubtasks() {
         return new ArrayList<>(subtasks.values());
@@ -110,15 +215,23 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void deleteAllSubtasks() {
         cleanSubtasksHistory();
-        sortedTasks.removeAll(subtasks.values());
+        subtasks.forEachKey(this::unschedule);
+        subtasks.forEachKey(taskIndex::unindex);
+        int[] removed = subtasks.keys();
         subtasks.clear();
 
         epics.values()
                 .forEach(epic -> {
                     epic.getSubtaskIds().clear();
-                    updateEpicStatus(epic.getId());
-                    updateEpicEstimates(epic.getId());
+                    EpicAggregate aggregate = epicAggregates.get(epic.getId());
+                    aggregate.clear();
+                    aggregate.applyTo(epic);
+                    taskIndex.index(epic);
                 });
+        int[] changed = Arrays.copyOf(removed, removed.length + epics.size());
+        int[] epicIds = epics.keys();
+        System.arraycopy(epicIds, 0, changed, removed.length, epicIds.length);
+        publish(changed);
     }
 
     private void cleanSubtasksHistory() {
@@ -131,7 +244,7 @@ public class InMemoryTaskManager implements TaskManager {
     public Optional<Subtask> getSubtaskById(int id) {
         return Optional.ofNullable(subtasks.get(id))
                 .map(subtask -> {
-                    historyManager.add(subtask);
+                    touched(subtask);
                     return subtask;
                 });
     }
@@ -139,15 +252,39 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void updateSubtask(Subtask subtask) {
-        if (subtasks.containsKey(subtask.getId())) {
-            if (sortedTasks.stream()
-                    .filter(existingTask -> existingTask.getId() != subtask.getId())
-                    .anyMatch(existingTask -> isOverlap(existingTask, subtask))) {
+        Subtask stored = subtasks.get(subtask.getId());
+        if (stored != null) {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не найден.");
+            }
+            if (hasOverlap(subtask)) {
                 throw new ManagerOverlapException("Невозможно обновить задачу, так как она будет пересекаться с другой задачей.");
             }
             subtasks.put(subtask.getId(), subtask);
-            updateEpicStatus(subtask.getEpicId());
-            updateEpicEstimates(subtask.getId());
+            unschedule(subtask.getId());
+            schedule(subtask);
+            taskIndex.index(subtask);
+            // Подзадача перенесена в другой эпик: ее вклад и id уходят из прежнего
+            int oldEpicId = stored.getEpicId();
+            if (oldEpicId != epic.getId()) {
+                Epic oldEpic = epics.get(oldEpicId);
+                oldEpic.removeSubtaskId(subtask.getId());
+                EpicAggregate oldAggregate = epicAggregates.get(oldEpicId);
+                oldAggregate.remove(subtask.getId());
+                oldAggregate.applyTo(oldEpic);
+                taskIndex.index(oldEpic);
+                epic.addSubtaskId(subtask.getId());
+            }
+            EpicAggregate aggregate = epicAggregates.get(epic.getId());
+            aggregate.add(subtask);
+            aggregate.applyTo(epic);
+            taskIndex.index(epic);
+            if (oldEpicId != epic.getId()) {
+                publish(subtask.getId(), oldEpicId, epic.getId());
+            } else {
+                publish(subtask.getId(), epic.getId());
+            }
         }
     }
 
@@ -155,21 +292,29 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteSubtaskById(int id) {
         Subtask subtask = subtasks.remove(id);
         historyManager.remove(id);
+        unschedule(id);
         if (subtask != null) {
+            taskIndex.unindex(id);
             Epic epic = epics.get(subtask.getEpicId());
             if (epic != null) {
                 epic.removeSubtaskId(id);
-                updateEpicStatus(epic.getId());
-                updateEpicEstimates(epic.getId());
+                EpicAggregate aggregate = epicAggregates.get(epic.getId());
+                aggregate.remove(id);
+                aggregate.applyTo(epic);
+                taskIndex.index(epic);
             }
+            publish(id, subtask.getEpicId());
         }
     }
 
     @Override
     public Epic createEpic(Epic epic) {
-        final int id = ++nextId;
+        final int id = idSupplier.getAsInt();
         epic.setId(id);
         epics.put(id, epic);
+        epicAggregates.put(id, new EpicAggregate());
+        taskIndex.index(epic);
+        publish(id);
         return epic;
     }
 
@@ -182,8 +327,14 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteAllEpics() {
         cleanEpicsHistory();
         cleanSubtasksHistory();
+        subtasks.forEachKey(this::unschedule);
+        subtasks.forEachKey(taskIndex::unindex);
+        epics.forEachKey(taskIndex::unindex);
+        int[] removed = epics.keys();
         epics.clear();
+        epicAggregates.clear();
         subtasks.clear();
+        publish(removed);
     }
 
     private void cleanEpicsHistory() {
@@ -194,7 +345,7 @@ public class InMemoryTaskManager implements TaskManager {
     public Optional<Epic> getEpicById(int id) {
         return Optional.ofNullable(epics.get(id))
                 .map(epic -> {
-                    historyManager.add(epic);
+                    touched(epic);
                     return epic;
                 });
     }
@@ -205,28 +356,37 @@ public class InMemoryTaskManager implements TaskManager {
         if (savedEpic != null) {
             savedEpic.setName(epic.getName());
             savedEpic.setDescription(epic.getDescription());
+            publish(epic.getId());
         }
     }
 
     @Override
     public void deleteEpicById(int id) {
         Epic epic = epics.remove(id);
+        epicAggregates.remove(id);
         historyManager.remove(id);
         if (epic != null) {
+            taskIndex.unindex(id);
             epic.getSubtaskIds().forEach(subtaskId -> {
-                getSubtaskById(subtaskId).ifPresent(sortedTasks::remove);
+                unschedule(subtaskId);
+                taskIndex.unindex(subtaskId);
                 historyManager.remove(subtaskId);
                 subtasks.remove(subtaskId);
             });
+            publish(id);
         }
     }
 
     @Override
     public List<Subtask> getSubtasksByEpicId(int epicId) {
         Epic epic = epics.get(epicId);
-        return epic.getSubtaskIds().stream()
-                .map(subtasks::get)
-                .collect(Collectors.toList());
+        // id растут с созданием, поэтому сортировка по id сохраняет порядок добавления
+        int[] subtaskIds = epic.getSubtaskIds().toSortedArray();
+        List<Subtask> epicSubtasks = new ArrayList<>(subtaskIds.length);
+        for (int subtaskId : subtaskIds) {
+            epicSubtasks.add(subtasks.get(subtaskId));
+        }
+        return epicSubtasks;
     }
 
     @Override
@@ -234,63 +394,342 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory();
     }
 
-    private void updateEpicStatus(int epicId) {
-        Epic epic = epics.get(epicId);
-        if (epic == null) return;
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        return historyManager.getHistory(offset, limit);
+    }
+
+    @Override
+    public List<Task> getRecentHistory(int n) {
+        return historyManager.getRecentHistory(n);
+    }
+
+    @Override
+    public Stream<Task> streamHistory() {
+        return historyManager.streamHistory();
+    }
 
-        List<Subtask> subtasks = getSubtasksByEpicId(epicId);
-        if (subtasks.isEmpty()) {
-            epic.setStatus(Status.NEW);
-            return;
+    // Восстанавливает производные структуры (расписание, подзадачи эпиков, их статус
+    // и сроки, счетчик id) после прямого заполнения tasks/subtasks/epics при загрузке.
+    protected void rebuildDerivedState() {
+        sortedTasks.clear();
+        scheduledStartTimes.clear();
+        prioritizedView = null;
+        tasks.values().forEach(this::schedule);
+        epicAggregates.clear();
+        epics.values().forEach(epic -> {
+            epic.getSubtaskIds().clear();
+            epicAggregates.put(epic.getId(), new EpicAggregate());
+        });
+        subtasks.values().forEach(subtask -> {
+            schedule(subtask);
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                epic.addSubtaskId(subtask.getId());
+                epicAggregates.get(epic.getId()).add(subtask);
+            }
+        });
+        epics.values().forEach(epic -> {
+            EpicAggregate aggregate = epicAggregates.get(epic.getId());
+            aggregate.applyStatus(epic);
+            if (!epic.getSubtaskIds().isEmpty()) {
+                aggregate.applyEstimates(epic);
+            }
+        });
+        taskIndex.clear();
+        int maxId = 0;
+        for (IntObjectHashMap<? extends Task> map : List.of(tasks, subtasks, epics)) {
+            for (Task task : map.values()) {
+                taskIndex.index(task);
+                maxId = Math.max(maxId, task.getId());
+            }
         }
+        nextId = Math.max(nextId, maxId);
+        changes++;
+        staleIds.clear();
+        snapshot = null;
+        if (eagerSnapshots) {
+            snapshot();
+        }
+    }
 
-        boolean isAllNewTasks = true;
-        boolean isAllDoneTasks = true;
-        for (Subtask subtask : subtasks) {
-            if (subtask.getStatus() != Status.NEW) isAllNewTasks = false;
-            if (subtask.getStatus() != Status.DONE) isAllDoneTasks = false;
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        if (prioritizedView == null) {
+            prioritizedView = List.copyOf(sortedTasks.values());
         }
+        return prioritizedView;
+    }
 
-        if (isAllNewTasks) {
-            epic.setStatus(Status.NEW);
-        } else if (isAllDoneTasks) {
-            epic.setStatus(Status.DONE);
-        } else {
-            epic.setStatus(Status.IN_PROGRESS);
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return prioritizedRange(sortedTasks, from, to, limit);
+    }
+
+    // Диапазон расписания без копирования всего дерева: O(log n + limit)
+    static List<Task> prioritizedRange(NavigableMap<LocalDateTime, Task> schedule, LocalDateTime from,
+                                       LocalDateTime to, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Размер страницы не может быть отрицательным.");
+        }
+        List<Task> page = new ArrayList<>();
+        if (limit == 0 || from != null && to != null && !from.isBefore(to)) {
+            return page;
+        }
+        NavigableMap<LocalDateTime, Task> range = schedule;
+        if (from != null) {
+            range = range.tailMap(from, true);
         }
+        if (to != null) {
+            range = range.headMap(to, false);
+        }
+        for (Task task : range.values()) {
+            page.add(task);
+            if (page.size() == limit) {
+                break;
+            }
+        }
+        return page;
     }
 
-    private void updateEpicEstimates(int epicId) {
-        Epic epic = epics.get(epicId);
-        if (epic == null) return;
+    @Override
+    public List<Task> findOverlapping(LocalDateTime start, LocalDateTime end) {
+        List<Task> overlapping = new ArrayList<>();
+        if (start == null || end == null) {
+            return overlapping;
+        }
+        for (Task existingTask : overlapCandidates(start, end)) {
+            if (!existingTask.getEndTime().isAfter(start)) {
+                break;
+            }
+            overlapping.add(existingTask);
+        }
+        Collections.reverse(overlapping);
+        return overlapping;
+    }
 
-        List<Subtask> subtasks = getSubtasksByEpicId(epicId);
-        if (subtasks.isEmpty()) {
-            epic.setStartTime(null);
-            epic.setEndTime(null);
-            epic.setDuration(null);
-            return;
+    @Override
+    public List<Task> find(TaskQuery query) {
+        return taskIndex.find(query, this::lookup);
+    }
+
+    // Первый вызов копирует доску за O(n), следующие - только задачи, измененные после
+    // предыдущего вызова. Без изменений между вызовами возвращается тот же срез.
+    @Override
+    public TaskSnapshot snapshot() {
+        TaskSnapshot current = snapshot;
+        if (current == null) {
+            current = TaskSnapshot.empty();
+            for (IntObjectHashMap<? extends Task> map : List.of(tasks, subtasks, epics)) {
+                current = current.update(this::lookup, map.keys());
+            }
+            current = current.withVersion(changes);
+            snapshot = current;
+        } else if (!staleIds.isEmpty()) {
+            current = current.update(this::lookup, staleIds.toArray()).withVersion(changes);
+            staleIds.clear();
+            snapshot = current;
         }
+        return current;
+    }
 
-        List<Task> sortedSubtasks = subtasks.stream()
-                .sorted(Comparator.comparing(Task::getStartTime))
-                .collect(Collectors.toList());
+    // Срез после каждого изменения, а не по запросу
+    void publishSnapshotsEagerly() {
+        snapshot();
+        eagerSnapshots = true;
+    }
+
+    // События выводятся из разницы старого и нового среза по измененным id, поэтому
+    // каждое изменение доски дает событие без отдельного кода в методах изменения.
+    // С шиной срез ведется при каждом изменении.
+    public void setEventBus(TaskEventBus eventBus) {
+        this.eventBus = eventBus;
+        if (eventBus != null) {
+            publishSnapshotsEagerly();
+        }
+    }
 
-        Duration totalDuration = subtasks.stream().map(Task::getDuration).reduce(Duration.ZERO, Duration::plus);
+    // Откат - восстановление доски из среза, снятого перед началом: O(n), только при
+    // ошибке. Задачи после отката - копии из среза, а просмотры, удаленные из истории
+    // внутри пакета, не возвращаются.
+    @Override
+    public void batch(Consumer<TaskManager> changes) {
+        TaskSnapshot before = snapshot();
+        List<PendingEvent> outerEvents = batchEvents;
+        if (outerEvents == null) {
+            batchEvents = new ArrayList<>();
+        }
+        int eventsMark = batchEvents.size();
+        try {
+            changes.accept(this);
+        } catch (RuntimeException | Error e) {
+            batchEvents.subList(eventsMark, batchEvents.size()).clear();
+            batchEvents = outerEvents;
+            restore(before);
+            throw e;
+        }
+        if (outerEvents == null) {
+            List<PendingEvent> committed = batchEvents;
+            batchEvents = null;
+            committed.forEach(event -> emit(event.type(), event.taskType(), event.id(), event.task()));
+        }
+    }
 
-        epic.setStartTime(sortedSubtasks.get(0).getStartTime());
-        epic.setEndTime(sortedSubtasks.get(sortedSubtasks.size() - 1).getEndTime());
-        epic.setDuration(totalDuration);
+    protected void restore(TaskSnapshot before) {
+        tasks.clear();
+        subtasks.clear();
+        epics.clear();
+        before.getAllTasks().forEach(task -> tasks.put(task.getId(), task));
+        before.getAllSubtasks().forEach(subtask -> subtasks.put(subtask.getId(), subtask));
+        before.getAllEpics().forEach(epic -> epics.put(epic.getId(), epic));
+        rebuildDerivedState();
+    }
+
+    // Проверка пакета за один проход: задачи пакета упорядочиваются по началу и
+    // сравниваются с соседями, а с расписанием - одним поиском в дереве на задачу.
+    private void checkBatchOverlap(Collection<? extends Task> batch) {
+        for (Task task : scheduleOrder(batch)) {
+            if (hasOverlap(task)) {
+                throw new ManagerOverlapException("Невозможно создать задачи, так как они пересекаются с другими задачами.");
+            }
+        }
+    }
+
+    // Задачи пакета со временем начала по его возрастанию; пересечение внутри пакета - ошибка
+    static List<Task> scheduleOrder(Collection<? extends Task> batch) {
+        List<Task> scheduled = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            if (task.getStartTime() != null) {
+                scheduled.add(task);
+            }
+        }
+        scheduled.sort(Comparator.comparing(Task::getStartTime));
+        for (int i = 1; i < scheduled.size(); i++) {
+            if (scheduled.get(i - 1).getEndTime().isAfter(scheduled.get(i).getStartTime())
+                    || scheduled.get(i - 1).getStartTime().equals(scheduled.get(i).getStartTime())) {
+                throw new ManagerOverlapException("Невозможно создать задачи, так как они пересекаются между собой.");
+            }
+        }
+        return scheduled;
+    }
+
+    private void publish(int... ids) {
+        changes++;
+        if (eagerSnapshots) {
+            TaskSnapshot before = snapshot;
+            snapshot = before.update(this::lookup, ids);
+            if (eventBus != null) {
+                emitChanges(before, snapshot, ids);
+            }
+        } else if (snapshot != null) {
+            for (int id : ids) {
+                staleIds.add(id);
+            }
+        }
+    }
+
+    private void emitChanges(TaskSnapshot before, TaskSnapshot after, int[] ids) {
+        for (int id : ids) {
+            Task old = before.peek(id);
+            Task current = after.peek(id);
+            if (current == null && old != null) {
+                if (old instanceof Epic) {
+                    // Подзадачи удаленного эпика уходят вместе с ним
+                    for (int subtaskId : before.subtaskIdsOf(id)) {
+                        emit(TaskEventType.DELETED, TaskType.SUBTASK, subtaskId, null);
+                    }
+                }
+                emit(TaskEventType.DELETED, old.getType(), id, null);
+            } else if (current != null) {
+                TaskEventType type;
+                if (old == null) {
+                    type = TaskEventType.CREATED;
+                } else if (current instanceof Epic && current.getStatus() != old.getStatus()) {
+                    type = TaskEventType.EPIC_STATUS_CHANGED;
+                } else {
+                    type = TaskEventType.UPDATED;
+                }
+                emit(type, current.getType(), id, after.copy(id));
+            }
+        }
+    }
+
+    private void emit(TaskEventType type, TaskType taskType, int id, Task task) {
+        if (batchEvents != null) {
+            batchEvents.add(new PendingEvent(type, taskType, id, task));
+        } else if (eventBus != null) {
+            eventBus.publish(type, taskType, id, task);
+        }
+    }
+
+    // Просмотры не откатываются вместе с пакетом, поэтому идут в шину сразу
+    private void touched(Task task) {
+        historyManager.add(task);
+        if (eventBus != null) {
+            eventBus.publish(TaskEventType.HISTORY_TOUCHED, task.getType(), task.getId(), null);
+        }
+    }
+
+    private Task lookup(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        if (task == null) {
+            task = epics.get(id);
+        }
+        return task;
+    }
+
+    private boolean hasOverlap(Task task) {
+        if (task.getStartTime() == null) {
+            return false;
+        }
+        Task sameStart = sortedTasks.get(task.getStartTime());
+        if (sameStart != null && sameStart.getId() != task.getId()) {
+            overlapScanListener.accept(0);
+            return true;
+        }
+        int scanned = 0;
+        boolean overlap = false;
+        for (Task existingTask : overlapCandidates(task.getStartTime(), task.getEndTime())) {
+            scanned++;
+            if (existingTask.getId() == task.getId()) {
+                continue;
+            }
+            overlap = existingTask.getEndTime().isAfter(task.getStartTime());
+            break;
+        }
+        overlapScanListener.accept(scanned);
+        return overlap;
     }
 
     @Override
-    public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(sortedTasks);
+    public void setOverlapScanListener(IntConsumer listener) {
+        overlapScanListener = listener == null ? NO_SCAN_LISTENER : listener;
     }
 
-    private boolean isOverlap(Task task1, Task task2) {
-        return task1.getStartTime().isBefore(task2.getEndTime())
-                && task1.getEndTime().isAfter(task2.getStartTime());
+    // Запланированные задачи не пересекаются, поэтому их окончания упорядочены так же,
+    // как начала. Кандидаты на пересечение - задачи, начавшиеся раньше end, от поздних
+    // к ранним: перебор можно остановить на первой, закончившейся не позже start.
+    private Collection<Task> overlapCandidates(LocalDateTime start, LocalDateTime end) {
+        return sortedTasks.headMap(end, false).descendingMap().values();
+    }
+
+    private void schedule(Task task) {
+        if (task.getStartTime() != null) {
+            sortedTasks.put(task.getStartTime(), task);
+            scheduledStartTimes.put(task.getId(), task.getStartTime());
+            prioritizedView = null;
+        }
+    }
+
+    private void unschedule(int id) {
+        LocalDateTime startTime = scheduledStartTimes.remove(id);
+        if (startTime != null) {
+            sortedTasks.remove(startTime);
+            prioritizedView = null;
+        }
     }
 
 }
@@ -0,0 +1,26 @@
+package manager;
+
+import java.util.function.IntConsumer;
+
+// Точки наблюдения внутри менеджера для слоя метрик. Слушатели вызываются на горячем
+// пути и под блокировками менеджера, поэтому должны быть быстрыми и не выделять память.
+public interface Instrumentable {
+
+    IntConsumer NO_SCAN_LISTENER = candidates -> {
+    };
+
+    SaveListener NO_SAVE_LISTENER = (bytes, nanos) -> {
+    };
+
+    // Получает число задач расписания, просмотренных при каждой проверке пересечения
+    void setOverlapScanListener(IntConsumer listener);
+
+    // Получает размер и длительность каждой записи на диск; менеджер без файла его не вызывает
+    default void setSaveListener(SaveListener listener) {
+    }
+
+    @FunctionalInterface
+    interface SaveListener {
+        void saved(long bytes, long nanos);
+    }
+}
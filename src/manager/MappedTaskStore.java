@@ -0,0 +1,378 @@
+package manager;
+
+import exceptions.ManagerLoadException;
+import exceptions.ManagerSaveException;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+// Хранилище задач в отображенных в память файлах. Записи фиксированного размера лежат
+// в основном файле по номеру id, строки - в отдельном файле-куче (<файл>.strings),
+// запись ссылается на строку смещением. Данные живут вне кучи JVM и сохраняются самой
+// записью в отображение: при открытии существующего файла ничего не разбирается.
+//
+// Основной файл: заголовок HEADER_SIZE байт, затем сегменты по SLOTS_PER_SEGMENT записей.
+// Запись (SLOT_SIZE байт): type(1) status(1) резерв(2) link(4) start(8) duration(4)
+// резерв(4) name(8) description(8). type = 0 - пустая запись, иначе ordinal типа + 1;
+// link - id эпика для подзадачи или минуты от начала до окончания для эпика.
+// Куча строк только дописывается: строка - длина(4) и байты UTF-8, строка не пересекает
+// границу сегмента. Место замененных строк не освобождается.
+final class MappedTaskStore implements TaskStore, AutoCloseable {
+
+    static final String STRINGS_SUFFIX = ".strings";
+
+    private static final int MAGIC = 0x4B4E4F48; // "KNOH"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 40;
+    private static final int SLOTS_PER_SEGMENT = 1 << 20;
+    private static final long SLOT_SEGMENT_BYTES = (long) SLOTS_PER_SEGMENT * SLOT_SIZE;
+    private static final int HEAP_SEGMENT_BYTES = 1 << 26;
+
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_SLOT_SIZE = 8;
+    private static final int HEADER_SIZE_COUNT = 12;
+    private static final int HEADER_HEAP_END = 16;
+    private static final int HEADER_LIMIT = 24;
+
+    private static final int SLOT_TYPE = 0;
+    private static final int SLOT_STATUS = 1;
+    private static final int SLOT_LINK = 4;
+    private static final int SLOT_START = 8;
+    private static final int SLOT_DURATION = 16;
+    private static final int SLOT_NAME = 24;
+    private static final int SLOT_DESCRIPTION = 32;
+
+    private static final long NULL_REFERENCE = -1;
+    private static final int NO_SPAN = Integer.MIN_VALUE;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final Path path;
+    private final FileChannel slotChannel;
+    private final FileChannel heapChannel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> slotSegments = new ArrayList<>();
+    private final List<MappedByteBuffer> heapSegments = new ArrayList<>();
+    private long heapEnd;
+    private int size;
+    // Граница занятых когда-либо записей: обход дальше нее не нужен
+    private int limit;
+
+    private MappedTaskStore(Path path, FileChannel slotChannel, FileChannel heapChannel) throws IOException {
+        this.path = path;
+        this.slotChannel = slotChannel;
+        this.heapChannel = heapChannel;
+        boolean created = slotChannel.size() == 0;
+        header = slotChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (created) {
+            header.putInt(HEADER_MAGIC, MAGIC);
+            header.putInt(HEADER_VERSION, VERSION);
+            header.putInt(HEADER_SLOT_SIZE, SLOT_SIZE);
+            header.putInt(HEADER_SIZE_COUNT, 0);
+            header.putLong(HEADER_HEAP_END, 0);
+            header.putInt(HEADER_LIMIT, 0);
+        } else if (header.getInt(HEADER_MAGIC) != MAGIC || header.getInt(HEADER_VERSION) != VERSION
+                || header.getInt(HEADER_SLOT_SIZE) != SLOT_SIZE) {
+            throw new ManagerLoadException("Файл не является хранилищем задач: " + path);
+        }
+        size = header.getInt(HEADER_SIZE_COUNT);
+        heapEnd = header.getLong(HEADER_HEAP_END);
+        limit = header.getInt(HEADER_LIMIT);
+
+        long slotSegmentCount = (slotChannel.size() - HEADER_SIZE + SLOT_SEGMENT_BYTES - 1) / SLOT_SEGMENT_BYTES;
+        for (int i = 0; i < slotSegmentCount; i++) {
+            mapSlotSegment();
+        }
+        long heapSegmentCount = (heapEnd + HEAP_SEGMENT_BYTES - 1) / HEAP_SEGMENT_BYTES;
+        for (int i = 0; i < heapSegmentCount; i++) {
+            mapHeapSegment();
+        }
+    }
+
+    // Каналы закрываются при любой ошибке, в том числе когда конструктор отверг чужой файл
+    static MappedTaskStore open(Path path) {
+        FileChannel slotChannel = null;
+        FileChannel heapChannel = null;
+        try {
+            slotChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            heapChannel = FileChannel.open(path.resolveSibling(path.getFileName() + STRINGS_SUFFIX),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new MappedTaskStore(path, slotChannel, heapChannel);
+        } catch (RuntimeException | IOException e) {
+            closeQuietly(heapChannel);
+            closeQuietly(slotChannel);
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ManagerLoadException("Ошибка при открытии хранилища задач: " + path);
+        }
+    }
+
+    @Override
+    public void put(Task task) {
+        int id = task.getId();
+        if (id < 0) {
+            throw new IllegalArgumentException("Отрицательный id задачи: " + id);
+        }
+        ensureMapped(id);
+        MappedByteBuffer segment = slotSegment(id);
+        int offset = slotOffset(id);
+        boolean existed = segment.get(offset + SLOT_TYPE) != 0;
+
+        long start = TaskStore.toMinute(task.getStartTime());
+        int link = 0;
+        if (task instanceof Subtask subtask) {
+            link = subtask.getEpicId();
+        } else if (task instanceof Epic epic) {
+            link = span(start, TaskStore.toMinute(epic.getEndTime()));
+        }
+        long name = storeString(task.getName(), existed ? segment.getLong(offset + SLOT_NAME) : NULL_REFERENCE);
+        long description = storeString(task.getDescription(),
+                existed ? segment.getLong(offset + SLOT_DESCRIPTION) : NULL_REFERENCE);
+
+        segment.put(offset + SLOT_STATUS, (byte) task.getStatus().ordinal());
+        segment.putInt(offset + SLOT_LINK, link);
+        segment.putLong(offset + SLOT_START, start);
+        segment.putInt(offset + SLOT_DURATION, TaskStore.toMinutes(task.getDuration()));
+        segment.putLong(offset + SLOT_NAME, name);
+        segment.putLong(offset + SLOT_DESCRIPTION, description);
+        // Тип пишется последним: запись становится видимой, когда все поля уже на месте
+        segment.put(offset + SLOT_TYPE, (byte) (task.getType().ordinal() + 1));
+        if (!existed) {
+            setSize(size + 1);
+        }
+        if (id >= limit) {
+            limit = id + 1;
+            header.putInt(HEADER_LIMIT, limit);
+        }
+    }
+
+    @Override
+    public Task get(int id) {
+        TaskType type = type(id);
+        if (type == null) {
+            return null;
+        }
+        MappedByteBuffer segment = slotSegment(id);
+        int offset = slotOffset(id);
+        long start = segment.getLong(offset + SLOT_START);
+        int link = segment.getInt(offset + SLOT_LINK);
+        Task task = TaskRestorer.restore(type, id, loadString(segment.getLong(offset + SLOT_NAME)),
+                loadString(segment.getLong(offset + SLOT_DESCRIPTION)), STATUSES[segment.get(offset + SLOT_STATUS)],
+                link, TaskStore.fromMinutes(segment.getInt(offset + SLOT_DURATION)), TaskStore.fromMinute(start));
+        if (task instanceof Epic epic && link != NO_SPAN && start != NO_START) {
+            epic.setEndTime(TaskStore.fromMinute(start + link));
+        }
+        return task;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return type(id) != null;
+    }
+
+    @Override
+    public void remove(int id) {
+        if (contains(id)) {
+            slotSegment(id).put(slotOffset(id) + SLOT_TYPE, (byte) 0);
+            setSize(size - 1);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int id = 0; id < limit; id++) {
+            slotSegment(id).put(slotOffset(id) + SLOT_TYPE, (byte) 0);
+        }
+        setSize(0);
+        limit = 0;
+        header.putInt(HEADER_LIMIT, 0);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public TaskType type(int id) {
+        if (id < 0 || id >= limit) {
+            return null;
+        }
+        byte type = slotSegment(id).get(slotOffset(id) + SLOT_TYPE);
+        return type == 0 ? null : TYPES[type - 1];
+    }
+
+    @Override
+    public Status status(int id) {
+        return STATUSES[slotSegment(id).get(slotOffset(id) + SLOT_STATUS)];
+    }
+
+    @Override
+    public long startMinute(int id) {
+        return slotSegment(id).getLong(slotOffset(id) + SLOT_START);
+    }
+
+    @Override
+    public int durationMinutes(int id) {
+        return slotSegment(id).getInt(slotOffset(id) + SLOT_DURATION);
+    }
+
+    @Override
+    public int epicId(int id) {
+        return slotSegment(id).getInt(slotOffset(id) + SLOT_LINK);
+    }
+
+    @Override
+    public void setEpicEstimates(int epicId, Status status, long startMinute, int durationMinutes, long endMinute) {
+        MappedByteBuffer segment = slotSegment(epicId);
+        int offset = slotOffset(epicId);
+        segment.put(offset + SLOT_STATUS, (byte) status.ordinal());
+        segment.putLong(offset + SLOT_START, startMinute);
+        segment.putInt(offset + SLOT_DURATION, durationMinutes);
+        segment.putInt(offset + SLOT_LINK, span(startMinute, endMinute));
+    }
+
+    @Override
+    public boolean forEachId(TaskType type, IntPredicate action) {
+        byte code = (byte) (type.ordinal() + 1);
+        for (int id = 0; id < limit; id++) {
+            if (slotSegment(id).get(slotOffset(id) + SLOT_TYPE) == code && !action.test(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Сбрасывает измененные страницы отображений на диск
+    void force() {
+        slotSegments.forEach(MappedByteBuffer::force);
+        heapSegments.forEach(MappedByteBuffer::force);
+        header.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+        try {
+            slotChannel.close();
+            heapChannel.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при закрытии хранилища задач: " + path);
+        }
+    }
+
+    // Неизменившаяся строка не дописывается в кучу повторно
+    private long storeString(String value, long previousReference) {
+        if (value == null) {
+            return NULL_REFERENCE;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (previousReference != NULL_REFERENCE && value.equals(loadString(previousReference))) {
+            return previousReference;
+        }
+        int recordSize = Integer.BYTES + bytes.length;
+        if (recordSize > HEAP_SEGMENT_BYTES) {
+            throw new ManagerSaveException("Слишком длинная строка: " + bytes.length + " байт.");
+        }
+        long reference = heapEnd;
+        if (reference % HEAP_SEGMENT_BYTES + recordSize > HEAP_SEGMENT_BYTES) {
+            reference = (reference / HEAP_SEGMENT_BYTES + 1) * HEAP_SEGMENT_BYTES;
+        }
+        while (heapSegments.size() <= reference / HEAP_SEGMENT_BYTES) {
+            mapHeapSegment();
+        }
+        MappedByteBuffer segment = heapSegments.get((int) (reference / HEAP_SEGMENT_BYTES));
+        int offset = (int) (reference % HEAP_SEGMENT_BYTES);
+        segment.putInt(offset, bytes.length);
+        segment.put(offset + Integer.BYTES, bytes);
+        heapEnd = reference + recordSize;
+        header.putLong(HEADER_HEAP_END, heapEnd);
+        return reference;
+    }
+
+    private String loadString(long reference) {
+        if (reference == NULL_REFERENCE) {
+            return null;
+        }
+        MappedByteBuffer segment = heapSegments.get((int) (reference / HEAP_SEGMENT_BYTES));
+        int offset = (int) (reference % HEAP_SEGMENT_BYTES);
+        byte[] bytes = new byte[segment.getInt(offset)];
+        segment.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void setSize(int size) {
+        this.size = size;
+        header.putInt(HEADER_SIZE_COUNT, size);
+    }
+
+    private int slotCapacity() {
+        return slotSegments.size() * SLOTS_PER_SEGMENT;
+    }
+
+    private void ensureMapped(int id) {
+        while (id >= slotCapacity()) {
+            mapSlotSegment();
+        }
+    }
+
+    private MappedByteBuffer slotSegment(int id) {
+        return slotSegments.get(id / SLOTS_PER_SEGMENT);
+    }
+
+    private static int slotOffset(int id) {
+        return (id % SLOTS_PER_SEGMENT) * SLOT_SIZE;
+    }
+
+    private void mapSlotSegment() {
+        long position = HEADER_SIZE + slotSegments.size() * SLOT_SEGMENT_BYTES;
+        slotSegments.add(map(slotChannel, position, SLOT_SEGMENT_BYTES));
+    }
+
+    private void mapHeapSegment() {
+        long position = (long) heapSegments.size() * HEAP_SEGMENT_BYTES;
+        heapSegments.add(map(heapChannel, position, HEAP_SEGMENT_BYTES));
+    }
+
+    // Отображение за концом файла увеличивает файл до нужного размера
+    private MappedByteBuffer map(FileChannel channel, long position, long length) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, position, length);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при отображении хранилища задач в память: " + path);
+        }
+    }
+
+    private static int span(long startMinute, long endMinute) {
+        if (startMinute == NO_START || endMinute == NO_START) {
+            return NO_SPAN;
+        }
+        return Math.toIntExact(endMinute - startMinute);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Исходная ошибка важнее
+        }
+    }
+}
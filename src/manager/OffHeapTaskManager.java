@@ -0,0 +1,46 @@
+package manager;
+
+import utils.Managers;
+
+import java.io.File;
+
+// Менеджер, задачи которого лежат вне кучи JVM в отображенном в память файле
+// (MappedTaskStore). Каждое изменение записывается прямо в отображение, поэтому отдельного
+// сохранения нет, а при повторном открытии файла задачи не загружаются: восстанавливаются
+// только расписание и показатели эпиков. flush сбрасывает изменения на диск немедленно.
+public final class OffHeapTaskManager extends StoreBackedTaskManager implements AutoCloseable {
+
+    private final MappedTaskStore store;
+
+    public OffHeapTaskManager(File file) {
+        this(file, Managers.getDefaultHistory());
+    }
+
+    public OffHeapTaskManager(File file, HistoryManager historyManager) {
+        this(MappedTaskStore.open(file.toPath()), historyManager);
+    }
+
+    private OffHeapTaskManager(MappedTaskStore store, HistoryManager historyManager) {
+        super(store, historyManager);
+        this.store = store;
+        try {
+            restoreFromStore();
+        } catch (RuntimeException e) {
+            try {
+                store.close();
+            } catch (RuntimeException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+    }
+
+    public void flush() {
+        store.force();
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+}
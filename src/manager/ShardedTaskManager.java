@@ -0,0 +1,793 @@
+package manager;
+
+import exceptions.ManagerOverlapException;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import utils.IntObjectHashMap;
+import utils.Managers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+
+// Потокобезопасный менеджер из N шардов. Каждый шард - InMemoryTaskManager со своими
+// картами и расписанием, с которым работает только его собственный поток, поэтому
+// изменения в разных шардах идут параллельно, а внутри шарда блокировки не нужны.
+// Шард задачи - id mod N. Эпик лежит в одном шарде со всеми своими подзадачами: id
+// подзадачи выдается с тем же остатком, что у эпика. Обычные задачи и эпики
+// раскладываются по шардам очередным id.
+//
+// Пересечения по времени проверяются по общему резерву расписания под короткой
+// блокировкой, до передачи задачи в шард: время занимается до изменения шарда и
+// освобождается, если оно не удалось. Списки и расписание всей доски собираются
+// k-путевым слиянием упорядоченных ответов шардов. История общая для всех шардов.
+public class ShardedTaskManager implements TaskManager, Instrumentable, AutoCloseable {
+
+    private static final Comparator<Task> BY_ID = Comparator.comparingInt(Task::getId);
+    private static final Comparator<Task> BY_START_TIME = Comparator.comparing(Task::getStartTime);
+
+    private final Shard[] shards;
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final HistoryManager historyManager = Managers.getConcurrentHistory();
+
+    // Занятое время всех шардов: начало -> (id, окончание). Меняется только под scheduleLock.
+    private final TreeMap<LocalDateTime, Slot> reserved = new TreeMap<>();
+    private final IntObjectHashMap<LocalDateTime> reservedStarts = new IntObjectHashMap<>();
+    private final ReentrantLock scheduleLock = new ReentrantLock();
+    private volatile IntConsumer overlapScanListener = NO_SCAN_LISTENER;
+    // Изменения берут блокировку на чтение и идут параллельно; batch() берет ее на запись,
+    // чтобы откат шардов не затер чужие изменения, сделанные во время пакета.
+    private final ReentrantReadWriteLock batchLock = new ReentrantReadWriteLock();
+
+    // Результаты слияния запоминаются вместе со срезами шардов, по которым собраны:
+    // пока ни один шард не изменился, повторный вызов не опрашивает шарды.
+    private volatile Merged<List<Task>> prioritizedView;
+    private volatile Merged<TaskSnapshot> mergedSnapshot;
+
+    private record Slot(int id, LocalDateTime end) {
+    }
+
+    private record Merged<V>(TaskSnapshot[] parts, V value) {
+        boolean isFor(TaskSnapshot[] current) {
+            for (int i = 0; i < parts.length; i++) {
+                if (parts[i] != current[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    public ShardedTaskManager() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedTaskManager(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Число шардов должно быть положительным.");
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, historyManager);
+        }
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        int id = nextId.incrementAndGet();
+        return create(shardOf(id), task, id,
+                "Невозможно создать задачу, так как она пересекается с другой задачей.",
+                manager -> manager.createTask(task));
+    }
+
+    @Override
+    public List<Task> createTasks(Collection<Task> newTasks) {
+        List<Task> batch = new ArrayList<>(newTasks);
+        int[] ids = new int[batch.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = nextId.incrementAndGet();
+        }
+        createAcross(batch, ids, InMemoryTaskManager::createTasks, InMemoryTaskManager::deleteTaskById);
+        return batch;
+    }
+
+    // Списки всей доски собираются по срезам шардов без обращения к их потокам, поэтому
+    // задачи в них - копии.
+    @Override
+    public List<Task> getAllTasks() {
+        List<List<Task>> parts = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            parts.add(shard.manager.snapshot().getAllTasks());
+        }
+        return merge(parts, BY_ID, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        deleteAll(manager -> {
+            int[] removed = idsOf(manager.getAllTasks());
+            manager.deleteAllTasks();
+            return removed;
+        });
+    }
+
+    // Чтение по id не передается в поток шарда: задача берется из его среза, а просмотр
+    // отмечается прямо в общей потокобезопасной истории. Поток шарда нужен только изменениям.
+    @Override
+    public Optional<Task> getTaskById(int id) {
+        return viewed(shardOf(id).manager.snapshot().getTaskById(id));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        update(task, manager -> manager.updateTask(task));
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        delete(id, manager -> {
+            manager.deleteTaskById(id);
+            return new int[]{id};
+        });
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        int shardIndex = shardIndex(subtask.getEpicId());
+        int id = allocateId(shardIndex);
+        return create(shards[shardIndex], subtask, id,
+                "Невозможно создать подзадачу, так как она пересекается с другой задачей.",
+                manager -> manager.createSubtask(subtask));
+    }
+
+    @Override
+    public List<Subtask> createSubtasks(Collection<Subtask> newSubtasks) {
+        List<Subtask> batch = new ArrayList<>(newSubtasks);
+        for (Subtask subtask : batch) {
+            if (!(shardOf(subtask.getEpicId()).manager.snapshot().peek(subtask.getEpicId()) instanceof Epic)) {
+                throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не найден.");
+            }
+        }
+        int[] ids = new int[batch.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = allocateId(shardIndex(batch.get(i).getEpicId()));
+        }
+        createAcross(batch, ids, InMemoryTaskManager::createSubtasks, InMemoryTaskManager::deleteSubtaskById);
+        return batch;
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        List<List<Subtask>> parts = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            parts.add(shard.manager.snapshot().getAllSubtasks());
+        }
+        return merge(parts, BY_ID, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        deleteAll(manager -> {
+            int[] removed = idsOf(manager.getAllSubtasks());
+            manager.deleteAllSubtasks();
+            return removed;
+        });
+    }
+
+    @Override
+    public Optional<Subtask> getSubtaskById(int id) {
+        return viewed(shardOf(id).manager.snapshot().getSubtaskById(id));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        update(subtask, manager -> manager.updateSubtask(subtask));
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        delete(id, manager -> {
+            manager.deleteSubtaskById(id);
+            return new int[]{id};
+        });
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        int id = nextId.incrementAndGet();
+        Shard shard = shardOf(id);
+        batchLock.readLock().lock();
+        try {
+            return call(shard, manager -> {
+                shard.assign(id);
+                return manager.createEpic(epic);
+            });
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        List<List<Epic>> parts = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            parts.add(shard.manager.snapshot().getAllEpics());
+        }
+        return merge(parts, BY_ID, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        deleteAll(manager -> {
+            int[] removed = idsOf(manager.getAllSubtasks());
+            manager.deleteAllEpics();
+            return removed;
+        });
+    }
+
+    @Override
+    public Optional<Epic> getEpicById(int id) {
+        return viewed(shardOf(id).manager.snapshot().getEpicById(id));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        batchLock.readLock().lock();
+        try {
+            run(shardOf(epic.getId()), manager -> manager.updateEpic(epic));
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        delete(id, manager -> {
+            int[] subtaskIds = manager.snapshot().subtaskIdsOf(id);
+            manager.deleteEpicById(id);
+            return subtaskIds;
+        });
+    }
+
+    // Срез не хранит порядок подзадач эпика, а id растут с созданием, поэтому сортировка
+    // по id дает тот же порядок добавления, что и у InMemoryTaskManager
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        List<Subtask> subtasks = shardOf(epicId).manager.snapshot().getSubtasksByEpicId(epicId);
+        subtasks.sort(BY_ID);
+        return subtasks;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        return historyManager.getHistory(offset, limit);
+    }
+
+    @Override
+    public List<Task> getRecentHistory(int n) {
+        return historyManager.getRecentHistory(n);
+    }
+
+    @Override
+    public Stream<Task> streamHistory() {
+        return historyManager.streamHistory();
+    }
+
+    // Срезы шардов снимаются до опроса: если шард изменится во время слияния, следующий
+    // вызов увидит новый срез и соберет расписание заново.
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        TaskSnapshot[] parts = shardSnapshots();
+        Merged<List<Task>> cached = prioritizedView;
+        if (cached != null && cached.isFor(parts)) {
+            return cached.value();
+        }
+        List<Task> prioritized = List.copyOf(merge(callAll(InMemoryTaskManager::getPrioritizedTasks),
+                BY_START_TIME, Integer.MAX_VALUE));
+        prioritizedView = new Merged<>(parts, prioritized);
+        return prioritized;
+    }
+
+    // Каждый шард отдает не больше limit задач окна, из слияния берутся первые limit
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Размер страницы не может быть отрицательным.");
+        }
+        return merge(callAll(manager -> manager.getPrioritizedTasks(from, to, limit)), BY_START_TIME, limit);
+    }
+
+    @Override
+    public List<Task> findOverlapping(LocalDateTime start, LocalDateTime end) {
+        return merge(callAll(manager -> manager.findOverlapping(start, end)), BY_START_TIME, Integer.MAX_VALUE);
+    }
+
+    // Без окна по времени у выборки нет общего порядка, и ответы шардов идут подряд
+    @Override
+    public List<Task> find(TaskQuery query) {
+        List<List<Task>> parts = callAll(manager -> manager.find(query));
+        if (query.hasStartWindow()) {
+            return merge(parts, BY_START_TIME, query.getLimit());
+        }
+        List<Task> found = new ArrayList<>();
+        for (List<Task> part : parts) {
+            for (Task task : part) {
+                if (found.size() == query.getLimit()) {
+                    return found;
+                }
+                found.add(task);
+            }
+        }
+        return found;
+    }
+
+    // Задача читается из среза своего шарда, общий срез для этого не собирается
+    @Override
+    public Optional<Task> findById(int id) {
+        return Optional.ofNullable(shardOf(id).manager.snapshot().copy(id));
+    }
+
+    // Общий срез собирается из срезов шардов за O(n log n) и только после изменений.
+    // Каждый шард входит в него целиком, но срезы разных шардов снимаются не одномоментно.
+    @Override
+    public TaskSnapshot snapshot() {
+        TaskSnapshot[] parts = shardSnapshots();
+        Merged<TaskSnapshot> cached = mergedSnapshot;
+        if (cached != null && cached.isFor(parts)) {
+            return cached.value();
+        }
+        TaskSnapshot merged = TaskSnapshot.merge(parts);
+        mergedSnapshot = new Merged<>(parts, merged);
+        return merged;
+    }
+
+    // Пакет держит batchLock на запись, операции пакета идут в шарды как обычно. При
+    // ошибке каждый шард восстанавливается из своего среза, снятого перед началом, а
+    // резерв расписания собирается заново по восстановленным шардам.
+    @Override
+    public void batch(Consumer<TaskManager> changes) {
+        batchLock.writeLock().lock();
+        try {
+            TaskSnapshot[] before = shardSnapshots();
+            try {
+                changes.accept(this);
+            } catch (RuntimeException | Error e) {
+                for (int i = 0; i < shards.length; i++) {
+                    TaskSnapshot shardBefore = before[i];
+                    run(shards[i], manager -> manager.restore(shardBefore));
+                }
+                rebuildReservations();
+                throw e;
+            }
+        } finally {
+            batchLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void setOverlapScanListener(IntConsumer listener) {
+        overlapScanListener = listener == null ? NO_SCAN_LISTENER : listener;
+    }
+
+    // Дожидается выполнения принятых операций и останавливает потоки шардов
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.executor.close();
+        }
+    }
+
+    private <T> T create(Shard shard, Task task, int id, String overlapMessage,
+                         Function<InMemoryTaskManager, T> operation) {
+        int[] ids = {id};
+        batchLock.readLock().lock();
+        try {
+            reserve(List.of(task), ids, overlapMessage);
+            try {
+                return call(shard, manager -> {
+                    shard.assign(ids);
+                    return operation.apply(manager);
+                });
+            } catch (RuntimeException | Error e) {
+                release(ids);
+                throw e;
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    // Пакет раскладывается по шардам и создается в них параллельно. Пересечения уже
+    // проверены по резерву, поэтому шард откажет только при гонке (эпик удалили после
+    // проверки); тогда созданное в остальных шардах удаляется, а время освобождается.
+    private <T extends Task> void createAcross(List<T> batch, int[] ids, BiConsumer<InMemoryTaskManager, List<T>> create,
+                                               ObjIntConsumer<InMemoryTaskManager> delete) {
+        int[] counts = new int[shards.length];
+        for (int id : ids) {
+            counts[shardIndex(id)]++;
+        }
+        int[][] groupIds = new int[shards.length][];
+        List<List<T>> groups = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            groupIds[i] = new int[counts[i]];
+            groups.add(new ArrayList<>(counts[i]));
+            counts[i] = 0;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            int shardIndex = shardIndex(ids[i]);
+            groupIds[shardIndex][counts[shardIndex]++] = ids[i];
+            groups.get(shardIndex).add(batch.get(i));
+        }
+
+        batchLock.readLock().lock();
+        try {
+            reserve(batch, ids, "Невозможно создать задачи, так как они пересекаются с другими задачами.");
+            List<CompletableFuture<Void>> futures = new ArrayList<>(shards.length);
+            for (int i = 0; i < shards.length; i++) {
+                Shard shard = shards[i];
+                int[] assigned = groupIds[i];
+                List<T> group = groups.get(i);
+                futures.add(group.isEmpty() ? null : submit(shard, manager -> {
+                    shard.assign(assigned);
+                    create.accept(manager, group);
+                    return null;
+                }));
+            }
+            Throwable failure = null;
+            boolean[] created = new boolean[shards.length];
+            for (int i = 0; i < shards.length; i++) {
+                if (futures.get(i) == null) {
+                    continue;
+                }
+                try {
+                    join(futures.get(i));
+                    created[i] = true;
+                } catch (RuntimeException | Error e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                for (int i = 0; i < shards.length; i++) {
+                    if (created[i]) {
+                        int[] assigned = groupIds[i];
+                        run(shards[i], manager -> {
+                            for (int id : assigned) {
+                                delete.accept(manager, id);
+                            }
+                        });
+                    }
+                }
+                release(ids);
+                if (failure instanceof Error error) {
+                    throw error;
+                }
+                throw (RuntimeException) failure;
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    // Время занимается заново до изменения шарда, а после него резерв задачи приводится
+    // к тому, что фактически лежит в шарде: изменение могло не примениться.
+    private void update(Task task, Consumer<InMemoryTaskManager> operation) {
+        Shard shard = shardOf(task.getId());
+        batchLock.readLock().lock();
+        try {
+            Task current = shard.manager.snapshot().peek(task.getId());
+            if (current == null || current.getType() != task.getType()) {
+                return;
+            }
+            reserve(List.of(task), new int[]{task.getId()},
+                    "Невозможно обновить задачу, так как она будет пересекаться с другой задачей.");
+            try {
+                run(shard, operation);
+            } finally {
+                resync(shard, task.getId());
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    // Операция удаления возвращает id задач, чье время нужно освободить
+    private void delete(int id, Function<InMemoryTaskManager, int[]> operation) {
+        batchLock.readLock().lock();
+        try {
+            release(call(shardOf(id), operation));
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    private void deleteAll(Function<InMemoryTaskManager, int[]> operation) {
+        batchLock.readLock().lock();
+        try {
+            for (int[] removed : callAll(operation)) {
+                release(removed);
+            }
+        } finally {
+            batchLock.readLock().unlock();
+        }
+    }
+
+    // Проверка и занятие времени для задач с будущими id ids[i]: все или ничего
+    private void reserve(List<? extends Task> batch, int[] ids, String overlapMessage) {
+        if (batch.size() > 1) {
+            InMemoryTaskManager.scheduleOrder(batch);
+        }
+        scheduleLock.lock();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                Task task = batch.get(i);
+                if (task.getStartTime() != null && hasOverlap(task.getStartTime(), task.getEndTime(), ids[i])) {
+                    throw new ManagerOverlapException(overlapMessage);
+                }
+            }
+            for (int i = 0; i < ids.length; i++) {
+                Task task = batch.get(i);
+                unreserve(ids[i]);
+                if (task.getStartTime() != null) {
+                    put(ids[i], task.getStartTime(), task.getEndTime());
+                }
+            }
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    private void release(int[] ids) {
+        scheduleLock.lock();
+        try {
+            for (int id : ids) {
+                unreserve(id);
+            }
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    private void resync(Shard shard, int id) {
+        Task current = shard.manager.snapshot().peek(id);
+        scheduleLock.lock();
+        try {
+            unreserve(id);
+            if (current != null && !(current instanceof Epic) && current.getStartTime() != null) {
+                put(id, current.getStartTime(), current.getEndTime());
+            }
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    // Вызывается после отката под batchLock на запись, поэтому других изменений нет
+    private void rebuildReservations() {
+        scheduleLock.lock();
+        try {
+            reserved.clear();
+            reservedStarts.clear();
+            for (Shard shard : shards) {
+                for (Task task : shard.manager.snapshot().getPrioritizedTasks()) {
+                    put(task.getId(), task.getStartTime(), task.getEndTime());
+                }
+            }
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    // Та же проверка, что в InMemoryTaskManager, но по резерву всех шардов
+    private boolean hasOverlap(LocalDateTime start, LocalDateTime end, int id) {
+        Slot sameStart = reserved.get(start);
+        if (sameStart != null && sameStart.id() != id) {
+            overlapScanListener.accept(0);
+            return true;
+        }
+        int scanned = 0;
+        boolean overlap = false;
+        for (Slot slot : reserved.headMap(end, false).descendingMap().values()) {
+            scanned++;
+            if (slot.id() == id) {
+                continue;
+            }
+            overlap = slot.end().isAfter(start);
+            break;
+        }
+        overlapScanListener.accept(scanned);
+        return overlap;
+    }
+
+    private void put(int id, LocalDateTime start, LocalDateTime end) {
+        reserved.put(start, new Slot(id, end));
+        reservedStarts.put(id, start);
+    }
+
+    private void unreserve(int id) {
+        LocalDateTime start = reservedStarts.remove(id);
+        if (start != null) {
+            reserved.remove(start);
+        }
+    }
+
+    // Ближайший свободный id с остатком shardIndex: подзадача попадает в шард эпика
+    private int allocateId(int shardIndex) {
+        while (true) {
+            int current = nextId.get();
+            int id = current + 1 + Math.floorMod(shardIndex - (current + 1), shards.length);
+            if (nextId.compareAndSet(current, id)) {
+                return id;
+            }
+        }
+    }
+
+    private int shardIndex(int id) {
+        return Math.floorMod(id, shards.length);
+    }
+
+    private <T extends Task> Optional<T> viewed(Optional<T> task) {
+        task.ifPresent(historyManager::add);
+        return task;
+    }
+
+    private Shard shardOf(int id) {
+        return shards[shardIndex(id)];
+    }
+
+    private TaskSnapshot[] shardSnapshots() {
+        TaskSnapshot[] parts = new TaskSnapshot[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            parts[i] = shards[i].manager.snapshot();
+        }
+        return parts;
+    }
+
+    private static int[] idsOf(List<? extends Task> tasks) {
+        return tasks.stream().mapToInt(Task::getId).toArray();
+    }
+
+    // k-путевое слияние упорядоченных ответов шардов: O(n log k). При равенстве первым
+    // идет элемент шарда с меньшим номером, так что порядок внутри шарда сохраняется.
+    private static <T> List<T> merge(List<? extends List<? extends T>> parts, Comparator<? super T> order,
+                                     int limit) {
+        PriorityQueue<Cursor<T>> heads = new PriorityQueue<>((first, second) -> {
+            int compared = order.compare(first.head(), second.head());
+            return compared != 0 ? compared : Integer.compare(first.shard, second.shard);
+        });
+        int total = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            if (!parts.get(i).isEmpty()) {
+                heads.add(new Cursor<>(i, parts.get(i)));
+                total += parts.get(i).size();
+            }
+        }
+        List<T> merged = new ArrayList<>(Math.min(total, limit));
+        while (merged.size() < limit && !heads.isEmpty()) {
+            Cursor<T> cursor = heads.poll();
+            merged.add(cursor.head());
+            if (++cursor.position < cursor.items.size()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private void run(Shard shard, Consumer<InMemoryTaskManager> operation) {
+        call(shard, manager -> {
+            operation.accept(manager);
+            return null;
+        });
+    }
+
+    private <T> T call(Shard shard, Function<InMemoryTaskManager, T> operation) {
+        return join(submit(shard, operation));
+    }
+
+    // Операция во всех шардах параллельно; ответы - в порядке шардов
+    private <T> List<T> callAll(Function<InMemoryTaskManager, T> operation) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            futures.add(submit(shard, operation));
+        }
+        List<T> results = new ArrayList<>(shards.length);
+        for (CompletableFuture<T> future : futures) {
+            results.add(join(future));
+        }
+        return results;
+    }
+
+    private <T> CompletableFuture<T> submit(Shard shard, Function<InMemoryTaskManager, T> operation) {
+        try {
+            return CompletableFuture.supplyAsync(() -> operation.apply(shard.manager), shard.executor);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Менеджер закрыт.");
+        }
+    }
+
+    // Ошибка шарда (например, пересечение) пробрасывается вызывающему как есть
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Cursor<T> {
+        private final int shard;
+        private final List<? extends T> items;
+        private int position;
+
+        private Cursor(int shard, List<? extends T> items) {
+            this.shard = shard;
+            this.items = items;
+        }
+
+        private T head() {
+            return items.get(position);
+        }
+    }
+
+    private static final class Shard {
+        private final InMemoryTaskManager manager;
+        private final ExecutorService executor;
+        // id для задач, которые создаст следующий вызов менеджера. Пишется и читается
+        // только в потоке шарда.
+        private int[] assignedIds;
+        private int assignedIndex;
+
+        private Shard(int index, HistoryManager historyManager) {
+            this.manager = new InMemoryTaskManager(historyManager, this::takeId);
+            manager.publishSnapshotsEagerly();
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-manager-shard-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        private void assign(int... ids) {
+            assignedIds = ids;
+            assignedIndex = 0;
+        }
+
+        private int takeId() {
+            if (assignedIds == null || assignedIndex == assignedIds.length) {
+                throw new IllegalStateException("Шарду не выданы id для новых задач.");
+            }
+            return assignedIds[assignedIndex++];
+        }
+    }
+}
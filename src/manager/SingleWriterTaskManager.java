@@ -0,0 +1,278 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// AsyncTaskManager поверх обычного TaskManager. Все изменения встают в очередь одного
+// потока-писателя и применяются к менеджеру по порядку, поэтому сам менеджер может быть
+// непотокобезопасным (InMemoryTaskManager, FileBackedTaskManager), а блокировки не
+// нужны. Запись на диск тоже идет в потоке-писателе: вызывающий поток не ждет ни
+// очереди, ни диска.
+//
+// После каждого изменения писатель публикует срез менеджера. Чтения, которые срез умеет
+// обслужить (списки, задачи по id, подзадачи эпика, расписание), выполняются сразу в
+// вызывающем потоке по последнему срезу и видят все изменения, чьи future уже
+// завершились. История и выборки по индексам менеджера идут через очередь.
+//
+// Менеджер после передачи сюда напрямую использовать нельзя. Переданные в create/update
+// задачи нельзя менять, пока не завершится future операции.
+public class SingleWriterTaskManager implements AsyncTaskManager {
+
+    private final TaskManager delegate;
+    private final ExecutorService writer;
+    private volatile TaskSnapshot published;
+
+    // Срез пересобирается после каждого изменения, поэтому менеджер должен выдавать его
+    // дешево, как InMemoryTaskManager и его наследники. StoreBackedTaskManager собирает
+    // срез за O(n) и для такой очереди не подходит.
+    public SingleWriterTaskManager(TaskManager delegate) {
+        this.delegate = delegate;
+        this.published = delegate.snapshot();
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-manager-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Task> createTask(Task task) {
+        return write(() -> delegate.createTask(task));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> createTasks(Collection<Task> tasks) {
+        return write(() -> delegate.createTasks(tasks));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getAllTasks() {
+        return CompletableFuture.completedFuture(published.getAllTasks());
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAllTasks() {
+        return write(delegate::deleteAllTasks);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Task>> getTaskById(int id) {
+        Optional<Task> task = published.getTaskById(id);
+        task.ifPresent(found -> record(() -> delegate.getTaskById(id)));
+        return CompletableFuture.completedFuture(task);
+    }
+
+    @Override
+    public CompletableFuture<Void> updateTask(Task task) {
+        return write(() -> delegate.updateTask(task));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteTaskById(int id) {
+        return write(() -> delegate.deleteTaskById(id));
+    }
+
+    @Override
+    public CompletableFuture<Subtask> createSubtask(Subtask subtask) {
+        return write(() -> delegate.createSubtask(subtask));
+    }
+
+    @Override
+    public CompletableFuture<List<Subtask>> createSubtasks(Collection<Subtask> subtasks) {
+        return write(() -> delegate.createSubtasks(subtasks));
+    }
+
+    @Override
+    public CompletableFuture<List<Subtask>> getAllSubtasks() {
+        return CompletableFuture.completedFuture(published.getAllSubtasks());
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAllSubtasks() {
+        return write(delegate::deleteAllSubtasks);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Subtask>> getSubtaskById(int id) {
+        Optional<Subtask> subtask = published.getSubtaskById(id);
+        subtask.ifPresent(found -> record(() -> delegate.getSubtaskById(id)));
+        return CompletableFuture.completedFuture(subtask);
+    }
+
+    @Override
+    public CompletableFuture<Void> updateSubtask(Subtask subtask) {
+        return write(() -> delegate.updateSubtask(subtask));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteSubtaskById(int id) {
+        return write(() -> delegate.deleteSubtaskById(id));
+    }
+
+    @Override
+    public CompletableFuture<Epic> createEpic(Epic epic) {
+        return write(() -> delegate.createEpic(epic));
+    }
+
+    @Override
+    public CompletableFuture<List<Epic>> getAllEpics() {
+        return CompletableFuture.completedFuture(published.getAllEpics());
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteAllEpics() {
+        return write(delegate::deleteAllEpics);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Epic>> getEpicById(int id) {
+        Optional<Epic> epic = published.getEpicById(id);
+        epic.ifPresent(found -> record(() -> delegate.getEpicById(id)));
+        return CompletableFuture.completedFuture(epic);
+    }
+
+    @Override
+    public CompletableFuture<Void> updateEpic(Epic epic) {
+        return write(() -> delegate.updateEpic(epic));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteEpicById(int id) {
+        return write(() -> delegate.deleteEpicById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Subtask>> getSubtasksByEpicId(int epicId) {
+        return CompletableFuture.completedFuture(published.getSubtasksByEpicId(epicId));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getHistory() {
+        return query(delegate::getHistory);
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getHistory(int offset, int limit) {
+        return query(() -> delegate.getHistory(offset, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getRecentHistory(int n) {
+        return query(() -> delegate.getRecentHistory(n));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getPrioritizedTasks() {
+        return CompletableFuture.completedFuture(published.getPrioritizedTasks());
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return query(() -> delegate.getPrioritizedTasks(from, to, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> findOverlapping(LocalDateTime start, LocalDateTime end) {
+        return query(() -> delegate.findOverlapping(start, end));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> find(TaskQuery query) {
+        return query(() -> delegate.find(query));
+    }
+
+    @Override
+    public CompletableFuture<Void> batch(Consumer<TaskManager> changes) {
+        return write(() -> delegate.batch(changes));
+    }
+
+    @Override
+    public TaskSnapshot snapshot() {
+        return published;
+    }
+
+    @Override
+    public CompletableFuture<Void> flush() {
+        return submit(() -> {
+            if (delegate instanceof FileBackedTaskManager fileBacked) {
+                return fileBacked.flushAsync();
+            }
+            if (delegate instanceof OffHeapTaskManager offHeap) {
+                offHeap.flush();
+            }
+            return CompletableFuture.<Void>completedFuture(null);
+        }).thenCompose(flushed -> flushed);
+    }
+
+    // Менеджер, переданный в конструктор, не закрывается: им владеет вызывающий код
+    @Override
+    public void close() {
+        writer.close();
+    }
+
+    private CompletableFuture<Void> write(Runnable command) {
+        return write(() -> {
+            command.run();
+            return null;
+        });
+    }
+
+    // Срез публикуется и после ошибки: операция могла успеть изменить часть состояния
+    private <T> CompletableFuture<T> write(Supplier<T> command) {
+        return submit(() -> {
+            try {
+                return command.get();
+            } finally {
+                published = delegate.snapshot();
+            }
+        });
+    }
+
+    // Результат собирается в потоке-писателе из живых задач менеджера, поэтому наружу
+    // уходят их копии.
+    private CompletableFuture<List<Task>> query(Supplier<List<Task>> query) {
+        return submit(() -> {
+            List<Task> result = query.get();
+            List<Task> copies = new ArrayList<>(result.size());
+            result.forEach(task -> copies.add(copyOf(task)));
+            return copies;
+        });
+    }
+
+    // Просмотр для истории: задача уже выдана по срезу, дожидаться записи не нужно
+    private void record(Runnable view) {
+        submit(() -> {
+            view.run();
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> command) {
+        try {
+            return CompletableFuture.supplyAsync(command, writer);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Менеджер закрыт."));
+        }
+    }
+
+    private Task copyOf(Task task) {
+        Task copy = TaskRestorer.copy(task);
+        if (task instanceof Epic epic) {
+            epic.getSubtaskIds().forEach(((Epic) copy)::addSubtaskId);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,40 @@
+package manager;
+
+import tasks.Task;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+// Формат файла снимка FileBackedTaskManager. encode вызывается под блокировкой менеджера
+// и должен только сериализовать задачи в память; на диск буфер пишет сам менеджер.
+public interface SnapshotCodec {
+
+    ByteBuffer encode(Collection<? extends Task> tasks);
+
+    void decode(ByteBuffer buffer, Consumer<Task> consumer);
+
+    // Разбирает снимок на потоках pool и возвращает задачи в порядке следования в файле.
+    // Форматы, которые нельзя разрезать по границам записей, разбираются последовательно.
+    default List<Task> decodeParallel(ByteBuffer buffer, ForkJoinPool pool) {
+        List<Task> decoded = new ArrayList<>();
+        decode(buffer, decoded::add);
+        return decoded;
+    }
+
+    static SnapshotCodec csv() {
+        return CsvSnapshotCodec.INSTANCE;
+    }
+
+    static SnapshotCodec binary() {
+        return BinarySnapshotCodec.INSTANCE;
+    }
+
+    // Определяет формат по сигнатуре в начале файла; позиция буфера не меняется.
+    static SnapshotCodec detect(ByteBuffer buffer) {
+        return BinarySnapshotCodec.hasSignature(buffer) ? binary() : csv();
+    }
+}
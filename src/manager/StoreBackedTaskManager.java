@@ -0,0 +1,716 @@
+package manager;
+
+import exceptions.ManagerOverlapException;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+import utils.IntHashSet;
+import utils.IntObjectHashMap;
+import utils.SortedLongIntMap;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+import static manager.TaskStore.NO_DURATION;
+import static manager.TaskStore.NO_START;
+
+// TaskManager поверх TaskStore. Менеджер не держит объектов Task: расписание, подзадачи
+// эпиков и их показатели хранятся в примитивных структурах, а задачи собираются из
+// хранилища только при выдаче наружу. Возвращаемые задачи - копии, изменения в них
+// попадают в хранилище только через update. Время хранится с точностью до минуты.
+public abstract class StoreBackedTaskManager implements TaskManager, TaskSource, Instrumentable {
+
+    private static final int NO_ID = -1;
+
+    // Показатели подзадач эпика. Старые значения полей подзадачи для вычитания берутся
+    // из хранилища до перезаписи, поэтому копия вклада, как в EpicAggregate, не нужна.
+    // Запланированные подзадачи не пересекаются, поэтому самая поздняя из них по началу
+    // заканчивается позже всех, и для окончания эпика достаточно упорядоченных начал.
+    private static final class EpicState {
+        private final IntHashSet subtaskIds = new IntHashSet();
+        private final int[] statusCounts = new int[Status.values().length];
+        private final SortedLongIntMap starts = new SortedLongIntMap();
+        private long totalMinutes;
+    }
+
+    private final TaskStore store;
+    private final HistoryManager historyManager;
+    private final SortedLongIntMap schedule = new SortedLongIntMap();
+    private final IntObjectHashMap<EpicState> epicStates = new IntObjectHashMap<>();
+    private int nextId;
+    private IntConsumer overlapScanListener = NO_SCAN_LISTENER;
+    // Число изменений хранилища, версия среза
+    private long modCount;
+    // Прежние записи, измененные внутри batch(), по id; пустой Optional - записи не было.
+    // Вне пакета null.
+    private IntObjectHashMap<Optional<Task>> undoLog;
+
+    StoreBackedTaskManager(TaskStore store, HistoryManager historyManager) {
+        this.store = store;
+        this.historyManager = historyManager;
+    }
+
+    // Восстанавливает расписание, показатели эпиков и счетчик id по уже заполненному
+    // хранилищу, например по файлу, открытому повторно.
+    void restoreFromStore() {
+        schedule.clear();
+        epicStates.clear();
+        int[] maxId = {0};
+        store.forEachId(TaskType.EPIC, id -> {
+            epicStates.put(id, new EpicState());
+            maxId[0] = Math.max(maxId[0], id);
+            return true;
+        });
+        store.forEachId(TaskType.TASK, id -> {
+            schedule(id);
+            maxId[0] = Math.max(maxId[0], id);
+            return true;
+        });
+        store.forEachId(TaskType.SUBTASK, id -> {
+            schedule(id);
+            EpicState state = epicStates.get(store.epicId(id));
+            if (state != null) {
+                state.subtaskIds.add(id);
+                addContribution(state, id);
+            }
+            maxId[0] = Math.max(maxId[0], id);
+            return true;
+        });
+        nextId = Math.max(nextId, maxId[0]);
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        long start = TaskStore.toMinute(task.getStartTime());
+        int duration = TaskStore.toMinutes(task.getDuration());
+        if (hasOverlap(NO_ID, start, duration)) {
+            throw new ManagerOverlapException("Невозможно создать задачу, так как она пересекается с другой задачей.");
+        }
+        task.setId(++nextId);
+        write(task);
+        schedule(task.getId());
+        return task;
+    }
+
+    @Override
+    public List<Task> createTasks(Collection<Task> tasks) {
+        checkBatchOverlap(tasks);
+        List<Task> created = new ArrayList<>(tasks);
+        for (Task task : created) {
+            task.setId(++nextId);
+            write(task);
+            schedule(task.getId());
+        }
+        return created;
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return views(TaskType.TASK);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        for (int id : ids(TaskType.TASK)) {
+            deleteTaskById(id);
+        }
+    }
+
+    @Override
+    public Optional<Task> getTaskById(int id) {
+        return Optional.ofNullable(viewAndRecord(id, TaskType.TASK));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        int id = task.getId();
+        if (store.type(id) != TaskType.TASK) {
+            return;
+        }
+        checkUpdateOverlap(task);
+        unschedule(id);
+        write(task);
+        schedule(id);
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        if (store.type(id) == TaskType.TASK) {
+            unschedule(id);
+            erase(id);
+        }
+        historyManager.remove(id);
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        EpicState state = epicStates.get(subtask.getEpicId());
+        if (state == null) {
+            throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не найден.");
+        }
+        long start = TaskStore.toMinute(subtask.getStartTime());
+        int duration = TaskStore.toMinutes(subtask.getDuration());
+        if (hasOverlap(NO_ID, start, duration)) {
+            throw new ManagerOverlapException("Невозможно создать подзадачу, так как она пересекается с другой задачей.");
+        }
+        int id = ++nextId;
+        subtask.setId(id);
+        write(subtask);
+        schedule(id);
+        state.subtaskIds.add(id);
+        addContribution(state, id);
+        applyEpic(subtask.getEpicId(), state);
+        return subtask;
+    }
+
+    @Override
+    public List<Subtask> createSubtasks(Collection<Subtask> subtasks) {
+        for (Subtask subtask : subtasks) {
+            if (!epicStates.containsKey(subtask.getEpicId())) {
+                throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не найден.");
+            }
+        }
+        checkBatchOverlap(subtasks);
+        List<Subtask> created = new ArrayList<>(subtasks);
+        IntHashSet affectedEpics = new IntHashSet();
+        for (Subtask subtask : created) {
+            int id = ++nextId;
+            subtask.setId(id);
+            write(subtask);
+            schedule(id);
+            EpicState state = epicStates.get(subtask.getEpicId());
+            state.subtaskIds.add(id);
+            addContribution(state, id);
+            affectedEpics.add(subtask.getEpicId());
+        }
+        affectedEpics.forEach(epicId -> applyEpic(epicId, epicStates.get(epicId)));
+        return created;
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int id : ids(TaskType.SUBTASK)) {
+            subtasks.add((Subtask) view(id));
+        }
+        return subtasks;
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        for (int epicId : epicStates.keys()) {
+            EpicState state = epicStates.get(epicId);
+            state.subtaskIds.forEach(this::dropSubtask);
+            EpicState cleared = new EpicState();
+            epicStates.put(epicId, cleared);
+            applyEpic(epicId, cleared);
+        }
+    }
+
+    @Override
+    public Optional<Subtask> getSubtaskById(int id) {
+        return Optional.ofNullable((Subtask) viewAndRecord(id, TaskType.SUBTASK));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        int id = subtask.getId();
+        if (store.type(id) != TaskType.SUBTASK) {
+            return;
+        }
+        int oldEpicId = store.epicId(id);
+        EpicState oldState = epicStates.get(oldEpicId);
+        EpicState newState = epicStates.get(subtask.getEpicId());
+        if (newState == null) {
+            throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не найден.");
+        }
+        checkUpdateOverlap(subtask);
+
+        removeContribution(oldState, id);
+        unschedule(id);
+        write(subtask);
+        schedule(id);
+        if (oldState != newState) {
+            oldState.subtaskIds.remove(id);
+            newState.subtaskIds.add(id);
+            applyEpic(oldEpicId, oldState);
+        }
+        addContribution(newState, id);
+        applyEpic(subtask.getEpicId(), newState);
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        if (store.type(id) == TaskType.SUBTASK) {
+            int epicId = store.epicId(id);
+            EpicState state = epicStates.get(epicId);
+            removeContribution(state, id);
+            state.subtaskIds.remove(id);
+            dropSubtask(id);
+            applyEpic(epicId, state);
+        }
+        historyManager.remove(id);
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        epic.setId(++nextId);
+        write(epic);
+        epicStates.put(epic.getId(), new EpicState());
+        return epic;
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        List<Epic> epics = new ArrayList<>(epicStates.size());
+        for (int id : ids(TaskType.EPIC)) {
+            epics.add((Epic) view(id));
+        }
+        return epics;
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        for (int id : epicStates.keys()) {
+            deleteEpicById(id);
+        }
+    }
+
+    @Override
+    public Optional<Epic> getEpicById(int id) {
+        return Optional.ofNullable((Epic) viewAndRecord(id, TaskType.EPIC));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        if (store.type(epic.getId()) != TaskType.EPIC) {
+            return;
+        }
+        Task savedEpic = store.get(epic.getId());
+        savedEpic.setName(epic.getName());
+        savedEpic.setDescription(epic.getDescription());
+        write(savedEpic);
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        EpicState state = epicStates.remove(id);
+        if (state != null) {
+            state.subtaskIds.forEach(this::dropSubtask);
+            erase(id);
+        }
+        historyManager.remove(id);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        EpicState state = epicStates.get(epicId);
+        if (state == null) {
+            return new ArrayList<>();
+        }
+        int[] subtaskIds = state.subtaskIds.toSortedArray();
+        List<Subtask> subtasks = new ArrayList<>(subtaskIds.length);
+        for (int subtaskId : subtaskIds) {
+            subtasks.add((Subtask) store.get(subtaskId));
+        }
+        return subtasks;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        return historyManager.getHistory(offset, limit);
+    }
+
+    @Override
+    public List<Task> getRecentHistory(int n) {
+        return historyManager.getRecentHistory(n);
+    }
+
+    @Override
+    public Stream<Task> streamHistory() {
+        return historyManager.streamHistory();
+    }
+
+    // Не кэшируется: задачи выдаются изменяемыми копиями, и общий список отдал бы
+    // изменения одного вызывающего остальным. Для частого чтения - постраничная версия.
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        List<Task> prioritized = new ArrayList<>(schedule.size());
+        schedule.ascend(Long.MIN_VALUE, Long.MAX_VALUE, (start, id) -> prioritized.add(store.get(id)));
+        return prioritized;
+    }
+
+    // Окно переводится в минуты так же, как в find
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Размер страницы не может быть отрицательным.");
+        }
+        List<Task> page = new ArrayList<>();
+        if (limit == 0) {
+            return page;
+        }
+        long fromMinute = from == null ? Long.MIN_VALUE + 1 : ceilMinute(from);
+        long toMinute = to == null ? Long.MAX_VALUE : ceilMinute(to);
+        schedule.ascend(fromMinute, toMinute, (start, id) -> {
+            page.add(store.get(id));
+            return page.size() < limit;
+        });
+        return page;
+    }
+
+    @Override
+    public List<Task> findOverlapping(LocalDateTime start, LocalDateTime end) {
+        List<Task> overlapping = new ArrayList<>();
+        if (start == null || end == null) {
+            return overlapping;
+        }
+        long from = TaskStore.toMinute(start);
+        schedule.descend(ceilMinute(end), (candidateStart, id) -> {
+            if (endMinute(id) <= from) {
+                return false;
+            }
+            overlapping.add(store.get(id));
+            return true;
+        });
+        Collections.reverse(overlapping);
+        return overlapping;
+    }
+
+    // Тип и статус проверяются по колонкам хранилища, задача собирается только для
+    // прошедших проверку записей. Окно по времени обходит расписание и эпики по началу.
+    @Override
+    public List<Task> find(TaskQuery query) {
+        List<Task> result = new ArrayList<>();
+        if (query.getLimit() == 0) {
+            return result;
+        }
+        if (!query.hasStartWindow()) {
+            for (TaskType type : query.getTypes()) {
+                boolean completed = store.forEachId(type, id ->
+                        !query.matchesIndexed(type, store.status(id)) || offer(id, query, result));
+                if (!completed) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        long from = query.getStartFrom() == null ? Long.MIN_VALUE + 1 : ceilMinute(query.getStartFrom());
+        long to = query.getStartTo() == null ? Long.MAX_VALUE : ceilMinute(query.getStartTo());
+        // Эпиков в расписании нет, их немного - отбираются перебором и сливаются с расписанием
+        List<Integer> epicsInWindow = new ArrayList<>();
+        if (query.getTypes().contains(TaskType.EPIC)) {
+            epicStates.forEachKey(epicId -> {
+                long epicStart = store.startMinute(epicId);
+                if (epicStart != NO_START && epicStart >= from && epicStart < to
+                        && query.matchesIndexed(TaskType.EPIC, store.status(epicId))) {
+                    epicsInWindow.add(epicId);
+                }
+            });
+            epicsInWindow.sort(Comparator.comparingLong(store::startMinute));
+        }
+        int[] nextEpic = {0};
+        boolean completed = schedule.ascend(from, to, (start, id) -> {
+            while (nextEpic[0] < epicsInWindow.size() && store.startMinute(epicsInWindow.get(nextEpic[0])) <= start) {
+                if (!offer(epicsInWindow.get(nextEpic[0]++), query, result)) {
+                    return false;
+                }
+            }
+            return !query.matchesIndexed(store.type(id), store.status(id)) || offer(id, query, result);
+        });
+        while (completed && nextEpic[0] < epicsInWindow.size()) {
+            completed = offer(epicsInWindow.get(nextEpic[0]++), query, result);
+        }
+        return result;
+    }
+
+    // Хранилище не держит объектов Task, поэтому срез собирается копированием всех записей
+    // за O(n) при каждом вызове и не запоминается: держать копию доски в куче, как
+    // InMemoryTaskManager, значило бы отказаться от компактного хранилища. Для обхода всей
+    // доски, например выгрузки, срез не нужен - forEach* читают хранилище напрямую.
+    @Override
+    public TaskSnapshot snapshot() {
+        TaskSnapshot built = TaskSnapshot.empty();
+        for (TaskType type : TaskType.values()) {
+            built = built.update(store::get, ids(type));
+        }
+        return built.withVersion(modCount);
+    }
+
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        forEachView(TaskType.TASK, action::accept);
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        forEachView(TaskType.SUBTASK, task -> action.accept((Subtask) task));
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        forEachView(TaskType.EPIC, task -> action.accept((Epic) task));
+    }
+
+    // Откат идет по журналу прежних записей, а не по срезу: срез store-менеджера
+    // собирается за O(n), а журнал растет только с числом измененных записей.
+    @Override
+    public void batch(Consumer<TaskManager> changes) {
+        IntObjectHashMap<Optional<Task>> outerLog = undoLog;
+        IntObjectHashMap<Optional<Task>> log = new IntObjectHashMap<>();
+        undoLog = log;
+        try {
+            changes.accept(this);
+        } catch (RuntimeException | Error e) {
+            undoLog = null;
+            log.forEachKey(id -> {
+                if (store.contains(id)) {
+                    erase(id);
+                }
+            });
+            log.values().forEach(before -> before.ifPresent(this::write));
+            restoreFromStore();
+            undoLog = outerLog;
+            throw e;
+        }
+        undoLog = outerLog;
+        if (outerLog != null) {
+            log.forEachKey(id -> {
+                if (!outerLog.containsKey(id)) {
+                    outerLog.put(id, log.get(id));
+                }
+            });
+        }
+    }
+
+    private void remember(int id) {
+        if (undoLog != null && !undoLog.containsKey(id)) {
+            undoLog.put(id, Optional.ofNullable(store.get(id)));
+        }
+    }
+
+    private void write(Task task) {
+        remember(task.getId());
+        store.put(task);
+        modCount++;
+    }
+
+    private void erase(int id) {
+        remember(id);
+        store.remove(id);
+        modCount++;
+    }
+
+    // Возвращает false, когда набран лимит
+    private boolean offer(int id, TaskQuery query, List<Task> result) {
+        Task task = view(id);
+        if (query.matches(task)) {
+            result.add(task);
+        }
+        return result.size() < query.getLimit();
+    }
+
+    // Срез хранилища собирается за O(n), поэтому задача читается из него напрямую
+    @Override
+    public Optional<Task> findById(int id) {
+        return Optional.ofNullable(store.type(id) == null ? null : view(id));
+    }
+
+    private Task view(int id) {
+        Task task = store.get(id);
+        if (task instanceof Epic epic) {
+            EpicState state = epicStates.get(id);
+            if (state != null) {
+                state.subtaskIds.forEach(epic::addSubtaskId);
+            }
+        }
+        return task;
+    }
+
+    private Task viewAndRecord(int id, TaskType type) {
+        if (store.type(id) != type) {
+            return null;
+        }
+        Task task = view(id);
+        historyManager.add(task);
+        return task;
+    }
+
+    private List<Task> views(TaskType type) {
+        List<Task> views = new ArrayList<>();
+        store.forEachId(type, id -> views.add(view(id)));
+        return views;
+    }
+
+    private void forEachView(TaskType type, Consumer<Task> action) {
+        store.forEachId(type, id -> {
+            action.accept(view(id));
+            return true;
+        });
+    }
+
+    private int[] ids(TaskType type) {
+        IntHashSet ids = new IntHashSet();
+        store.forEachId(type, ids::add);
+        return ids.toArray();
+    }
+
+    private void dropSubtask(int id) {
+        unschedule(id);
+        erase(id);
+        historyManager.remove(id);
+    }
+
+    private void addContribution(EpicState state, int subtaskId) {
+        state.statusCounts[store.status(subtaskId).ordinal()]++;
+        int duration = store.durationMinutes(subtaskId);
+        if (duration != NO_DURATION) {
+            state.totalMinutes += duration;
+        }
+        long start = store.startMinute(subtaskId);
+        if (start != NO_START) {
+            state.starts.put(start, subtaskId);
+        }
+    }
+
+    private void removeContribution(EpicState state, int subtaskId) {
+        state.statusCounts[store.status(subtaskId).ordinal()]--;
+        int duration = store.durationMinutes(subtaskId);
+        if (duration != NO_DURATION) {
+            state.totalMinutes -= duration;
+        }
+        long start = store.startMinute(subtaskId);
+        if (start != NO_START && state.starts.get(start, NO_ID) == subtaskId) {
+            state.starts.remove(start);
+        }
+    }
+
+    private void applyEpic(int epicId, EpicState state) {
+        remember(epicId);
+        int size = state.subtaskIds.size();
+        Status status;
+        if (size == 0 || state.statusCounts[Status.NEW.ordinal()] == size) {
+            status = Status.NEW;
+        } else if (state.statusCounts[Status.DONE.ordinal()] == size) {
+            status = Status.DONE;
+        } else {
+            status = Status.IN_PROGRESS;
+        }
+        if (size == 0) {
+            store.setEpicEstimates(epicId, status, NO_START, NO_DURATION, NO_START);
+            return;
+        }
+        long start = NO_START;
+        long end = NO_START;
+        if (!state.starts.isEmpty()) {
+            start = state.starts.firstKey();
+            long lastStart = state.starts.lastKey();
+            end = endMinute(state.starts.get(lastStart, NO_ID));
+        }
+        store.setEpicEstimates(epicId, status, start, Math.toIntExact(state.totalMinutes), end);
+    }
+
+    // Задачи пакета сравниваются с соседями по началу, а с расписанием - по одному
+    // поиску на задачу.
+    private void checkBatchOverlap(Collection<? extends Task> batch) {
+        long[] intervals = new long[batch.size() * 2];
+        int count = 0;
+        for (Task task : batch) {
+            long start = TaskStore.toMinute(task.getStartTime());
+            int duration = TaskStore.toMinutes(task.getDuration());
+            if (hasOverlap(NO_ID, start, duration)) {
+                throw new ManagerOverlapException("Невозможно создать задачи, так как они пересекаются с другими задачами.");
+            }
+            if (start != NO_START) {
+                intervals[count * 2] = start;
+                intervals[count * 2 + 1] = start + Math.max(duration, 0);
+                count++;
+            }
+        }
+        Integer[] order = new Integer[count];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparingLong(i -> intervals[i * 2]));
+        for (int i = 1; i < count; i++) {
+            long previousStart = intervals[order[i - 1] * 2];
+            long previousEnd = intervals[order[i - 1] * 2 + 1];
+            long start = intervals[order[i] * 2];
+            if (previousStart == start || previousEnd > start) {
+                throw new ManagerOverlapException("Невозможно создать задачи, так как они пересекаются между собой.");
+            }
+        }
+    }
+
+    private void checkUpdateOverlap(Task task) {
+        if (hasOverlap(task.getId(), TaskStore.toMinute(task.getStartTime()), TaskStore.toMinutes(task.getDuration()))) {
+            throw new ManagerOverlapException("Невозможно обновить задачу, так как она будет пересекаться с другой задачей.");
+        }
+    }
+
+    private boolean hasOverlap(int id, long start, int duration) {
+        if (start == NO_START) {
+            return false;
+        }
+        int sameStart = schedule.get(start, NO_ID);
+        if (sameStart != NO_ID && sameStart != id) {
+            overlapScanListener.accept(0);
+            return true;
+        }
+        long end = start + Math.max(duration, 0);
+        int scanned = 0;
+        long candidate = schedule.lowerKey(end);
+        if (candidate != SortedLongIntMap.NO_KEY && schedule.get(candidate, NO_ID) == id) {
+            scanned++;
+            candidate = schedule.lowerKey(candidate);
+        }
+        if (candidate == SortedLongIntMap.NO_KEY) {
+            overlapScanListener.accept(scanned);
+            return false;
+        }
+        overlapScanListener.accept(scanned + 1);
+        return endMinute(schedule.get(candidate, NO_ID)) > start;
+    }
+
+    @Override
+    public void setOverlapScanListener(IntConsumer listener) {
+        overlapScanListener = listener == null ? NO_SCAN_LISTENER : listener;
+    }
+
+    private long endMinute(int id) {
+        return store.startMinute(id) + Math.max(store.durationMinutes(id), 0);
+    }
+
+    private void schedule(int id) {
+        long start = store.startMinute(id);
+        if (start != NO_START) {
+            schedule.put(start, id);
+        }
+    }
+
+    private void unschedule(int id) {
+        long start = store.startMinute(id);
+        if (start != NO_START && schedule.get(start, NO_ID) == id) {
+            schedule.remove(start);
+        }
+    }
+
+    private static long ceilMinute(LocalDateTime dateTime) {
+        long minute = TaskStore.toMinute(dateTime);
+        return dateTime.getSecond() == 0 && dateTime.getNano() == 0 ? minute : minute + 1;
+    }
+}
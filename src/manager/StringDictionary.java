@@ -0,0 +1,66 @@
+package manager;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+// Словарь строк для колоночного хранилища: одинаковые строки хранятся один раз, в
+// колонках лежат их коды. Коды освободившихся строк переиспользуются.
+final class StringDictionary {
+
+    static final int NULL_CODE = -1;
+
+    private final HashMap<String, Integer> codes = new HashMap<>();
+    private String[] strings = new String[16];
+    private int[] referenceCounts = new int[16];
+    private int[] freeCodes = new int[16];
+    private int freeCount;
+    private int nextCode;
+
+    int acquire(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            referenceCounts[existing]++;
+            return existing;
+        }
+        int code;
+        if (freeCount > 0) {
+            code = freeCodes[--freeCount];
+        } else {
+            code = nextCode++;
+            if (code == strings.length) {
+                strings = Arrays.copyOf(strings, code * 2);
+                referenceCounts = Arrays.copyOf(referenceCounts, code * 2);
+            }
+        }
+        strings[code] = value;
+        referenceCounts[code] = 1;
+        codes.put(value, code);
+        return code;
+    }
+
+    void release(int code) {
+        if (code == NULL_CODE || --referenceCounts[code] > 0) {
+            return;
+        }
+        codes.remove(strings[code]);
+        strings[code] = null;
+        if (freeCount == freeCodes.length) {
+            freeCodes = Arrays.copyOf(freeCodes, freeCount * 2);
+        }
+        freeCodes[freeCount++] = code;
+    }
+
+    String get(int code) {
+        return code == NULL_CODE ? null : strings[code];
+    }
+
+    void clear() {
+        codes.clear();
+        Arrays.fill(strings, null);
+        freeCount = 0;
+        nextCode = 0;
+    }
+}
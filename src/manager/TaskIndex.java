@@ -0,0 +1,126 @@
+package manager;
+
+import tasks.Status;
+import tasks.Task;
+import utils.IntHashSet;
+import utils.IntObjectHashMap;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+// Вторичные индексы по типу, статусу и времени начала. Значения запоминаются на момент
+// индексации, поэтому менеджер переиндексирует задачу при каждом ее изменении.
+final class TaskIndex {
+
+    private record Entry(TaskType type, Status status, LocalDateTime startTime) {
+    }
+
+    private final IntObjectHashMap<Entry> entries = new IntObjectHashMap<>();
+    private final EnumMap<TaskType, EnumMap<Status, IntHashSet>> byTypeAndStatus = new EnumMap<>(TaskType.class);
+    private final TreeMap<LocalDateTime, IntHashSet> byStartTime = new TreeMap<>();
+
+    TaskIndex() {
+        for (TaskType type : TaskType.values()) {
+            EnumMap<Status, IntHashSet> byStatus = new EnumMap<>(Status.class);
+            for (Status status : Status.values()) {
+                byStatus.put(status, new IntHashSet());
+            }
+            byTypeAndStatus.put(type, byStatus);
+        }
+    }
+
+    void index(Task task) {
+        Entry entry = new Entry(task.getType(), task.getStatus(), task.getStartTime());
+        Entry previous = entries.put(task.getId(), entry);
+        if (entry.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            unlink(task.getId(), previous);
+        }
+        byTypeAndStatus.get(entry.type()).get(entry.status()).add(task.getId());
+        if (entry.startTime() != null) {
+            byStartTime.computeIfAbsent(entry.startTime(), key -> new IntHashSet()).add(task.getId());
+        }
+    }
+
+    void unindex(int id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            unlink(id, entry);
+        }
+    }
+
+    void clear() {
+        entries.clear();
+        byTypeAndStatus.values().forEach(byStatus -> byStatus.values().forEach(IntHashSet::clear));
+        byStartTime.clear();
+    }
+
+    // С окном по времени задачи перебираются по возрастанию начала, иначе - по спискам
+    // индекса тип/статус. В обоих случаях перебираются только кандидаты, а не все задачи.
+    List<Task> find(TaskQuery query, IntFunction<? extends Task> resolver) {
+        List<Task> result = new ArrayList<>();
+        if (query.getLimit() == 0) {
+            return result;
+        }
+        if (query.hasStartWindow()) {
+            for (IntHashSet ids : window(query).values()) {
+                boolean completed = ids.forEachWhile(id -> {
+                    Entry entry = entries.get(id);
+                    return !query.matchesIndexed(entry.type(), entry.status()) || !collect(id, query, resolver, result);
+                });
+                if (!completed) {
+                    return result;
+                }
+            }
+            return result;
+        }
+        for (TaskType type : query.getTypes()) {
+            for (Status status : query.getStatuses()) {
+                if (!byTypeAndStatus.get(type).get(status).forEachWhile(id -> !collect(id, query, resolver, result))) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private NavigableMap<LocalDateTime, IntHashSet> window(TaskQuery query) {
+        NavigableMap<LocalDateTime, IntHashSet> window = byStartTime;
+        if (query.getStartFrom() != null) {
+            window = window.tailMap(query.getStartFrom(), true);
+        }
+        if (query.getStartTo() != null) {
+            window = window.headMap(query.getStartTo(), false);
+        }
+        return window;
+    }
+
+    // Возвращает true, когда набран лимит
+    private static boolean collect(int id, TaskQuery query, IntFunction<? extends Task> resolver,
+                                   Collection<Task> result) {
+        Task task = resolver.apply(id);
+        if (task != null && query.matches(task)) {
+            result.add(task);
+        }
+        return result.size() >= query.getLimit();
+    }
+
+    private void unlink(int id, Entry entry) {
+        byTypeAndStatus.get(entry.type()).get(entry.status()).remove(id);
+        if (entry.startTime() != null) {
+            IntHashSet ids = byStartTime.get(entry.startTime());
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                byStartTime.remove(entry.startTime());
+            }
+        }
+    }
+}
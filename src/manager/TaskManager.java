@@ -4,8 +4,12 @@ import tasks.Epic;
 import tasks.Subtask;
 import tasks.Task;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface TaskManager {
     // Методы для работы с задачами
@@ -21,9 +25,15 @@ public interface TaskManager {
 
     void deleteTaskById(int id);
 
+    // Все или ничего: при пересечении с расписанием или внутри пакета не создается ни одна
+    List<Task> createTasks(Collection<Task> tasks);
+
     // Методы для работы с подзадачами
     Subtask createSubtask(Subtask subtask);
 
+    // Все или ничего; каждый затронутый эпик пересчитывается один раз
+    List<Subtask> createSubtasks(Collection<Subtask> subtasks);
+
     List<Subtask> getAllSubtasks();
 
     void deleteAllSubtasks();
@@ -51,5 +61,32 @@ public interface TaskManager {
 
     List<Task> getHistory();
 
+    List<Task> getHistory(int offset, int limit);
+
+    List<Task> getRecentHistory(int n);
+
+    Stream<Task> streamHistory();
+
     List<Task> getPrioritizedTasks();
+
+    // До limit задач по возрастанию начала, начало в [from, to); null - без границы.
+    // Следующая страница - from сразу после начала последней полученной задачи.
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit);
+
+    List<Task> findOverlapping(LocalDateTime start, LocalDateTime end);
+
+    List<Task> find(TaskQuery query);
+
+    // Неизменяемый согласованный срез доски на момент вызова
+    TaskSnapshot snapshot();
+
+    // Задача любого типа по id без отметки в истории просмотров, например для проверки
+    // наличия перед обновлением
+    default Optional<Task> findById(int id) {
+        return Optional.ofNullable(snapshot().copy(id));
+    }
+
+    // Выполняет changes над этим менеджером как одно изменение: если changes бросает
+    // исключение, доска возвращается к состоянию до вызова, а исключение пробрасывается.
+    void batch(Consumer<TaskManager> changes);
 }
@@ -0,0 +1,104 @@
+package manager;
+
+import tasks.Status;
+import tasks.Task;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+// Условия выборки для TaskManager.find. Объект неизменяемый: каждый метод возвращает
+// новый запрос. Тип, статус и окно по времени начала отбираются по индексам менеджера,
+// произвольный предикат проверяется уже для отобранных задач.
+public final class TaskQuery {
+
+    private static final TaskQuery ALL = new TaskQuery(EnumSet.allOf(TaskType.class), EnumSet.allOf(Status.class),
+            null, null, false, Integer.MAX_VALUE, task -> true);
+
+    private final EnumSet<TaskType> types;
+    private final EnumSet<Status> statuses;
+    private final LocalDateTime startFrom;
+    private final LocalDateTime startTo;
+    private final boolean startWindow;
+    private final int limit;
+    private final Predicate<? super Task> predicate;
+
+    private TaskQuery(EnumSet<TaskType> types, EnumSet<Status> statuses, LocalDateTime startFrom,
+                      LocalDateTime startTo, boolean startWindow, int limit, Predicate<? super Task> predicate) {
+        this.types = types;
+        this.statuses = statuses;
+        this.startFrom = startFrom;
+        this.startTo = startTo;
+        this.startWindow = startWindow;
+        this.limit = limit;
+        this.predicate = predicate;
+    }
+
+    public static TaskQuery all() {
+        return ALL;
+    }
+
+    public TaskQuery withType(TaskType type, TaskType... others) {
+        return new TaskQuery(EnumSet.of(type, others), statuses, startFrom, startTo, startWindow, limit, predicate);
+    }
+
+    public TaskQuery withStatus(Status status, Status... others) {
+        return new TaskQuery(types, EnumSet.of(status, others), startFrom, startTo, startWindow, limit, predicate);
+    }
+
+    // Задачи, начинающиеся в полуинтервале [from, to); null означает отсутствие границы.
+    // Задачи без времени начала в такую выборку не попадают.
+    public TaskQuery startingBetween(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало интервала не может быть позже его конца.");
+        }
+        return new TaskQuery(types, statuses, from, to, true, limit, predicate);
+    }
+
+    public TaskQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Лимит не может быть отрицательным.");
+        }
+        return new TaskQuery(types, statuses, startFrom, startTo, startWindow, limit, predicate);
+    }
+
+    public TaskQuery matching(Predicate<? super Task> predicate) {
+        Objects.requireNonNull(predicate);
+        return new TaskQuery(types, statuses, startFrom, startTo, startWindow, limit,
+                this.predicate == ALL.predicate ? predicate : task -> this.predicate.test(task) && predicate.test(task));
+    }
+
+    public Set<TaskType> getTypes() {
+        return types.clone();
+    }
+
+    public Set<Status> getStatuses() {
+        return statuses.clone();
+    }
+
+    public LocalDateTime getStartFrom() {
+        return startFrom;
+    }
+
+    public LocalDateTime getStartTo() {
+        return startTo;
+    }
+
+    public boolean hasStartWindow() {
+        return startWindow;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    boolean matchesIndexed(TaskType type, Status status) {
+        return types.contains(type) && statuses.contains(status);
+    }
+
+    boolean matches(Task task) {
+        return predicate.test(task);
+    }
+}
@@ -0,0 +1,61 @@
+package manager;
+
+import exceptions.ManagerLoadException;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Собирает задачу нужного типа из полей, прочитанных кодеком снимка или журналом.
+final class TaskRestorer {
+
+    private TaskRestorer() {
+    }
+
+    static Task restore(TaskType type, int id, String name, String description, Status status, int epicId,
+                        Duration duration, LocalDateTime startTime) {
+        switch (type) {
+            case TASK:
+                return restoreTask(id, name, description, status, duration, startTime);
+            case SUBTASK:
+                return restoreSubtask(id, name, description, status, epicId, duration, startTime);
+            case EPIC:
+                return restoreEpic(id, name, description, status, duration, startTime);
+            default:
+                throw new ManagerLoadException("Неизвестный тип задачи: " + type);
+        }
+    }
+
+    // Отдельная копия задачи без списка подзадач эпика
+    static Task copy(Task task) {
+        int epicId = task instanceof Subtask subtask ? subtask.getEpicId() : 0;
+        Task copy = restore(task.getType(), task.getId(), task.getName(), task.getDescription(), task.getStatus(),
+                epicId, task.getDuration(), task.getStartTime());
+        if (task instanceof Epic epic) {
+            ((Epic) copy).setEndTime(epic.getEndTime());
+        }
+        return copy;
+    }
+
+    private static Task restoreTask(int id, String name, String description, Status status, Duration duration, LocalDateTime startTime) {
+        Task task = new Task(name, description, status, duration, startTime);
+        task.setId(id);
+        return task;
+    }
+
+    private static Subtask restoreSubtask(int id, String name, String description, Status status, int epicId, Duration duration, LocalDateTime  startTime) {
+        Subtask subtask = new Subtask(name, description, status, epicId, duration, startTime);
+        subtask.setId(id);
+        return subtask;
+    }
+
+    private static Epic restoreEpic(int id, String name, String description, Status status, Duration duration, LocalDateTime  startTime) {
+        Epic epic = new Epic(name, description, duration, startTime);
+        epic.setId(id);
+        epic.setStatus(status);
+        return epic;
+    }
+}
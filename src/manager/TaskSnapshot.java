@@ -0,0 +1,254 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+import utils.PersistentIntMap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+// Неизменяемый срез доски на момент вызова TaskManager.snapshot(). Менеджер хранит
+// текущий срез и при каждом изменении выпускает новый, копируя только пути к измененным
+// задачам в PersistentIntMap, поэтому снятие среза - чтение одной ссылки, а читатель
+// среза не мешает писателям и не видит их изменений. Задачи внутри среза - отдельные
+// копии; наружу выдаются их копии, так что изменить срез через результат нельзя.
+public final class TaskSnapshot implements TaskSource {
+
+    private static final TaskSnapshot EMPTY = new TaskSnapshot(0, PersistentIntMap.empty(),
+            PersistentIntMap.empty(), PersistentIntMap.empty(), PersistentIntMap.empty());
+
+    private final long version;
+    private final PersistentIntMap<Task> tasks;
+    private final PersistentIntMap<Subtask> subtasks;
+    private final PersistentIntMap<Epic> epics;
+    // Подзадачи по эпикам: список подзадач эпика без перебора всех подзадач
+    private final PersistentIntMap<PersistentIntMap<Subtask>> epicSubtasks;
+
+    private TaskSnapshot(long version, PersistentIntMap<Task> tasks, PersistentIntMap<Subtask> subtasks,
+                         PersistentIntMap<Epic> epics, PersistentIntMap<PersistentIntMap<Subtask>> epicSubtasks) {
+        this.version = version;
+        this.tasks = tasks;
+        this.subtasks = subtasks;
+        this.epics = epics;
+        this.epicSubtasks = epicSubtasks;
+    }
+
+    static TaskSnapshot empty() {
+        return EMPTY;
+    }
+
+    // Новый срез, в котором задачи с ids заменены текущим состоянием из lookup
+    // (null - задача удалена). Версия растет на единицу за вызов.
+    TaskSnapshot update(IntFunction<? extends Task> lookup, int... ids) {
+        PersistentIntMap<Task> newTasks = tasks;
+        PersistentIntMap<Subtask> newSubtasks = subtasks;
+        PersistentIntMap<Epic> newEpics = epics;
+        PersistentIntMap<PersistentIntMap<Subtask>> newEpicSubtasks = epicSubtasks;
+        for (int id : ids) {
+            Task current = lookup.apply(id);
+            Subtask oldSubtask = newSubtasks.get(id);
+            if (oldSubtask != null) {
+                newEpicSubtasks = withoutSubtask(newEpicSubtasks, oldSubtask);
+            }
+            newTasks = newTasks.minus(id);
+            newSubtasks = newSubtasks.minus(id);
+            if (current == null && newEpics.containsKey(id)) {
+                // Подзадачи удаленного эпика уходят вместе с ним
+                PersistentIntMap<Subtask> orphans = newEpicSubtasks.get(id);
+                if (orphans != null) {
+                    for (int subtaskId : orphans.keys()) {
+                        newSubtasks = newSubtasks.minus(subtaskId);
+                    }
+                }
+                newEpicSubtasks = newEpicSubtasks.minus(id);
+            }
+            newEpics = newEpics.minus(id);
+            if (current == null) {
+                continue;
+            }
+            Task copy = TaskRestorer.copy(current);
+            if (copy instanceof Subtask subtask) {
+                newSubtasks = newSubtasks.plus(id, subtask);
+                PersistentIntMap<Subtask> siblings = newEpicSubtasks.get(subtask.getEpicId());
+                newEpicSubtasks = newEpicSubtasks.plus(subtask.getEpicId(),
+                        (siblings == null ? PersistentIntMap.<Subtask>empty() : siblings).plus(id, subtask));
+            } else if (copy instanceof Epic epic) {
+                newEpics = newEpics.plus(id, epic);
+            } else {
+                newTasks = newTasks.plus(id, copy);
+            }
+        }
+        return new TaskSnapshot(version + 1, newTasks, newSubtasks, newEpics, newEpicSubtasks);
+    }
+
+    // Объединение срезов с непересекающимися id (шарды ShardedTaskManager): части
+    // вставляются в самую большую, O(m log n) по остальным m задачам. Версия - сумма
+    // версий частей, поэтому растет при любом изменении любой из них.
+    static TaskSnapshot merge(TaskSnapshot... parts) {
+        TaskSnapshot largest = parts[0];
+        long version = 0;
+        for (TaskSnapshot part : parts) {
+            version += part.version;
+            if (part.size() > largest.size()) {
+                largest = part;
+            }
+        }
+        PersistentIntMap<Task> tasks = largest.tasks;
+        PersistentIntMap<Subtask> subtasks = largest.subtasks;
+        PersistentIntMap<Epic> epics = largest.epics;
+        PersistentIntMap<PersistentIntMap<Subtask>> epicSubtasks = largest.epicSubtasks;
+        for (TaskSnapshot part : parts) {
+            if (part != largest) {
+                tasks = plusAll(tasks, part.tasks);
+                subtasks = plusAll(subtasks, part.subtasks);
+                epics = plusAll(epics, part.epics);
+                epicSubtasks = plusAll(epicSubtasks, part.epicSubtasks);
+            }
+        }
+        return new TaskSnapshot(version, tasks, subtasks, epics, epicSubtasks);
+    }
+
+    private static <V> PersistentIntMap<V> plusAll(PersistentIntMap<V> target, PersistentIntMap<V> source) {
+        for (int key : source.keys()) {
+            target = target.plus(key, source.get(key));
+        }
+        return target;
+    }
+
+    TaskSnapshot withVersion(long version) {
+        return new TaskSnapshot(version, tasks, subtasks, epics, epicSubtasks);
+    }
+
+    // Задача любого типа без копирования - для сравнения двух срезов внутри пакета
+    Task peek(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        return task != null ? task : epics.get(id);
+    }
+
+    // Копия задачи любого типа в том виде, в каком ее выдают публичные методы
+    Task copy(int id) {
+        Epic epic = epics.get(id);
+        if (epic != null) {
+            return epicCopy(epic);
+        }
+        Task task = peek(id);
+        return task == null ? null : TaskRestorer.copy(task);
+    }
+
+    int[] subtaskIdsOf(int epicId) {
+        PersistentIntMap<Subtask> siblings = epicSubtasks.get(epicId);
+        return siblings == null ? new int[0] : siblings.keys();
+    }
+
+    private static PersistentIntMap<PersistentIntMap<Subtask>> withoutSubtask(
+            PersistentIntMap<PersistentIntMap<Subtask>> epicSubtasks, Subtask subtask) {
+        PersistentIntMap<Subtask> siblings = epicSubtasks.get(subtask.getEpicId());
+        if (siblings == null) {
+            return epicSubtasks;
+        }
+        PersistentIntMap<Subtask> remaining = siblings.minus(subtask.getId());
+        return remaining.isEmpty()
+                ? epicSubtasks.minus(subtask.getEpicId())
+                : epicSubtasks.plus(subtask.getEpicId(), remaining);
+    }
+
+    // Число изменений доски, вошедших в срез; у более позднего среза версия больше
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return tasks.size() + subtasks.size() + epics.size();
+    }
+
+    // Списки ниже упорядочены по id, то есть по порядку создания
+    public List<Task> getAllTasks() {
+        List<Task> result = new ArrayList<>(tasks.size());
+        tasks.forEach((id, task) -> result.add(TaskRestorer.copy(task)));
+        return result;
+    }
+
+    public List<Subtask> getAllSubtasks() {
+        List<Subtask> result = new ArrayList<>(subtasks.size());
+        subtasks.forEach((id, subtask) -> result.add((Subtask) TaskRestorer.copy(subtask)));
+        return result;
+    }
+
+    public List<Epic> getAllEpics() {
+        List<Epic> result = new ArrayList<>(epics.size());
+        epics.forEach((id, epic) -> result.add(epicCopy(epic)));
+        return result;
+    }
+
+    // Обход без промежуточных списков: действие получает копии по одной в порядке id,
+    // поэтому память на обход не растет с размером доски.
+    @Override
+    public void forEachTask(Consumer<? super Task> action) {
+        tasks.forEach((id, task) -> action.accept(TaskRestorer.copy(task)));
+    }
+
+    @Override
+    public void forEachSubtask(Consumer<? super Subtask> action) {
+        subtasks.forEach((id, subtask) -> action.accept((Subtask) TaskRestorer.copy(subtask)));
+    }
+
+    @Override
+    public void forEachEpic(Consumer<? super Epic> action) {
+        epics.forEach((id, epic) -> action.accept(epicCopy(epic)));
+    }
+
+    public Optional<Task> getTaskById(int id) {
+        return Optional.ofNullable(tasks.get(id)).map(TaskRestorer::copy);
+    }
+
+    public Optional<Subtask> getSubtaskById(int id) {
+        return Optional.ofNullable(subtasks.get(id)).map(subtask -> (Subtask) TaskRestorer.copy(subtask));
+    }
+
+    public Optional<Epic> getEpicById(int id) {
+        return Optional.ofNullable(epics.get(id)).map(this::epicCopy);
+    }
+
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        PersistentIntMap<Subtask> siblings = epicSubtasks.get(epicId);
+        List<Subtask> result = new ArrayList<>();
+        if (siblings != null) {
+            siblings.forEach((id, subtask) -> result.add((Subtask) TaskRestorer.copy(subtask)));
+        }
+        return result;
+    }
+
+    // Порядок расписания строится по срезу при каждом вызове: O(n log n)
+    public List<Task> getPrioritizedTasks() {
+        List<Task> prioritized = new ArrayList<>();
+        tasks.forEach((id, task) -> {
+            if (task.getStartTime() != null) {
+                prioritized.add(TaskRestorer.copy(task));
+            }
+        });
+        subtasks.forEach((id, subtask) -> {
+            if (subtask.getStartTime() != null) {
+                prioritized.add(TaskRestorer.copy(subtask));
+            }
+        });
+        prioritized.sort(Comparator.comparing(Task::getStartTime));
+        return prioritized;
+    }
+
+    private Epic epicCopy(Epic epic) {
+        Epic copy = (Epic) TaskRestorer.copy(epic);
+        PersistentIntMap<Subtask> siblings = epicSubtasks.get(epic.getId());
+        if (siblings != null) {
+            siblings.forEach((id, subtask) -> copy.addSubtaskId(id));
+        }
+        return copy;
+    }
+}
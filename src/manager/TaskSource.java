@@ -0,0 +1,17 @@
+package manager;
+
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.util.function.Consumer;
+
+// Обход всей доски по одной задаче, без промежуточных списков. Действие получает копии.
+public interface TaskSource {
+
+    void forEachTask(Consumer<? super Task> action);
+
+    void forEachSubtask(Consumer<? super Subtask> action);
+
+    void forEachEpic(Consumer<? super Epic> action);
+}
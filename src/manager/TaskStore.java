@@ -0,0 +1,65 @@
+package manager;
+
+import tasks.Status;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.IntPredicate;
+
+// Хранилище записей задач для StoreBackedTaskManager. Время хранится с точностью до
+// минуты: начало - в минутах от эпохи, длительность - в минутах. Задачи возвращаются
+// отдельными копиями, собранными из записи; изменить запись можно только через put.
+interface TaskStore {
+
+    long NO_START = Long.MIN_VALUE;
+    int NO_DURATION = -1;
+
+    // Вставка или замена записи с id задачи
+    void put(Task task);
+
+    // Собирает задачу из записи или возвращает null
+    Task get(int id);
+
+    boolean contains(int id);
+
+    void remove(int id);
+
+    void clear();
+
+    int size();
+
+    // Тип записи или null, если записи нет
+    TaskType type(int id);
+
+    Status status(int id);
+
+    long startMinute(int id);
+
+    int durationMinutes(int id);
+
+    int epicId(int id);
+
+    // Производные поля эпика, пересчитанные по его подзадачам
+    void setEpicEstimates(int epicId, Status status, long startMinute, int durationMinutes, long endMinute);
+
+    // Обход id записей заданного типа до первого false от action
+    boolean forEachId(TaskType type, IntPredicate action);
+
+    static long toMinute(LocalDateTime dateTime) {
+        return dateTime == null ? NO_START : Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    static LocalDateTime fromMinute(long minute) {
+        return minute == NO_START ? null : LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    static int toMinutes(Duration duration) {
+        return duration == null ? NO_DURATION : Math.toIntExact(duration.toMinutes());
+    }
+
+    static Duration fromMinutes(int minutes) {
+        return minutes == NO_DURATION ? null : Duration.ofMinutes(minutes);
+    }
+}
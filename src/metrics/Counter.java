@@ -0,0 +1,12 @@
+package metrics;
+
+public interface Counter {
+
+    void add(long delta);
+
+    long get();
+
+    default void increment() {
+        add(1);
+    }
+}
@@ -0,0 +1,9 @@
+package metrics;
+
+// Распределение неотрицательных значений, например задержек в наносекундах
+public interface Histogram {
+
+    void record(long value);
+
+    HistogramSnapshot snapshot();
+}
@@ -0,0 +1,72 @@
+package metrics;
+
+import java.util.Arrays;
+
+// Неизменяемый снимок гистограммы. Перцентили берутся по верхней границе корзины,
+// поэтому завышают значение не больше чем на точность гистограммы.
+public final class HistogramSnapshot {
+
+    private final long[] upperBounds;
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    // upperBounds - возрастающие верхние границы непустых корзин, counts - их наполнение
+    public HistogramSnapshot(long[] upperBounds, long[] counts, long sum, long max) {
+        if (upperBounds.length != counts.length) {
+            throw new IllegalArgumentException("Число границ и счетчиков корзин не совпадает.");
+        }
+        this.upperBounds = upperBounds.clone();
+        this.counts = counts.clone();
+        this.count = Arrays.stream(counts).sum();
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    // percentile - от 0 до 100
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Перцентиль должен быть от 0 до 100.");
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBounds[i], max);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{" +
+                "count=" + count +
+                ", mean=" + getMean() +
+                ", p50=" + getPercentile(50) +
+                ", p99=" + getPercentile(99) +
+                ", max=" + max +
+                '}';
+    }
+}
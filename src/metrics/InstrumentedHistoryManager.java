@@ -0,0 +1,99 @@
+package metrics;
+
+import manager.HistoryManager;
+import tasks.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Декоратор истории: задержки add, remove и чтений в гистограммах <prefix><операция>,
+// размер истории - показатель <prefix>size, который читается только при снятии снимка.
+// Снимок снимают другие потоки (JMX), поэтому показатель берет approximateSize(), а не
+// size(): тот у InMemoryHistoryManager вытесняет истекшие просмотры и меняет список.
+public class InstrumentedHistoryManager implements HistoryManager {
+
+    public static final String DEFAULT_PREFIX = "history.";
+
+    private final HistoryManager delegate;
+    private final Histogram add;
+    private final Histogram remove;
+    private final Histogram getHistory;
+
+    public InstrumentedHistoryManager(HistoryManager delegate, MetricsRegistry registry) {
+        this(delegate, registry, DEFAULT_PREFIX);
+    }
+
+    public InstrumentedHistoryManager(HistoryManager delegate, MetricsRegistry registry, String prefix) {
+        this.delegate = delegate;
+        add = registry.histogram(prefix + "add");
+        remove = registry.histogram(prefix + "remove");
+        getHistory = registry.histogram(prefix + "getHistory");
+        registry.gauge(prefix + "size", delegate::approximateSize);
+    }
+
+    @Override
+    public void add(Task task) {
+        long started = System.nanoTime();
+        try {
+            delegate.add(task);
+        } finally {
+            add.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        long started = System.nanoTime();
+        try {
+            delegate.remove(id);
+        } finally {
+            remove.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public ArrayList<Task> getHistory() {
+        long started = System.nanoTime();
+        try {
+            return delegate.getHistory();
+        } finally {
+            getHistory.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        long started = System.nanoTime();
+        try {
+            return delegate.getHistory(offset, limit);
+        } finally {
+            getHistory.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Task> getRecentHistory(int n) {
+        long started = System.nanoTime();
+        try {
+            return delegate.getRecentHistory(n);
+        } finally {
+            getHistory.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public Stream<Task> streamHistory() {
+        return delegate.streamHistory();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public int approximateSize() {
+        return delegate.approximateSize();
+    }
+}
@@ -0,0 +1,451 @@
+package metrics;
+
+import exceptions.ManagerOverlapException;
+import manager.Instrumentable;
+import manager.TaskManager;
+import manager.TaskQuery;
+import manager.TaskSnapshot;
+import tasks.Epic;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Декоратор, который замеряет каждую операцию менеджера: задержка в наносекундах
+// пишется в гистограмму <prefix><операция>, число вызовов - ее count. Отказы из-за
+// пересечения считает <prefix>overlapRejected. Если менеджер поддерживает Instrumentable,
+// подключаются и внутренние показатели: длина просмотра расписания при проверке
+// пересечения (<prefix>overlapScanLength) и записи на диск (<prefix>save.nanos,
+// <prefix>save.bytes). Метрики получаются из реестра один раз в конструкторе, сам замер
+// не выделяет памяти.
+public class InstrumentedTaskManager implements TaskManager {
+
+    public static final String DEFAULT_PREFIX = "taskManager.";
+
+    private final TaskManager delegate;
+    private final Counter overlapRejections;
+    private final Histogram createTask;
+    private final Histogram createTasks;
+    private final Histogram getAllTasks;
+    private final Histogram deleteAllTasks;
+    private final Histogram getTaskById;
+    private final Histogram updateTask;
+    private final Histogram deleteTaskById;
+    private final Histogram createSubtask;
+    private final Histogram createSubtasks;
+    private final Histogram getAllSubtasks;
+    private final Histogram deleteAllSubtasks;
+    private final Histogram getSubtaskById;
+    private final Histogram updateSubtask;
+    private final Histogram deleteSubtaskById;
+    private final Histogram createEpic;
+    private final Histogram getAllEpics;
+    private final Histogram deleteAllEpics;
+    private final Histogram getEpicById;
+    private final Histogram updateEpic;
+    private final Histogram deleteEpicById;
+    private final Histogram getSubtasksByEpicId;
+    private final Histogram getHistory;
+    private final Histogram getHistoryPage;
+    private final Histogram getRecentHistory;
+    private final Histogram streamHistory;
+    private final Histogram getPrioritizedTasks;
+    private final Histogram getPrioritizedTasksRange;
+    private final Histogram findOverlapping;
+    private final Histogram find;
+    private final Histogram snapshot;
+    private final Histogram batch;
+
+    public InstrumentedTaskManager(TaskManager delegate, MetricsRegistry registry) {
+        this(delegate, registry, DEFAULT_PREFIX);
+    }
+
+    public InstrumentedTaskManager(TaskManager delegate, MetricsRegistry registry, String prefix) {
+        this.delegate = delegate;
+        overlapRejections = registry.counter(prefix + "overlapRejected");
+        createTask = registry.histogram(prefix + "createTask");
+        createTasks = registry.histogram(prefix + "createTasks");
+        getAllTasks = registry.histogram(prefix + "getAllTasks");
+        deleteAllTasks = registry.histogram(prefix + "deleteAllTasks");
+        getTaskById = registry.histogram(prefix + "getTaskById");
+        updateTask = registry.histogram(prefix + "updateTask");
+        deleteTaskById = registry.histogram(prefix + "deleteTaskById");
+        createSubtask = registry.histogram(prefix + "createSubtask");
+        createSubtasks = registry.histogram(prefix + "createSubtasks");
+        getAllSubtasks = registry.histogram(prefix + "getAllSubtasks");
+        deleteAllSubtasks = registry.histogram(prefix + "deleteAllSubtasks");
+        getSubtaskById = registry.histogram(prefix + "getSubtaskById");
+        updateSubtask = registry.histogram(prefix + "updateSubtask");
+        deleteSubtaskById = registry.histogram(prefix + "deleteSubtaskById");
+        createEpic = registry.histogram(prefix + "createEpic");
+        getAllEpics = registry.histogram(prefix + "getAllEpics");
+        deleteAllEpics = registry.histogram(prefix + "deleteAllEpics");
+        getEpicById = registry.histogram(prefix + "getEpicById");
+        updateEpic = registry.histogram(prefix + "updateEpic");
+        deleteEpicById = registry.histogram(prefix + "deleteEpicById");
+        getSubtasksByEpicId = registry.histogram(prefix + "getSubtasksByEpicId");
+        getHistory = registry.histogram(prefix + "getHistory");
+        getHistoryPage = registry.histogram(prefix + "getHistoryPage");
+        getRecentHistory = registry.histogram(prefix + "getRecentHistory");
+        streamHistory = registry.histogram(prefix + "streamHistory");
+        getPrioritizedTasks = registry.histogram(prefix + "getPrioritizedTasks");
+        getPrioritizedTasksRange = registry.histogram(prefix + "getPrioritizedTasksRange");
+        findOverlapping = registry.histogram(prefix + "findOverlapping");
+        find = registry.histogram(prefix + "find");
+        snapshot = registry.histogram(prefix + "snapshot");
+        batch = registry.histogram(prefix + "batch");
+        if (delegate instanceof Instrumentable instrumentable) {
+            Histogram overlapScanLength = registry.histogram(prefix + "overlapScanLength");
+            Histogram saveNanos = registry.histogram(prefix + "save.nanos");
+            Histogram saveBytes = registry.histogram(prefix + "save.bytes");
+            instrumentable.setOverlapScanListener(overlapScanLength::record);
+            instrumentable.setSaveListener((bytes, nanos) -> {
+                saveBytes.record(bytes);
+                saveNanos.record(nanos);
+            });
+        }
+    }
+
+    public TaskManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        long started = System.nanoTime();
+        try {
+            return delegate.createTask(task);
+        } catch (ManagerOverlapException e) {
+            overlapRejections.increment();
+            throw e;
+        } finally {
+            createTask.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Task> createTasks(Collection<Task> tasks) {
+        long started = System.nanoTime();
+        try {
+            return delegate.createTasks(tasks);
+        } catch (ManagerOverlapException e) {
+            overlapRejections.increment();
+            throw e;
+        } finally {
+            createTasks.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        long started = System.nanoTime();
+        try {
+            return delegate.getAllTasks();
+        } finally {
+            getAllTasks.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        long started = System.nanoTime();
+        try {
+            delegate.deleteAllTasks();
+        } finally {
+            deleteAllTasks.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public Optional<Task> getTaskById(int id) {
+        long started = System.nanoTime();
+        try {
+            return delegate.getTaskById(id);
+        } finally {
+            getTaskById.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        long started = System.nanoTime();
+        try {
+            delegate.updateTask(task);
+        } catch (ManagerOverlapException e) {
+            overlapRejections.increment();
+            throw e;
+        } finally {
+            updateTask.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        long started = System.nanoTime();
+        try {
+            delegate.deleteTaskById(id);
+        } finally {
+            deleteTaskById.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask subtask) {
+        long started = System.nanoTime();
+        try {
+            return delegate.createSubtask(subtask);
+        } catch (ManagerOverlapException e) {
+            overlapRejections.increment();
+            throw e;
+        } finally {
+            createSubtask.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Subtask> createSubtasks(Collection<Subtask> subtasks) {
+        long started = System.nanoTime();
+        try {
+            return delegate.createSubtasks(subtasks);
+        } catch (ManagerOverlapException e) {
+            overlapRejections.increment();
+            throw e;
+        } finally {
+            createSubtasks.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        long started = System.nanoTime();
+        try {
+            return delegate.getAllSubtasks();
+        } finally {
+            getAllSubtasks.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        long started = System.nanoTime();
+        try {
+            delegate.deleteAllSubtasks();
+        } finally {
+            deleteAllSubtasks.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public Optional<Subtask> getSubtaskById(int id) {
+        long started = System.nanoTime();
+        try {
+            return delegate.getSubtaskById(id);
+        } finally {
+            getSubtaskById.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        long started = System.nanoTime();
+        try {
+            delegate.updateSubtask(subtask);
+        } catch (ManagerOverlapException e) {
+            overlapRejections.increment();
+            throw e;
+        } finally {
+            updateSubtask.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        long started = System.nanoTime();
+        try {
+            delegate.deleteSubtaskById(id);
+        } finally {
+            deleteSubtaskById.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        long started = System.nanoTime();
+        try {
+            return delegate.createEpic(epic);
+        } finally {
+            createEpic.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        long started = System.nanoTime();
+        try {
+            return delegate.getAllEpics();
+        } finally {
+            getAllEpics.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        long started = System.nanoTime();
+        try {
+            delegate.deleteAllEpics();
+        } finally {
+            deleteAllEpics.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public Optional<Epic> getEpicById(int id) {
+        long started = System.nanoTime();
+        try {
+            return delegate.getEpicById(id);
+        } finally {
+            getEpicById.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        long started = System.nanoTime();
+        try {
+            delegate.updateEpic(epic);
+        } finally {
+            updateEpic.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        long started = System.nanoTime();
+        try {
+            delegate.deleteEpicById(id);
+        } finally {
+            deleteEpicById.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        long started = System.nanoTime();
+        try {
+            return delegate.getSubtasksByEpicId(epicId);
+        } finally {
+            getSubtasksByEpicId.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        long started = System.nanoTime();
+        try {
+            return delegate.getHistory();
+        } finally {
+            getHistory.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(int offset, int limit) {
+        long started = System.nanoTime();
+        try {
+            return delegate.getHistory(offset, limit);
+        } finally {
+            getHistoryPage.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Task> getRecentHistory(int n) {
+        long started = System.nanoTime();
+        try {
+            return delegate.getRecentHistory(n);
+        } finally {
+            getRecentHistory.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public Stream<Task> streamHistory() {
+        long started = System.nanoTime();
+        try {
+            return delegate.streamHistory();
+        } finally {
+            streamHistory.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        long started = System.nanoTime();
+        try {
+            return delegate.getPrioritizedTasks();
+        } finally {
+            getPrioritizedTasks.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        long started = System.nanoTime();
+        try {
+            return delegate.getPrioritizedTasks(from, to, limit);
+        } finally {
+            getPrioritizedTasksRange.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Task> findOverlapping(LocalDateTime start, LocalDateTime end) {
+        long started = System.nanoTime();
+        try {
+            return delegate.findOverlapping(start, end);
+        } finally {
+            findOverlapping.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public List<Task> find(TaskQuery query) {
+        long started = System.nanoTime();
+        try {
+            return delegate.find(query);
+        } finally {
+            find.record(System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public Optional<Task> findById(int id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public TaskSnapshot snapshot() {
+        long started = System.nanoTime();
+        try {
+            return delegate.snapshot();
+        } finally {
+            snapshot.record(System.nanoTime() - started);
+        }
+    }
+
+    // Изменения внутри пакета идут через эту обертку, поэтому тоже попадают в метрики
+    @Override
+    public void batch(Consumer<TaskManager> changes) {
+        long started = System.nanoTime();
+        try {
+            delegate.batch(manager -> changes.accept(this));
+        } finally {
+            batch.record(System.nanoTime() - started);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Публикует реестр как MBean с атрибутами только для чтения. Счетчики и показатели
+// доступны под своими именами, у гистограммы - атрибуты <имя>.count, .mean, .p50, .p90,
+// .p99 и .max. Атрибуты вычисляются по снимку реестра при каждом обращении.
+public final class JmxMetrics implements DynamicMBean {
+
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99"};
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    private final MetricsRegistry registry;
+
+    public JmxMetrics(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    // Регистрирует реестр в платформенном MBeanServer как kanban:type=Metrics,name=<name>
+    public static ObjectName register(MetricsRegistry registry, String name) {
+        try {
+            ObjectName objectName = ObjectName.getInstance("kanban:type=Metrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new JmxMetrics(registry), objectName);
+            return objectName;
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalStateException("Метрики с именем " + name + " уже зарегистрированы.");
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать метрики " + name + ": " + e.getMessage());
+        }
+    }
+
+    public static void unregister(ObjectName objectName) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(objectName);
+        } catch (InstanceNotFoundException e) {
+            // Уже снят
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось снять регистрацию " + objectName + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Object value = attributes().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        Map<String, Object> attributes = attributes();
+        AttributeList list = new AttributeList();
+        for (String name : names) {
+            Object value = attributes.get(name);
+            if (value != null) {
+                list.add(new Attribute(name, value));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Атрибуты метрик доступны только для чтения: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("У метрик нет операций: " + actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> infos = new ArrayList<>();
+        attributes().forEach((name, value) -> infos.add(new MBeanAttributeInfo(name, value.getClass().getName(),
+                name, true, false, false)));
+        return new MBeanInfo(getClass().getName(), "Метрики менеджера задач",
+                infos.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+
+    private Map<String, Object> attributes() {
+        MetricsSnapshot snapshot = registry.snapshot();
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.putAll(snapshot.counters());
+        attributes.putAll(snapshot.gauges());
+        snapshot.histograms().forEach((name, histogram) -> {
+            attributes.put(name + ".count", histogram.getCount());
+            attributes.put(name + ".mean", histogram.getMean());
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                attributes.put(name + "." + PERCENTILE_NAMES[i], histogram.getPercentile(PERCENTILES[i]));
+            }
+            attributes.put(name + ".max", histogram.getMax());
+        });
+        return attributes;
+    }
+}
@@ -0,0 +1,75 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Гистограмма в духе HdrHistogram: каждый интервал [2^k, 2^(k+1)) поделен на SUB_BUCKETS
+// равных корзин, так что относительная ошибка не больше 1/SUB_BUCKETS во всем диапазоне
+// long. Корзины выделены заранее, запись - вычисление индекса и атомарный инкремент,
+// без выделения памяти и блокировок.
+public final class LogLinearHistogram implements Histogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    // Отрицательные значения (например, при скачке часов) считаются нулем
+    @Override
+    public void record(long value) {
+        long clamped = Math.max(value, 0);
+        buckets.incrementAndGet(indexOf(clamped));
+        sum.add(clamped);
+        if (clamped > max.get()) {
+            max.accumulateAndGet(clamped, Math::max);
+        }
+    }
+
+    @Override
+    public HistogramSnapshot snapshot() {
+        int nonEmpty = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            if (counts[i] != 0) {
+                nonEmpty++;
+            }
+        }
+        long[] upperBounds = new long[nonEmpty];
+        long[] nonEmptyCounts = new long[nonEmpty];
+        int next = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] != 0) {
+                upperBounds[next] = upperBoundOf(i);
+                nonEmptyCounts[next++] = counts[i];
+            }
+        }
+        return new HistogramSnapshot(upperBounds, nonEmptyCounts, sum.sum(), max.get());
+    }
+
+    // Значения меньше SUB_BUCKETS попадают каждое в свою корзину; для остальных индекс -
+    // номер интервала-степени двойки и старшие SUB_BUCKET_BITS бит после ведущей единицы.
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+        long upper = ((mantissa + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
@@ -0,0 +1,19 @@
+package metrics;
+
+import java.util.function.LongSupplier;
+
+// Точка подключения системы метрик. Метрики создаются один раз при сборке инструментов,
+// а на горячем пути используются только уже полученные Counter и Histogram, поэтому
+// реализация может подключить любую систему мониторинга, не трогая менеджеры.
+public interface MetricsRegistry {
+
+    // Повторный вызов с тем же именем возвращает ту же метрику
+    Counter counter(String name);
+
+    Histogram histogram(String name);
+
+    // Значение читается только при снятии снимка
+    void gauge(String name, LongSupplier value);
+
+    MetricsSnapshot snapshot();
+}
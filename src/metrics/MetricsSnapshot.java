@@ -0,0 +1,28 @@
+package metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Значения всех метрик реестра на момент снятия, упорядоченные по имени
+public record MetricsSnapshot(Map<String, Long> counters, Map<String, HistogramSnapshot> histograms,
+                              Map<String, Long> gauges) {
+
+    public MetricsSnapshot {
+        counters = Collections.unmodifiableMap(new TreeMap<>(counters));
+        histograms = Collections.unmodifiableMap(new TreeMap<>(histograms));
+        gauges = Collections.unmodifiableMap(new TreeMap<>(gauges));
+    }
+
+    public long counter(String name) {
+        return counters.getOrDefault(name, 0L);
+    }
+
+    public HistogramSnapshot histogram(String name) {
+        return histograms.get(name);
+    }
+
+    public long gauge(String name) {
+        return gauges.getOrDefault(name, 0L);
+    }
+}
@@ -1,20 +1,20 @@
 package tasks;
 
 import manager.TaskType;
+import utils.IntHashSet;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 
 public class Epic extends Task {
-    private final ArrayList<Integer> subtaskIds = new ArrayList<>();
+    private final IntHashSet subtaskIds = new IntHashSet();
     private LocalDateTime endTime;
 
     public Epic(String name, String description, Duration duration, LocalDateTime  startTime) {
         super(name, description, Status.NEW, duration, startTime);
     }
 
-    public ArrayList<Integer> getSubtaskIds() {
+    public IntHashSet getSubtaskIds() {
         return subtaskIds;
     }
 
@@ -23,7 +23,7 @@ public class Epic extends Task {
     }
 
     public void removeSubtaskId(int subtaskId) {
-        subtaskIds.remove(Integer.valueOf(subtaskId));
+        subtaskIds.remove(subtaskId);
     }
 
     @Override
@@ -0,0 +1,194 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+// Множество int без упаковки: открытая адресация с линейным пробированием и удалением
+// сдвигом, как в IntObjectHashMap. Пустая ячейка обозначается нулем, поэтому наличие
+// самого нуля хранится отдельным флагом.
+public class IntHashSet {
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] table;
+    private boolean containsZero;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+    private int modCount;
+
+    public IntHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntHashSet(int expectedSize) {
+        allocate(IntObjectHashMap.tableSizeFor(expectedSize));
+    }
+
+    public boolean add(int value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+        } else {
+            int slot = IntObjectHashMap.hash(value) & mask;
+            while (table[slot] != 0) {
+                if (table[slot] == value) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = value;
+        }
+        size++;
+        modCount++;
+        if (size > resizeThreshold) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return value == 0 ? containsZero : find(value) >= 0;
+    }
+
+    public boolean remove(int value) {
+        if (value == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+        } else {
+            int slot = find(value);
+            if (slot < 0) {
+                return false;
+            }
+            shiftBack(slot);
+        }
+        size--;
+        modCount++;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        containsZero = false;
+        size = 0;
+        modCount++;
+    }
+
+    public void forEach(IntConsumer action) {
+        forEachWhile(value -> {
+            action.accept(value);
+            return true;
+        });
+    }
+
+    // Обход до первого false от action; возвращает false, если обход был прерван
+    public boolean forEachWhile(IntPredicate action) {
+        int expectedModCount = modCount;
+        if (containsZero && !action.test(0)) {
+            return false;
+        }
+        for (int value : table) {
+            if (value != 0) {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!action.test(value)) {
+                    return false;
+                }
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        return true;
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        int index = 0;
+        if (containsZero) {
+            result[index++] = 0;
+        }
+        for (int value : table) {
+            if (value != 0) {
+                result[index++] = value;
+            }
+        }
+        return result;
+    }
+
+    // Порядок toArray зависит от хешей и истории вставок, а этот - нет
+    public int[] toSortedArray() {
+        int[] result = toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toSortedArray());
+    }
+
+    private int find(int value) {
+        int slot = IntObjectHashMap.hash(value) & mask;
+        while (table[slot] != 0) {
+            if (table[slot] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void shiftBack(int slot) {
+        int free = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            if (table[current] == 0) {
+                break;
+            }
+            int home = IntObjectHashMap.hash(table[current]) & mask;
+            if (((current - home) & mask) >= ((current - free) & mask)) {
+                table[free] = table[current];
+                free = current;
+            }
+        }
+        table[free] = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldTable = table;
+        allocate(capacity);
+        for (int value : oldTable) {
+            if (value != 0) {
+                int slot = IntObjectHashMap.hash(value) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+}
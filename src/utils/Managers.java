@@ -1,9 +1,17 @@
 package utils;
 
+import manager.AsyncTaskManager;
+import manager.ConcurrentHistoryManager;
 import manager.HistoryManager;
 import manager.InMemoryHistoryManager;
 import manager.InMemoryTaskManager;
+import manager.SingleWriterTaskManager;
 import manager.TaskManager;
+import metrics.InstrumentedHistoryManager;
+import metrics.InstrumentedTaskManager;
+import metrics.MetricsRegistry;
+
+import java.time.Duration;
 
 public class Managers {
 
@@ -11,8 +19,35 @@ public class Managers {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getDefault(HistoryManager historyManager) {
+        return new InMemoryTaskManager(historyManager);
+    }
+
+    // Неблокирующий менеджер: изменения применяет один поток-писатель
+    public static AsyncTaskManager getAsync() {
+        return new SingleWriterTaskManager(getDefault());
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
 
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
+    }
+
+    public static HistoryManager getDefaultHistory(int capacity, Duration expireAfterAccess) {
+        return new InMemoryHistoryManager(capacity, expireAfterAccess);
+    }
+
+    public static HistoryManager getConcurrentHistory() {
+        return new ConcurrentHistoryManager();
+    }
+
+    // Менеджер по умолчанию, у которого замеряются и операции, и история
+    public static TaskManager getInstrumented(MetricsRegistry registry) {
+        HistoryManager history = new InstrumentedHistoryManager(getDefaultHistory(), registry);
+        return new InstrumentedTaskManager(new InMemoryTaskManager(history), registry);
+    }
+
 }
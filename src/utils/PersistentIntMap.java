@@ -0,0 +1,205 @@
+package utils;
+
+import java.util.Arrays;
+
+// Неизменяемое отображение int -> V на префиксном дереве с битовыми масками (HAMT).
+// plus и minus возвращают новое отображение, копируя только путь от корня до ключа
+// (не больше 7 узлов), остальное дерево разделяется с исходным. Ключ разбирается по
+// 5 бит начиная со старших, поэтому обход идет по возрастанию ключей (как беззнаковых).
+public final class PersistentIntMap<V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int ROOT_SHIFT = 30;
+
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentIntMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        Node node = root;
+        int shift = ROOT_SHIFT;
+        while (node != null) {
+            int bit = bit(key, shift);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = node.slots[node.index(bit)];
+            if (slot instanceof Leaf leaf) {
+                return leaf.key == key ? (V) leaf.value : null;
+            }
+            node = (Node) slot;
+            shift -= BITS;
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    public PersistentIntMap<V> plus(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Значение не может быть null.");
+        }
+        boolean added = !containsKey(key);
+        Node newRoot = root == null
+                ? new Node(bit(key, ROOT_SHIFT), new Object[]{new Leaf(key, value)})
+                : put(root, ROOT_SHIFT, new Leaf(key, value));
+        return newRoot == root ? this : new PersistentIntMap<>(newRoot, added ? size + 1 : size);
+    }
+
+    public PersistentIntMap<V> minus(int key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        Object newRoot = remove(root, ROOT_SHIFT, key);
+        return size == 1 ? empty() : new PersistentIntMap<>((Node) newRoot, size - 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Обход по возрастанию ключей
+    public void forEach(EntryConsumer<? super V> action) {
+        if (root != null) {
+            forEach(root, action);
+        }
+    }
+
+    public int[] keys() {
+        int[] keys = new int[size];
+        int[] next = {0};
+        forEach((key, value) -> keys[next[0]++] = key);
+        return keys;
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(Node node, EntryConsumer<? super V> action) {
+        for (Object slot : node.slots) {
+            if (slot instanceof Leaf leaf) {
+                action.accept(leaf.key, (V) leaf.value);
+            } else {
+                forEach((Node) slot, action);
+            }
+        }
+    }
+
+    private static Node put(Node node, int shift, Leaf leaf) {
+        int bit = bit(leaf.key, shift);
+        int index = node.index(bit);
+        if ((node.bitmap & bit) == 0) {
+            Object[] slots = new Object[node.slots.length + 1];
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            slots[index] = leaf;
+            System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+            return new Node(node.bitmap | bit, slots);
+        }
+        Object slot = node.slots[index];
+        Object replacement;
+        if (slot instanceof Leaf existing) {
+            if (existing.key == leaf.key) {
+                if (existing.value == leaf.value) {
+                    return node;
+                }
+                replacement = leaf;
+            } else {
+                replacement = merge(existing, leaf, shift - BITS);
+            }
+        } else {
+            Node child = (Node) slot;
+            replacement = put(child, shift - BITS, leaf);
+            if (replacement == child) {
+                return node;
+            }
+        }
+        return node.withSlot(index, replacement);
+    }
+
+    // Ключи различны и совпадают в уже пройденных битах, поэтому разойдутся не ниже shift = 0
+    private static Node merge(Leaf first, Leaf second, int shift) {
+        int firstBit = bit(first.key, shift);
+        int secondBit = bit(second.key, shift);
+        if (firstBit == secondBit) {
+            return new Node(firstBit, new Object[]{merge(first, second, shift - BITS)});
+        }
+        Object[] slots = Integer.compareUnsigned(firstBit, secondBit) < 0
+                ? new Object[]{first, second}
+                : new Object[]{second, first};
+        return new Node(firstBit | secondBit, slots);
+    }
+
+    // Возвращает новый узел, null для опустевшего узла или единственный оставшийся лист,
+    // который поднимается на уровень выше. Корень остается узлом.
+    private static Object remove(Node node, int shift, int key) {
+        int bit = bit(key, shift);
+        int index = node.index(bit);
+        Object slot = node.slots[index];
+        Object replacement = slot instanceof Leaf ? null : remove((Node) slot, shift - BITS, key);
+        if (replacement == null) {
+            if (node.slots.length == 1) {
+                return null;
+            }
+            if (node.slots.length == 2 && shift != ROOT_SHIFT && node.slots[1 - index] instanceof Leaf other) {
+                return other;
+            }
+            Object[] slots = new Object[node.slots.length - 1];
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            System.arraycopy(node.slots, index + 1, slots, index, slots.length - index);
+            return new Node(node.bitmap & ~bit, slots);
+        }
+        if (replacement instanceof Leaf && node.slots.length == 1 && shift != ROOT_SHIFT) {
+            return replacement;
+        }
+        return node.withSlot(index, replacement);
+    }
+
+    private static int bit(int key, int shift) {
+        return 1 << ((key >>> shift) & MASK);
+    }
+
+    private static final class Node {
+        private final int bitmap;
+        private final Object[] slots;
+
+        Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        Node withSlot(int index, Object slot) {
+            Object[] copy = Arrays.copyOf(slots, slots.length);
+            copy[index] = slot;
+            return new Node(bitmap, copy);
+        }
+    }
+
+    private record Leaf(int key, Object value) {
+    }
+}
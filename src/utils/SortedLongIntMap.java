@@ -0,0 +1,233 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+// Упорядоченное отображение long -> int на примитивных массивах. Ключи хранятся
+// отсортированными кусками ограниченного размера: поиск - двоичный по кускам и внутри
+// куска, вставка и удаление сдвигают не больше одного куска.
+public class SortedLongIntMap {
+
+    public static final long NO_KEY = Long.MIN_VALUE;
+
+    private static final int MAX_CHUNK_SIZE = 256;
+    private static final int INITIAL_CHUNK_CAPACITY = 4;
+
+    @FunctionalInterface
+    public interface Visitor {
+        // false прекращает обход
+        boolean visit(long key, int value);
+    }
+
+    private static final class Chunk {
+        private long[] keys;
+        private int[] values;
+        private int size;
+
+        Chunk(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+        }
+
+        int search(long key) {
+            return Arrays.binarySearch(keys, 0, size, key);
+        }
+
+        void insert(int index, long key, int value) {
+            if (size == keys.length) {
+                int capacity = Math.min(keys.length * 2, MAX_CHUNK_SIZE);
+                keys = Arrays.copyOf(keys, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            keys[index] = key;
+            values[index] = value;
+            size++;
+        }
+
+        void delete(int index) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+        }
+    }
+
+    private final ArrayList<Chunk> chunks = new ArrayList<>();
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        chunks.clear();
+        size = 0;
+    }
+
+    public void put(long key, int value) {
+        if (chunks.isEmpty()) {
+            chunks.add(new Chunk(INITIAL_CHUNK_CAPACITY));
+        }
+        int chunkIndex = chunkFor(key);
+        Chunk chunk = chunks.get(chunkIndex);
+        int index = chunk.search(key);
+        if (index >= 0) {
+            chunk.values[index] = value;
+            return;
+        }
+        index = -index - 1;
+        if (chunk.size == MAX_CHUNK_SIZE) {
+            Chunk right = split(chunkIndex);
+            if (index > chunk.size) {
+                index -= chunk.size;
+                chunk = right;
+            }
+        }
+        chunk.insert(index, key, value);
+        size++;
+    }
+
+    public boolean remove(long key) {
+        if (chunks.isEmpty()) {
+            return false;
+        }
+        int chunkIndex = chunkFor(key);
+        Chunk chunk = chunks.get(chunkIndex);
+        int index = chunk.search(key);
+        if (index < 0) {
+            return false;
+        }
+        chunk.delete(index);
+        if (chunk.size == 0) {
+            chunks.remove(chunkIndex);
+        }
+        size--;
+        return true;
+    }
+
+    public boolean containsKey(long key) {
+        return !chunks.isEmpty() && chunks.get(chunkFor(key)).search(key) >= 0;
+    }
+
+    public int get(long key, int defaultValue) {
+        if (chunks.isEmpty()) {
+            return defaultValue;
+        }
+        Chunk chunk = chunks.get(chunkFor(key));
+        int index = chunk.search(key);
+        return index >= 0 ? chunk.values[index] : defaultValue;
+    }
+
+    public long firstKey() {
+        if (chunks.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return chunks.get(0).keys[0];
+    }
+
+    public long lastKey() {
+        if (chunks.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        Chunk last = chunks.get(chunks.size() - 1);
+        return last.keys[last.size - 1];
+    }
+
+    // Наибольший ключ, строго меньший bound, или NO_KEY
+    public long lowerKey(long bound) {
+        if (chunks.isEmpty()) {
+            return NO_KEY;
+        }
+        int chunkIndex = chunkFor(bound);
+        Chunk chunk = chunks.get(chunkIndex);
+        int index = insertionPoint(chunk.search(bound)) - 1;
+        if (index >= 0) {
+            return chunk.keys[index];
+        }
+        if (chunkIndex == 0) {
+            return NO_KEY;
+        }
+        Chunk previous = chunks.get(chunkIndex - 1);
+        return previous.keys[previous.size - 1];
+    }
+
+    // Ключи из [from, to) по возрастанию; возвращает false, если обход прерван
+    public boolean ascend(long from, long to, Visitor visitor) {
+        if (chunks.isEmpty()) {
+            return true;
+        }
+        int chunkIndex = chunkFor(from);
+        int index = insertionPoint(chunks.get(chunkIndex).search(from));
+        for (; chunkIndex < chunks.size(); chunkIndex++, index = 0) {
+            Chunk chunk = chunks.get(chunkIndex);
+            for (; index < chunk.size; index++) {
+                if (chunk.keys[index] >= to) {
+                    return true;
+                }
+                if (!visitor.visit(chunk.keys[index], chunk.values[index])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Ключи меньше bound по убыванию; возвращает false, если обход прерван
+    public boolean descend(long bound, Visitor visitor) {
+        if (chunks.isEmpty()) {
+            return true;
+        }
+        int chunkIndex = chunkFor(bound);
+        int index = insertionPoint(chunks.get(chunkIndex).search(bound)) - 1;
+        for (; chunkIndex >= 0; chunkIndex--) {
+            Chunk chunk = chunks.get(chunkIndex);
+            if (index == Integer.MAX_VALUE) {
+                index = chunk.size - 1;
+            }
+            for (; index >= 0; index--) {
+                if (!visitor.visit(chunk.keys[index], chunk.values[index])) {
+                    return false;
+                }
+            }
+            index = Integer.MAX_VALUE;
+        }
+        return true;
+    }
+
+    // Последний кусок, первый ключ которого не больше key (или первый кусок)
+    private int chunkFor(long key) {
+        int low = 0;
+        int high = chunks.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (chunks.get(middle).keys[0] <= key) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private Chunk split(int chunkIndex) {
+        Chunk chunk = chunks.get(chunkIndex);
+        int half = chunk.size / 2;
+        Chunk right = new Chunk(MAX_CHUNK_SIZE);
+        right.size = chunk.size - half;
+        System.arraycopy(chunk.keys, half, right.keys, 0, right.size);
+        System.arraycopy(chunk.values, half, right.values, 0, right.size);
+        chunk.size = half;
+        chunks.add(chunkIndex + 1, right);
+        return right;
+    }
+
+    private static int insertionPoint(int searchResult) {
+        return searchResult >= 0 ? searchResult : -searchResult - 1;
+    }
+}
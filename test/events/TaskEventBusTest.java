@@ -0,0 +1,159 @@
+package events;
+
+import manager.InMemoryTaskManager;
+import manager.TaskType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskEventBusTest {
+    private TaskEventBus bus;
+    private List<TaskEvent> received;
+    private InMemoryTaskManager taskManager;
+    private LocalDateTime localDateTime;
+    private Duration duration;
+
+    @BeforeEach
+    void setUp() {
+        bus = new TaskEventBus();
+        received = new ArrayList<>();
+        bus.subscribe(events -> {
+            synchronized (received) {
+                received.addAll(events);
+            }
+        });
+        taskManager = new InMemoryTaskManager();
+        taskManager.setEventBus(bus);
+        localDateTime = LocalDateTime.of(2024, 5, 1, 10, 0);
+        duration = Duration.ofMinutes(30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.close();
+    }
+
+    @Test
+    void shouldEmitTypedEventsForMutations() {
+        Task task = taskManager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+        Epic epic = taskManager.createEpic(new Epic("Epic", "Description", null, null));
+        Subtask subtask = taskManager.createSubtask(new Subtask("Subtask", "Description", Status.DONE, epic.getId(),
+                duration, localDateTime.plusHours(1)));
+        subtask.setName("Renamed");
+        taskManager.updateSubtask(subtask);
+        taskManager.getTaskById(task.getId());
+        taskManager.deleteEpicById(epic.getId());
+        bus.flush();
+
+        assertEquals(List.of(
+                "CREATED TASK", "CREATED EPIC",
+                "CREATED SUBTASK", "EPIC_STATUS_CHANGED EPIC",
+                "UPDATED SUBTASK", "UPDATED EPIC",
+                "HISTORY_TOUCHED TASK",
+                "DELETED SUBTASK", "DELETED EPIC"), describe(), "Неверная последовательность событий.");
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i, received.get(i).sequence(), "Номера событий должны идти подряд.");
+        }
+        assertEquals(Status.DONE, received.get(3).task().getStatus(), "Событие должно нести новый статус эпика.");
+        assertEquals("Renamed", received.get(4).task().getName(), "Событие должно нести состояние после изменения.");
+        assertNull(received.get(8).task(), "У удаления нет задачи.");
+    }
+
+    @Test
+    void shouldEmitBatchEventsOnlyAfterCommit() {
+        assertThrows(IllegalStateException.class, () -> taskManager.batch(manager -> {
+            manager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+            throw new IllegalStateException("Отмена");
+        }));
+        bus.flush();
+        assertTrue(received.isEmpty(), "Отмененный пакет не должен давать событий.");
+
+        taskManager.batch(manager -> manager.createTasks(List.of(
+                new Task("First", "Description", Status.NEW, duration, localDateTime),
+                new Task("Second", "Description", Status.NEW, duration, localDateTime.plusHours(1)))));
+        bus.flush();
+        assertEquals(List.of("CREATED TASK", "CREATED TASK"), describe(), "События пакета не доставлены.");
+    }
+
+    @Test
+    void shouldApplyBackpressureWithoutLosingEvents() throws InterruptedException {
+        bus.close();
+        bus = new TaskEventBus(4, 2);
+        List<TaskEvent> slow = new ArrayList<>();
+        bus.subscribe(events -> {
+            slow.addAll(events);
+            Thread.onSpinWait();
+        });
+
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    bus.publish(TaskEventType.UPDATED, TaskType.TASK, i, null);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        bus.flush();
+
+        assertEquals(2_000, slow.size(), "События не должны теряться при переполнении буфера.");
+        for (int i = 0; i < slow.size(); i++) {
+            assertEquals(i, slow.get(i).sequence(), "Нарушен порядок доставки.");
+        }
+        assertTrue(bus.getStalls() > 0, "Публикация должна была ждать освобождения буфера.");
+        assertThrows(IllegalArgumentException.class, () -> new TaskEventBus(3, 1));
+    }
+
+    @Test
+    void shouldDeliverEveryEventPublishedWhileClosing() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            TaskEventBus closing = new TaskEventBus(8, 2);
+            AtomicLong delivered = new AtomicLong();
+            closing.subscribe(events -> delivered.addAndGet(events.size()));
+            AtomicLong published = new AtomicLong();
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread producer = new Thread(() -> {
+                    try {
+                        while (true) {
+                            closing.publish(TaskEventType.UPDATED, TaskType.TASK, 1, null);
+                            published.incrementAndGet();
+                        }
+                    } catch (IllegalStateException e) {
+                        // Шина закрыта
+                    }
+                });
+                producers.add(producer);
+                producer.start();
+            }
+            Thread.sleep(1);
+            closing.close();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            assertEquals(published.get(), delivered.get(), "Событие, принятое при закрытии, потеряно.");
+        }
+    }
+
+    private List<String> describe() {
+        synchronized (received) {
+            return received.stream().map(event -> event.type() + " " + event.taskType()).toList();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package http;
+
+import manager.ConcurrentTaskManager;
+import manager.TaskManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpTaskServerTest {
+    private TaskManager manager;
+    private HttpTaskServer server;
+    private HttpClient client;
+    private LocalDateTime localDateTime;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        manager = new ConcurrentTaskManager();
+        server = new HttpTaskServer(manager, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+        localDateTime = LocalDateTime.of(2024, 5, 1, 10, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void shouldCreateGetAndDeleteTask() throws Exception {
+        HttpResponse<String> created = send("POST", "/tasks",
+                "{\"name\":\"Task\",\"description\":\"Описание\",\"status\":\"NEW\",\"duration\":30,\"startTime\":\"2024-05-01T10:00\"}");
+        assertEquals(201, created.statusCode(), "Задача не создана: " + created.body());
+        assertEquals(1, manager.getAllTasks().size(), "Задача не попала в менеджер.");
+        int id = manager.getAllTasks().get(0).getId();
+        assertTrue(created.body().contains("\"id\":" + id), "В ответе нет id: " + created.body());
+
+        HttpResponse<String> found = send("GET", "/tasks/" + id, null);
+        assertEquals(200, found.statusCode());
+        assertTrue(found.body().contains("\"description\":\"Описание\""), "Неверное тело ответа: " + found.body());
+        assertTrue(found.body().contains("\"endTime\":\"2024-05-01T10:30\""), "Не выведено окончание: " + found.body());
+
+        assertEquals(200, send("DELETE", "/tasks/" + id, null).statusCode());
+        assertEquals(404, send("GET", "/tasks/" + id, null).statusCode(), "Удаленная задача не должна находиться.");
+    }
+
+    @Test
+    void shouldMapManagerErrorsToStatusCodes() throws Exception {
+        manager.createTask(new Task("Task", "Description", Status.NEW, Duration.ofMinutes(30), localDateTime));
+
+        assertEquals(406, send("POST", "/tasks",
+                "{\"name\":\"Busy\",\"duration\":30,\"startTime\":\"2024-05-01T10:10\"}").statusCode(), "Пересечение должно давать 406.");
+        assertEquals(400, send("POST", "/tasks", "{\"name\":").statusCode(), "Неверный JSON должен давать 400.");
+        assertEquals(400, send("GET", "/tasks/abc", null).statusCode(), "Неверный id должен давать 400.");
+        assertEquals(404, send("GET", "/tasks/1/2", null).statusCode());
+        assertEquals(405, send("PUT", "/tasks", "{}").statusCode());
+    }
+
+    @Test
+    void shouldUpdateOnlyExistingTasksAndReturnStoredOnes() throws Exception {
+        Epic epic = manager.createEpic(new Epic("Epic", "Description", null, null));
+        Subtask subtask = manager.createSubtask(new Subtask("Subtask", "Description", Status.DONE, epic.getId(),
+                Duration.ofMinutes(30), localDateTime));
+
+        assertEquals(404, send("POST", "/tasks", "{\"id\":999,\"name\":\"Task\"}").statusCode(),
+                "Обновление несуществующей задачи должно давать 404.");
+        assertEquals(404, send("POST", "/subtasks", "{\"id\":999,\"name\":\"Subtask\",\"epicId\":"
+                + epic.getId() + "}").statusCode(), "Обновление несуществующей подзадачи должно давать 404.");
+        assertEquals(404, send("POST", "/epics", "{\"id\":999,\"name\":\"Epic\"}").statusCode(),
+                "Обновление несуществующего эпика должно давать 404.");
+        assertTrue(manager.getAllTasks().isEmpty(), "Несуществующая задача не должна появиться.");
+
+        HttpResponse<String> updated = send("POST", "/epics", "{\"id\":" + epic.getId()
+                + ",\"name\":\"Renamed\",\"status\":\"NEW\"}");
+        assertEquals(201, updated.statusCode(), "Эпик не обновлен: " + updated.body());
+        assertTrue(updated.body().contains("\"name\":\"Renamed\""), "Эпик не переименован: " + updated.body());
+        assertTrue(updated.body().contains("\"status\":\"DONE\""), "В ответе должен быть сохраненный эпик: " + updated.body());
+        assertTrue(updated.body().contains("\"subtaskIds\":[" + subtask.getId() + "]"),
+                "В ответе должен быть сохраненный эпик: " + updated.body());
+    }
+
+    @Test
+    void shouldNotRecordViewsWhenUpdatingOrListingEpicSubtasks() throws Exception {
+        Task task = manager.createTask(new Task("Task", "Description", Status.NEW, null, null));
+        Epic epic = manager.createEpic(new Epic("Epic", "Description", null, null));
+        Subtask subtask = manager.createSubtask(new Subtask("Subtask", "Description", Status.NEW, epic.getId(),
+                null, null));
+        manager.getTaskById(task.getId());
+        String before = send("GET", "/history", null).body();
+
+        assertEquals(201, send("POST", "/tasks", "{\"id\":" + task.getId() + ",\"name\":\"Renamed\"}").statusCode());
+        assertEquals(201, send("POST", "/subtasks", "{\"id\":" + subtask.getId() + ",\"name\":\"Renamed\",\"epicId\":"
+                + epic.getId() + "}").statusCode());
+        assertEquals(201, send("POST", "/epics", "{\"id\":" + epic.getId() + ",\"name\":\"Renamed\"}").statusCode());
+        assertEquals(200, send("GET", "/epics/" + epic.getId() + "/subtasks", null).statusCode());
+        assertEquals(404, send("POST", "/tasks", "{\"id\":" + subtask.getId() + ",\"name\":\"Task\"}").statusCode(),
+                "Подзадача не должна обновляться через /tasks.");
+
+        assertEquals(1, manager.getHistory().size(), "Обновление не должно попадать в историю просмотров.");
+        assertEquals(before, send("GET", "/history", null).body(), "История изменилась после обновления.");
+    }
+
+    @Test
+    void shouldServeEpicSubtasksHistoryAndPrioritized() throws Exception {
+        Epic epic = manager.createEpic(new Epic("Epic", "Description", null, null));
+        Subtask subtask = manager.createSubtask(new Subtask("Subtask", "Description", Status.DONE, epic.getId(),
+                Duration.ofMinutes(30), localDateTime));
+
+        HttpResponse<String> subtasks = send("GET", "/epics/" + epic.getId() + "/subtasks", null);
+        assertEquals(200, subtasks.statusCode());
+        assertTrue(subtasks.body().contains("\"epicId\":" + epic.getId()), "Неверный список подзадач: " + subtasks.body());
+
+        send("GET", "/subtasks/" + subtask.getId(), null);
+        HttpResponse<String> history = send("GET", "/history", null);
+        assertTrue(history.body().endsWith("\"epicId\":" + epic.getId() + "}]"), "Неверная история: " + history.body());
+
+        HttpResponse<String> prioritized = send("GET", "/prioritized", null);
+        assertTrue(prioritized.body().startsWith("[{\"id\":" + subtask.getId()), "Неверное расписание: " + prioritized.body());
+        assertEquals(404, send("GET", "/epics/999/subtasks", null).statusCode());
+    }
+
+    @Test
+    void shouldHandleParallelRequests() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String body = "{\"name\":\"Task " + i + "\",\"duration\":1,\"startTime\":\""
+                    + localDateTime.plusMinutes(2L * i) + "\"}";
+            responses.add(client.sendAsync(request("POST", "/tasks", body), HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(201, response.join().statusCode());
+        }
+        assertEquals(200, manager.getPrioritizedTasks().size(), "Не все задачи созданы.");
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        return client.send(request(method, path, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package json;
+
+import exceptions.JsonFormatException;
+import manager.ColumnarTaskManager;
+import manager.InMemoryTaskManager;
+import manager.TaskManager;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardJsonTest {
+    private final LocalDateTime localDateTime = LocalDateTime.of(2024, 5, 1, 10, 0);
+    private final Duration duration = Duration.ofMinutes(30);
+
+    @Test
+    void shouldMoveBoardAndRemapEpicIds() {
+        TaskManager source = new InMemoryTaskManager();
+        source.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+        Epic epic = source.createEpic(new Epic("Epic", "Description", null, null));
+        source.createSubtask(new Subtask("Done", "Description", Status.DONE, epic.getId(), duration, localDateTime.plusHours(1)));
+        source.createSubtask(new Subtask("New", "Description", Status.NEW, epic.getId(), duration, localDateTime.plusHours(2)));
+        source.createEpic(new Epic("Empty", "Description", null, null));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BoardJson.export(source, out);
+
+        TaskManager target = new InMemoryTaskManager();
+        target.createTask(new Task("Existing", "Description", Status.NEW, duration, localDateTime.plusDays(1)));
+        int imported = BoardJson.importInto(target, new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(5, imported, "Неверное число загруженных задач.");
+        assertEquals(2, target.getAllTasks().size(), "Неверное количество задач.");
+        Epic importedEpic = target.getAllEpics().stream()
+                .filter(e -> e.getName().equals("Epic")).findFirst().orElseThrow();
+        assertNotEquals(epic.getId(), importedEpic.getId(), "Эпик должен получить новый id.");
+        assertEquals(List.of("Done", "New"), target.getSubtasksByEpicId(importedEpic.getId()).stream()
+                .map(Task::getName).toList(), "Подзадачи не переназначены на новый эпик.");
+        assertEquals(Status.IN_PROGRESS, importedEpic.getStatus(), "Статус эпика не пересчитан.");
+        assertEquals(4, target.getPrioritizedTasks().size(), "Расписание не восстановлено.");
+    }
+
+    @Test
+    void shouldExportStoreBackedBoardWithoutSnapshot() {
+        ColumnarTaskManager source = new ColumnarTaskManager();
+        Epic epic = source.createEpic(new Epic("Epic", "Description", null, null));
+        source.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+        Subtask subtask = source.createSubtask(new Subtask("Subtask", "Description", Status.DONE, epic.getId(),
+                duration, localDateTime.plusHours(1)));
+
+        ByteArrayOutputStream direct = new ByteArrayOutputStream();
+        BoardJson.export(source, direct);
+        ByteArrayOutputStream viaSnapshot = new ByteArrayOutputStream();
+        BoardJson.export(source.snapshot(), viaSnapshot);
+
+        String exported = direct.toString(StandardCharsets.UTF_8);
+        assertEquals(viaSnapshot.toString(StandardCharsets.UTF_8), exported, "Прямая выгрузка отличается от среза.");
+        assertTrue(exported.contains("\"subtaskIds\":[" + subtask.getId() + "]"), "Нет подзадач эпика: " + exported);
+        assertNotSame(source.snapshot(), source.snapshot(), "Срез не должен запоминаться.");
+    }
+
+    @Test
+    void shouldRejectUnknownVersionAndMissingEpic() {
+        TaskManager target = new InMemoryTaskManager();
+
+        assertThrows(JsonFormatException.class, () -> BoardJson.importInto(target,
+                new StringReader("{\"formatVersion\":2,\"tasks\":[]}")), "Неизвестная версия должна отклоняться.");
+        assertThrows(JsonFormatException.class, () -> BoardJson.importInto(target,
+                new StringReader("{\"formatVersion\":1,\"subtasks\":[{\"name\":\"Subtask\",\"epicId\":3}]}")),
+                "Подзадача без эпика в выгрузке должна отклоняться.");
+        assertTrue(target.getAllSubtasks().isEmpty());
+    }
+
+    @Test
+    void shouldExportEmptyBoard() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BoardJson.export(new InMemoryTaskManager(), out);
+
+        assertEquals("{\"formatVersion\":1,\"epics\":[],\"tasks\":[],\"subtasks\":[]}",
+                out.toString(StandardCharsets.UTF_8), "Неверная выгрузка пустой доски.");
+    }
+}
@@ -0,0 +1,91 @@
+package json;
+
+import exceptions.JsonFormatException;
+import manager.TaskType;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskJsonTest {
+
+    @Test
+    void shouldWriteAndReadTaskWithEscapedText() {
+        Task task = new Task("Имя \"в кавычках\"", "Строка\nвторая \\ \t \u0001 😀", Status.IN_PROGRESS,
+                Duration.ofMinutes(45), LocalDateTime.of(2024, 5, 1, 10, 30));
+        task.setId(7);
+
+        Task read = TaskJson.read(reader(write(task)), TaskType.TASK);
+
+        assertEquals(task, read, "Задача изменилась после записи и чтения.");
+        assertEquals(task.getDuration(), read.getDuration(), "Неверная длительность.");
+        assertEquals(task.getStartTime(), read.getStartTime(), "Неверное время начала.");
+    }
+
+    @Test
+    void shouldWriteDerivedFieldsAndSkipThemOnRead() {
+        Epic epic = new Epic("Epic", "Description", null, null);
+        epic.setId(1);
+        epic.addSubtaskId(2);
+        Subtask subtask = new Subtask("Subtask", "Description", Status.DONE, 1, null, null);
+        subtask.setId(2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter writer = new JsonWriter(out);
+        TaskJson.writeAll(writer, List.of(epic, subtask));
+        writer.flush();
+        String json = out.toString(StandardCharsets.UTF_8);
+
+        assertTrue(json.startsWith("[{\"id\":1,\"type\":\"EPIC\""), "Неверный формат списка: " + json);
+        assertTrue(json.contains("\"subtaskIds\":[2]"), "Не выведены подзадачи эпика: " + json);
+        assertTrue(json.contains("\"duration\":null"), "Пустое поле должно выводиться как null: " + json);
+
+        JsonReader reader = reader(json);
+        reader.beginArray();
+        assertTrue(reader.hasNext());
+        assertEquals(epic, TaskJson.read(reader, TaskType.EPIC), "Эпик не прочитан.");
+        assertTrue(reader.hasNext());
+        Subtask readSubtask = (Subtask) TaskJson.read(reader, TaskType.SUBTASK);
+        assertEquals(1, readSubtask.getEpicId(), "Не прочитан эпик подзадачи.");
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        reader.endDocument();
+    }
+
+    @Test
+    void shouldRejectMalformedJson() {
+        assertThrows(JsonFormatException.class,
+                () -> TaskJson.read(reader("{\"name\":\"Task\" \"status\":\"NEW\"}"), TaskType.TASK), "Пропущена запятая.");
+        assertThrows(JsonFormatException.class,
+                () -> TaskJson.read(reader("{\"name\":\"Task\",\"status\":\"LATER\"}"), TaskType.TASK), "Неизвестный статус.");
+        assertThrows(JsonFormatException.class,
+                () -> TaskJson.read(reader("{\"name\":\"Subtask\"}"), TaskType.SUBTASK), "Подзадача без эпика.");
+        assertThrows(JsonFormatException.class, () -> {
+            JsonReader reader = reader("{} {}");
+            reader.skipValue();
+            reader.endDocument();
+        }, "Лишние данные после документа.");
+    }
+
+    private static String write(Task task) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter writer = new JsonWriter(out);
+        TaskJson.write(writer, task);
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static JsonReader reader(String json) {
+        return new JsonReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
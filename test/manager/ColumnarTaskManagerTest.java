@@ -0,0 +1,63 @@
+package manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTaskManagerTest extends TaskManagerTest<ColumnarTaskManager> {
+    @Override
+    protected ColumnarTaskManager createTaskManager() {
+        return new ColumnarTaskManager();
+    }
+
+    // Колоночное хранилище держит время с точностью до минуты
+    @BeforeEach
+    @Override
+    public void setUp() {
+        super.setUp();
+        localDateTime = localDateTime.truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    @Test
+    void shouldReturnDetachedCopies() {
+        Task task = taskManager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+
+        Task copy = taskManager.getTaskById(task.getId()).orElseThrow();
+        copy.setName("Changed");
+        assertEquals("Task", taskManager.getTaskById(task.getId()).orElseThrow().getName(),
+                "Изменение копии не должно попадать в хранилище.");
+
+        taskManager.updateTask(copy);
+        assertEquals("Changed", taskManager.getTaskById(task.getId()).orElseThrow().getName(),
+                "Задача должна обновляться через updateTask.");
+    }
+
+    @Test
+    void shouldStoreManyTasksAndRestoreEpicFields() {
+        Epic epic = taskManager.createEpic(new Epic("Epic", "Description", null, null));
+        for (int i = 0; i < 5_000; i++) {
+            taskManager.createSubtask(new Subtask("Subtask", "Shared description", i % 2 == 0 ? Status.NEW : Status.DONE,
+                    epic.getId(), Duration.ofMinutes(10), localDateTime.plusMinutes(15L * i)));
+        }
+
+        Epic saved = taskManager.getEpicById(epic.getId()).orElseThrow();
+        assertEquals(Status.IN_PROGRESS, saved.getStatus(), "Неверный статус эпика.");
+        assertEquals(localDateTime, saved.getStartTime(), "Неверное начало эпика.");
+        assertEquals(localDateTime.plusMinutes(15L * 4_999 + 10), saved.getEndTime(), "Неверное окончание эпика.");
+        assertEquals(Duration.ofMinutes(50_000), saved.getDuration(), "Неверная длительность эпика.");
+        assertEquals(5_000, saved.getSubtaskIds().size(), "Неверное количество подзадач эпика.");
+
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        assertEquals(5_000, prioritized.size(), "Неверное количество задач в расписании.");
+        assertEquals(localDateTime.plusMinutes(15), prioritized.get(1).getStartTime(), "Нарушен порядок расписания.");
+    }
+}
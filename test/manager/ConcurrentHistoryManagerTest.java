@@ -0,0 +1,135 @@
+package manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Status;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest {
+
+    private HistoryManager historyManager;
+
+    @BeforeEach
+    void setUp() {
+        historyManager = new ConcurrentHistoryManager(4);
+    }
+
+    private Task task(int id) {
+        Task task = new Task("Task " + id, "Description", Status.NEW,
+                Duration.ofMinutes(30), LocalDateTime.now().plusHours(id));
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    void addShouldMoveTaskToEndIfAlreadyExists() {
+        Task task1 = task(1);
+        Task task2 = task(2);
+        Task task3 = task(3);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+        historyManager.add(task1);
+
+        final List<Task> history = historyManager.getHistory();
+        assertEquals(List.of(task2, task3, task1), history, "Повторно добавленная задача должна быть в конце.");
+    }
+
+    @Test
+    void removeShouldApplyAfterPendingAdds() {
+        for (int i = 1; i <= 10; i++) {
+            historyManager.add(task(i));
+        }
+        historyManager.remove(5);
+
+        final List<Task> history = historyManager.getHistory();
+        assertEquals(9, history.size(), "История должна содержать 9 задач после удаления.");
+        assertTrue(history.stream().noneMatch(task -> task.getId() == 5), "История не должна содержать удаленную задачу.");
+    }
+
+    @Test
+    void shouldKeepTaskViewedAgainAfterRemoval() {
+        Task task = task(1);
+        historyManager.add(task);
+        historyManager.remove(1);
+        historyManager.add(task);
+        historyManager.add(task(1 + 1024));
+
+        assertEquals(List.of(task, task(1 + 1024)), historyManager.getHistory(),
+                "Просмотр после удаления должен попасть в историю.");
+    }
+
+    @Test
+    void shouldKeepOrderOfSequentialAddsFromDifferentThreads() throws Exception {
+        List<Task> expected = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            Task task = task(i);
+            Thread thread = new Thread(() -> historyManager.add(task));
+            thread.start();
+            thread.join();
+            expected.add(task);
+        }
+        assertEquals(expected, historyManager.getHistory(), "Просмотры разных потоков поменялись местами.");
+    }
+
+    @Test
+    void shouldKeepOrderOfSequentialAddsAcrossBufferDrains() {
+        List<Task> expected = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            Task task = task(i);
+            historyManager.add(task);
+            expected.add(task);
+        }
+        assertEquals(expected, historyManager.getHistory(), "Порядок истории нарушен.");
+    }
+
+    @Test
+    void shouldNotLoseViewsFromConcurrentThreads() throws Exception {
+        int threads = 8;
+        int viewsPerThread = 5_000;
+        int distinctTasks = 500;
+        List<Task> pool = new ArrayList<>();
+        for (int i = 1; i <= distinctTasks; i++) {
+            pool.add(task(i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int shift = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < viewsPerThread; i++) {
+                        historyManager.add(pool.get((i + shift) % distinctTasks));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Task> history = historyManager.getHistory();
+        assertEquals(distinctTasks, history.size(), "В истории должны быть все просмотренные задачи.");
+        assertEquals(distinctTasks, new HashSet<>(history).size(), "История не должна содержать дубликатов.");
+    }
+}
@@ -0,0 +1,233 @@
+package manager;
+
+import exceptions.ManagerOverlapException;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    @Test
+    void shouldCreateSubtasksConcurrently() throws Exception {
+        int epicsCount = 8;
+        int subtasksPerEpic = 200;
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        List<Epic> createdEpics = new ArrayList<>();
+        for (int i = 0; i < epicsCount; i++) {
+            createdEpics.add(taskManager.createEpic(new Epic("Epic " + i, "Description", null, null)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(epicsCount);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int e = 0; e < epicsCount; e++) {
+                Epic epic = createdEpics.get(e);
+                LocalDateTime epicStart = base.plusMinutes((long) e * subtasksPerEpic);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < subtasksPerEpic; i++) {
+                        taskManager.createSubtask(new Subtask("Subtask", "Description", Status.DONE,
+                                epic.getId(), Duration.ofMinutes(1), epicStart.plusMinutes(i)));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Subtask> allSubtasks = taskManager.getAllSubtasks();
+        assertEquals(epicsCount * subtasksPerEpic, allSubtasks.size(), "Потеряны подзадачи.");
+        assertEquals(allSubtasks.size(), new HashSet<>(allSubtasks.stream().map(Task::getId).toList()).size(),
+                "Id подзадач должны быть уникальны.");
+        for (Epic epic : createdEpics) {
+            assertEquals(subtasksPerEpic, taskManager.getSubtasksByEpicId(epic.getId()).size(),
+                    "Неверное количество подзадач эпика.");
+            assertEquals(Status.DONE, epic.getStatus(), "Неверный статус эпика.");
+        }
+    }
+
+    @Test
+    void shouldNotScheduleOverlappingTasksConcurrently() throws Exception {
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        int created = 0;
+        try {
+            for (int i = 0; i < threads; i++) {
+                int offset = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        taskManager.createTask(new Task("Task", "Description", Status.NEW,
+                                Duration.ofMinutes(60), startTime.plusMinutes(offset)));
+                        return true;
+                    } catch (ManagerOverlapException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> future : futures) {
+                if (future.get(30, TimeUnit.SECONDS)) {
+                    created++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, created, "Пересекающиеся задачи не должны создаваться.");
+        assertEquals(1, taskManager.getPrioritizedTasks().size(), "Неверное количество задач в расписании.");
+    }
+
+    @Test
+    void shouldNotResurrectTaskDeletedDuringUpdate() throws Exception {
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        Task task = taskManager.createTask(new Task("Task", "Description", Status.NEW, Duration.ofMinutes(1), base));
+        Task changed = new Task("Changed", "Description", Status.IN_PROGRESS, Duration.ofMinutes(1),
+                base.plusMinutes(2));
+        changed.setId(task.getId());
+
+        // Обновление задерживается внутри проверки пересечений, уже убедившись, что задача
+        // есть, а удаление начинается именно в этот момент.
+        CountDownLatch updateChecking = new CountDownLatch(1);
+        Thread[] updater = new Thread[1];
+        taskManager.setOverlapScanListener(scanned -> {
+            if (Thread.currentThread() == updater[0]) {
+                updateChecking.countDown();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        updater[0] = new Thread(() -> taskManager.updateTask(changed));
+        updater[0].start();
+        assertTrue(updateChecking.await(30, TimeUnit.SECONDS), "Обновление не дошло до проверки.");
+        taskManager.deleteTaskById(task.getId());
+        updater[0].join();
+
+        assertTrue(taskManager.getTaskById(task.getId()).isEmpty(), "Удаленная задача вернулась.");
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty(), "Время удаленной задачи осталось занятым.");
+    }
+
+    @Test
+    void shouldKeepEpicsConsistentWhileSubtasksMoveConcurrently() throws Exception {
+        int threads = 4;
+        int subtasksPerThread = 10;
+        List<Epic> targets = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            targets.add(taskManager.createEpic(new Epic("Epic " + i, "Description", null, null)));
+        }
+        List<Subtask> created = new ArrayList<>();
+        for (int i = 0; i < threads * subtasksPerThread; i++) {
+            created.add(taskManager.createSubtask(new Subtask("Subtask " + i, "Description", Status.NEW,
+                    targets.get(i % threads).getId(), null, null)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                List<Subtask> own = created.subList(t * subtasksPerThread, (t + 1) * subtasksPerThread);
+                int shift = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 5_000; i++) {
+                        Subtask source = own.get(i % own.size());
+                        Subtask moved = new Subtask(source.getName(), source.getDescription(),
+                                i % 3 == 0 ? Status.DONE : Status.NEW, targets.get((i + shift) % threads).getId(),
+                                null, null);
+                        moved.setId(source.getId());
+                        taskManager.updateSubtask(moved);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Epic target : targets) {
+            Epic epic = taskManager.getEpicById(target.getId()).orElseThrow();
+            List<Subtask> expected = taskManager.getAllSubtasks().stream()
+                    .filter(subtask -> subtask.getEpicId() == epic.getId()).toList();
+            assertEquals(expected.stream().map(Task::getId).sorted().toList().toString(),
+                    epic.getSubtaskIds().toString(), "Id подзадач эпика разошлись с подзадачами.");
+            Status status = expected.isEmpty() || expected.stream().allMatch(s -> s.getStatus() == Status.NEW)
+                    ? Status.NEW
+                    : expected.stream().allMatch(s -> s.getStatus() == Status.DONE) ? Status.DONE : Status.IN_PROGRESS;
+            assertEquals(status, epic.getStatus(), "Статус эпика разошелся с подзадачами.");
+        }
+    }
+
+    @Test
+    void shouldTakeConsistentSnapshotsDuringWrites() throws Exception {
+        Epic epic = taskManager.createEpic(new Epic("Epic", "Description", null, null));
+        LocalDateTime base = LocalDateTime.now().plusDays(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    Subtask subtask = taskManager.createSubtask(new Subtask("Subtask", "Description", Status.DONE,
+                            epic.getId(), Duration.ofMinutes(1), base.plusMinutes(i)));
+                    if (i % 2 == 0) {
+                        taskManager.deleteSubtaskById(subtask.getId());
+                    }
+                }
+            });
+            Future<?> reader = executor.submit(() -> {
+                long lastVersion = -1;
+                while (!writer.isDone()) {
+                    TaskSnapshot snapshot = taskManager.snapshot();
+                    assertTrue(snapshot.getVersion() >= lastVersion, "Версия среза не должна убывать.");
+                    lastVersion = snapshot.getVersion();
+                    Epic snapshotEpic = snapshot.getEpicById(epic.getId()).orElseThrow();
+                    List<Subtask> subtasks = snapshot.getSubtasksByEpicId(epic.getId());
+                    assertEquals(subtasks.size(), snapshotEpic.getSubtaskIds().size(),
+                            "Подзадачи эпика в срезе рассогласованы.");
+                    Status expected = subtasks.isEmpty() ? Status.NEW : Status.DONE;
+                    assertEquals(expected, snapshotEpic.getStatus(), "Статус эпика не соответствует подзадачам среза.");
+                }
+            });
+            writer.get(30, TimeUnit.SECONDS);
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1_000, taskManager.snapshot().getAllSubtasks().size(), "Итоговый срез неполон.");
+    }
+}
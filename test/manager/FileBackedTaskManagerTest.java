@@ -1,6 +1,7 @@
 package manager;
 
 import exceptions.ManagerLoadException;
+import exceptions.ManagerSaveException;
 import org.junit.jupiter.api.Test;
 import tasks.Epic;
 import tasks.Status;
@@ -10,7 +11,11 @@ import tasks.Task;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -90,6 +95,218 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         assertTrue(loadedManager.getAllSubtasks().isEmpty(), "Подзадачи не пусты.");
     }
 
+    @Test
+    void shouldRestoreEpicSubtasksAfterLoad() {
+        Epic epic = new Epic("Test Epic", "Epic Description", duration, localDateTime);
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Test Subtask", "Subtask Description", Status.DONE, epic.getId(), duration, localDateTime);
+        taskManager.createSubtask(subtask);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+
+        assertEquals(List.of(subtask), loadedManager.getSubtasksByEpicId(epic.getId()), "Подзадачи эпика не восстановлены");
+        assertEquals(Status.DONE, loadedManager.getEpicById(epic.getId()).get().getStatus(), "Статус эпика не восстановлен");
+        assertEquals(1, loadedManager.getPrioritizedTasks().size(), "Расписание не восстановлено");
+    }
+
+    @Test
+    void shouldRestoreStateFromJournal() {
+        FileBackedTaskManager journaledManager = new FileBackedTaskManager(testFile, true);
+        Task task = journaledManager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+        Task deletedTask = journaledManager.createTask(new Task("Deleted", "Description", Status.NEW, duration, localDateTime.plusMinutes(60)));
+        Epic epic = journaledManager.createEpic(new Epic("Epic", "Description", duration, localDateTime));
+        Subtask subtask = journaledManager.createSubtask(new Subtask("Subtask", "Description", Status.NEW, epic.getId(), duration, localDateTime.plusMinutes(120)));
+
+        task.setStatus(Status.DONE);
+        journaledManager.updateTask(task);
+        journaledManager.deleteTaskById(deletedTask.getId());
+
+        assertTrue(new File(testFile.getPath() + FileBackedTaskManager.JOURNAL_SUFFIX).exists(), "Журнал не создан");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile, true);
+
+        assertEquals(List.of(task), loadedManager.getAllTasks(), "Задачи не восстановлены из журнала");
+        assertEquals(Status.DONE, loadedManager.getAllTasks().get(0).getStatus(), "Обновление не восстановлено из журнала");
+        assertEquals(List.of(subtask), loadedManager.getSubtasksByEpicId(epic.getId()), "Подзадачи не восстановлены из журнала");
+    }
+
+    @Test
+    void shouldIgnoreTornLastJournalRecord() throws IOException {
+        FileBackedTaskManager journaledManager = new FileBackedTaskManager(testFile, true);
+        journaledManager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+        journaledManager.createTask(new Task("Other", "Description", Status.NEW, duration, localDateTime.plusHours(1)));
+        Path journal = Path.of(testFile.getPath() + FileBackedTaskManager.JOURNAL_SUFFIX);
+        Files.writeString(journal, "0badf00d U,99,TASK,Torn", StandardOpenOption.APPEND);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile, true);
+        assertEquals(2, loadedManager.getAllTasks().size(), "Оборванная запись должна отбрасываться");
+        loadedManager.createTask(new Task("After", "Description", Status.NEW, duration, localDateTime.plusHours(2)));
+
+        assertEquals(3, FileBackedTaskManager.loadFromFile(testFile, true).getAllTasks().size(),
+                "Запись после восстановления не должна дописываться к обрывку");
+    }
+
+    @Test
+    void shouldFailOnCorruptedJournalRecordInTheMiddle() throws IOException {
+        FileBackedTaskManager journaledManager = new FileBackedTaskManager(testFile, true);
+        journaledManager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+        journaledManager.createTask(new Task("Other", "Description", Status.NEW, duration, localDateTime.plusHours(1)));
+        Path journal = Path.of(testFile.getPath() + FileBackedTaskManager.JOURNAL_SUFFIX);
+        Files.writeString(journal, Files.readString(journal).replaceFirst("Task", "Tusk"));
+
+        assertThrows(ManagerLoadException.class, () -> FileBackedTaskManager.loadFromFile(testFile, true),
+                "Поврежденная запись в середине журнала должна давать ошибку");
+    }
+
+    @Test
+    void shouldPersistBatchOnceAndNothingWhenItFails() {
+        FileBackedTaskManager journaledManager = new FileBackedTaskManager(testFile, true);
+        int[] saves = {0};
+        journaledManager.setSaveListener((bytes, nanos) -> saves[0]++);
+
+        journaledManager.batch(manager -> {
+            Epic epic = manager.createEpic(new Epic("Epic", "Description", null, null));
+            manager.createTasks(List.of(new Task("Task", "Description", Status.NEW, duration, localDateTime),
+                    new Task("Other", "Description", Status.NEW, duration, localDateTime.plusHours(1))));
+            manager.createSubtask(new Subtask("Subtask", "Description", Status.NEW, epic.getId(), duration, localDateTime.plusHours(2)));
+        });
+        assertEquals(1, saves[0], "Пакет должен сохраняться один раз");
+
+        assertThrows(IllegalStateException.class, () -> journaledManager.batch(manager -> {
+            manager.deleteAllTasks();
+            throw new IllegalStateException("Отмена");
+        }));
+        assertEquals(1, saves[0], "Отмененный пакет не должен сохраняться");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile, true);
+        assertEquals(2, loadedManager.getAllTasks().size(), "Задачи пакета не восстановлены");
+        assertEquals(1, loadedManager.getAllSubtasks().size(), "Подзадача пакета не восстановлена");
+    }
+
+    @Test
+    void shouldCompactJournalIntoSnapshot() {
+        FileBackedTaskManager journaledManager = new FileBackedTaskManager(testFile, true);
+        Task task = journaledManager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+
+        journaledManager.compact();
+
+        assertFalse(new File(testFile.getPath() + FileBackedTaskManager.JOURNAL_SUFFIX).exists(), "Журнал не удален после сжатия");
+        assertEquals(List.of(task), FileBackedTaskManager.loadFromFile(testFile).getAllTasks(), "Снимок не содержит задачи");
+    }
+
+    @Test
+    void shouldPersistGroupCommitOnFlush() {
+        FileBackedTaskManager groupCommitManager = new FileBackedTaskManager(testFile, false,
+                DurabilityPolicy.groupCommit(Duration.ofHours(1), 1_000));
+        Task task = groupCommitManager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+
+        assertTrue(FileBackedTaskManager.loadFromFile(testFile).getAllTasks().isEmpty(),
+                "Изменения не должны записываться до окончания окна");
+
+        groupCommitManager.flush();
+
+        assertEquals(List.of(task), FileBackedTaskManager.loadFromFile(testFile).getAllTasks(), "Задача не записана после flush");
+        groupCommitManager.close();
+    }
+
+    @Test
+    void shouldPersistAsyncJournalWhenFutureCompletes() {
+        FileBackedTaskManager asyncManager = new FileBackedTaskManager(testFile, true, DurabilityPolicy.async());
+        Epic epic = asyncManager.createEpic(new Epic("Epic", "Description", duration, localDateTime));
+        Subtask subtask = asyncManager.createSubtask(new Subtask("Subtask", "Description", Status.NEW, epic.getId(), duration, localDateTime));
+
+        asyncManager.flushAsync().join();
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile, true);
+        assertEquals(List.of(subtask), loadedManager.getSubtasksByEpicId(epic.getId()), "Подзадача не записана в журнал");
+        asyncManager.close();
+    }
+
+    @Test
+    void shouldReportBackgroundWriteFailureToNextChange() {
+        File unwritable = new File(testFile.getPath() + ".missing", "tasks.csv");
+        FileBackedTaskManager asyncManager = new FileBackedTaskManager(unwritable, true, DurabilityPolicy.async());
+        asyncManager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+
+        CompletionException e = assertThrows(CompletionException.class, () -> asyncManager.flushAsync().join(),
+                "flush() должен сообщать об ошибке записи");
+        assertInstanceOf(ManagerSaveException.class, e.getCause());
+        assertThrows(ManagerSaveException.class, () -> asyncManager.createTask(new Task("Next", "Description",
+                Status.NEW, duration, localDateTime.plusHours(1))), "Изменение должно узнать об ошибке фоновой записи");
+        assertEquals(2, asyncManager.getAllTasks().size(), "Изменение остается в памяти и в очереди записи");
+    }
+
+    @Test
+    void shouldSaveAndLoadBinarySnapshot() {
+        FileBackedTaskManager binaryManager = new FileBackedTaskManager(testFile, false,
+                DurabilityPolicy.syncEach(), SnapshotCodec.binary());
+        Task task = binaryManager.createTask(new Task("Задача, с запятой", "Описание", Status.NEW, duration, localDateTime));
+        Epic epic = binaryManager.createEpic(new Epic("Epic", null, null, null));
+        Subtask subtask = binaryManager.createSubtask(new Subtask("Subtask", "Description", Status.IN_PROGRESS, epic.getId(), duration, localDateTime.plusMinutes(60)));
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+
+        assertSame(SnapshotCodec.binary(), loadedManager.getCodec(), "Формат снимка не определен");
+        Task loadedTask = loadedManager.getTaskById(task.getId()).get();
+        assertEquals(task, loadedTask, "Задачи не совпадают");
+        assertEquals(task.getStartTime(), loadedTask.getStartTime(), "Время начала не совпадает");
+        assertEquals(task.getDuration(), loadedTask.getDuration(), "Длительность не совпадает");
+        assertEquals(List.of(subtask), loadedManager.getSubtasksByEpicId(epic.getId()), "Подзадачи не совпадают");
+        assertEquals(Status.IN_PROGRESS, loadedManager.getEpicById(epic.getId()).get().getStatus(), "Статус эпика не совпадает");
+    }
+
+    @Test
+    void shouldExportBinarySnapshotToCsv() throws IOException {
+        FileBackedTaskManager binaryManager = new FileBackedTaskManager(testFile, false,
+                DurabilityPolicy.syncEach(), SnapshotCodec.binary());
+        Task task = binaryManager.createTask(new Task("Task", "Description", Status.DONE, duration, localDateTime));
+        File csvFile = Files.createTempFile("export", "csv").toFile();
+
+        binaryManager.exportTo(csvFile, SnapshotCodec.csv());
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(csvFile);
+        assertSame(SnapshotCodec.csv(), loadedManager.getCodec(), "Формат выгрузки должен быть CSV");
+        assertEquals(List.of(task), loadedManager.getAllTasks(), "Задачи не совпадают");
+    }
+
+    @Test
+    void shouldLoadSnapshotLargerThanMappingThreshold() {
+        FileBackedTaskManager bulkManager = new FileBackedTaskManager(testFile, false,
+                DurabilityPolicy.groupCommit(Duration.ofHours(1), Integer.MAX_VALUE));
+        String description = "Описание ".repeat(10);
+        for (int i = 0; i < 10_000; i++) {
+            bulkManager.createTask(new Task("Task " + i, description, Status.NEW, duration, localDateTime.plusHours(i)));
+        }
+        bulkManager.close();
+        assertTrue(testFile.length() > (1 << 20), "Снимок должен быть больше порога отображения");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(testFile);
+
+        List<Task> prioritized = loadedManager.getPrioritizedTasks();
+        assertEquals(10_000, prioritized.size(), "Неверное количество задач");
+        assertEquals(localDateTime.plusHours(9_999), prioritized.get(9_999).getStartTime(), "Время начала не совпадает");
+        assertEquals(description, prioritized.get(0).getDescription(), "Описание не совпадает");
+    }
+
+    @Test
+    void shouldLoadLargeSnapshotInParallel() {
+        FileBackedTaskManager bulkManager = new FileBackedTaskManager(testFile, false,
+                DurabilityPolicy.groupCommit(Duration.ofHours(1), Integer.MAX_VALUE));
+        Epic epic = bulkManager.createEpic(new Epic("Epic", "Description", duration, localDateTime));
+        String description = "Описание ".repeat(20);
+        for (int i = 0; i < 10_000; i++) {
+            bulkManager.createSubtask(new Subtask("Subtask " + i, description, Status.DONE, epic.getId(), duration, localDateTime.plusHours(i)));
+        }
+        bulkManager.close();
+        assertTrue(testFile.length() > (2 << 20), "Снимок должен делиться на несколько частей");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFileInParallel(testFile);
+
+        assertEquals(10_000, loadedManager.getSubtasksByEpicId(epic.getId()).size(), "Неверное количество подзадач");
+        assertEquals(Status.DONE, loadedManager.getEpicById(epic.getId()).get().getStatus(), "Статус эпика не восстановлен");
+        assertEquals(10_000, loadedManager.getPrioritizedTasks().size(), "Расписание не восстановлено");
+    }
+
     @Test
     void shouldThrowExceptionWhenFileNotFound() {
         File nonExistentFile = new File("non_existent_file.txt");
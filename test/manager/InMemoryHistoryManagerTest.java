@@ -5,8 +5,13 @@ import org.junit.jupiter.api.Test;
 import tasks.Status;
 import tasks.Task;
 
+import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ConcurrentModificationException;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -92,4 +97,103 @@ class InMemoryHistoryManagerTest {
         assertEquals(task1, history.get(2), "Третья задача в истории не совпадает.");
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldEvictOldestTaskWhenCapacityExceeded() {
+        historyManager = new InMemoryHistoryManager(2);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task1);
+        historyManager.add(task3);
+
+        final List<Task> history = historyManager.getHistory();
+        assertEquals(List.of(task1, task3), history, "Должна быть вытеснена самая давно просмотренная задача.");
+    }
+
+    @Test
+    void shouldExpireTasksNotViewedWithinTimeout() {
+        MutableClock clock = new MutableClock();
+        historyManager = new InMemoryHistoryManager(10, Duration.ofMinutes(5), clock);
+        historyManager.add(task1);
+        clock.advance(Duration.ofMinutes(3));
+        historyManager.add(task2);
+        clock.advance(Duration.ofMinutes(3));
+
+        assertEquals(List.of(task2), historyManager.getHistory(), "Устаревший просмотр должен удаляться.");
+
+        historyManager.add(task2);
+        clock.advance(Duration.ofMinutes(4));
+        assertEquals(List.of(task2), historyManager.getHistory(), "Повторный просмотр продлевает хранение.");
+    }
+
+    @Test
+    void approximateSizeShouldNotExpireViews() {
+        MutableClock clock = new MutableClock();
+        historyManager = new InMemoryHistoryManager(10, Duration.ofMinutes(5), clock);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        clock.advance(Duration.ofMinutes(6));
+
+        assertEquals(2, historyManager.approximateSize(), "approximateSize не должен вытеснять просмотры.");
+        assertEquals(0, historyManager.size(), "Устаревшие просмотры должны удаляться.");
+        assertEquals(0, historyManager.approximateSize(), "Размер должен обновиться после вытеснения.");
+    }
+
+    @Test
+    void shouldRejectNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryHistoryManager(0));
+    }
+
+    @Test
+    void getHistoryPageShouldSkipOffset() {
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+
+        assertEquals(List.of(task2), historyManager.getHistory(1, 1), "Неверная страница истории.");
+        assertEquals(List.of(), historyManager.getHistory(5, 10), "Страница за концом истории должна быть пустой.");
+        assertThrows(IllegalArgumentException.class, () -> historyManager.getHistory(-1, 1));
+    }
+
+    @Test
+    void getRecentHistoryShouldStartFromLastView() {
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+
+        assertEquals(List.of(task3, task2), historyManager.getRecentHistory(2), "Неверные последние просмотры.");
+    }
+
+    @Test
+    void streamHistoryShouldFailOnModificationDuringTraversal() {
+        historyManager.add(task1);
+        historyManager.add(task2);
+
+        assertEquals(List.of(task1, task2), historyManager.streamHistory().toList(), "Поток истории не совпадает.");
+        assertThrows(ConcurrentModificationException.class,
+                () -> historyManager.streamHistory().forEach(task -> historyManager.add(task3)));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+}
@@ -34,4 +34,18 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         assertEquals(task2, prioritized.get(0), "Первая задача должна быть task2.");
         assertEquals(task1, prioritized.get(1), "Вторая задача должна быть task1.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReuseImmutablePrioritizedViewUntilScheduleChanges() {
+        Task task = taskManager.createTask(new Task("Task", "Description", Status.NEW,
+                Duration.ofMinutes(30), LocalDateTime.now()));
+
+        List<Task> view = taskManager.getPrioritizedTasks();
+        assertSame(view, taskManager.getPrioritizedTasks(), "Без изменений расписание не должно копироваться.");
+        assertThrows(UnsupportedOperationException.class, () -> view.add(task));
+
+        taskManager.deleteTaskById(task.getId());
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty(), "Кэш расписания не сброшен после удаления.");
+        assertEquals(1, view.size(), "Выданный список не должен меняться.");
+    }
+}
@@ -0,0 +1,125 @@
+package manager;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+import exceptions.ManagerLoadException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTaskManagerTest extends TaskManagerTest<OffHeapTaskManager> {
+    private File file;
+
+    @Override
+    protected OffHeapTaskManager createTaskManager() {
+        try {
+            file = File.createTempFile("tasks", ".bin");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        file.delete();
+        return new OffHeapTaskManager(file);
+    }
+
+    // Записи хранят время с точностью до минуты
+    @BeforeEach
+    @Override
+    public void setUp() {
+        super.setUp();
+        localDateTime = localDateTime.truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        taskManager.close();
+        Files.deleteIfExists(file.toPath());
+        Files.deleteIfExists(new File(file.getPath() + MappedTaskStore.STRINGS_SUFFIX).toPath());
+    }
+
+    @Test
+    void shouldRestoreTasksAfterReopen() {
+        Task task = taskManager.createTask(new Task("Task", "Описание", Status.NEW, duration, localDateTime));
+        Epic epic = taskManager.createEpic(new Epic("Epic", null, null, null));
+        Subtask first = taskManager.createSubtask(new Subtask("First", "Description", Status.DONE, epic.getId(),
+                duration, localDateTime.plusHours(1)));
+        taskManager.createSubtask(new Subtask("Second", "Description", Status.NEW, epic.getId(),
+                duration, localDateTime.plusHours(2)));
+        taskManager.deleteSubtaskById(first.getId());
+        taskManager.close();
+
+        taskManager = new OffHeapTaskManager(file);
+
+        Task savedTask = taskManager.getTaskById(task.getId()).orElseThrow();
+        assertEquals("Описание", savedTask.getDescription(), "Неверное описание задачи.");
+        assertEquals(localDateTime, savedTask.getStartTime(), "Неверное начало задачи.");
+
+        Epic savedEpic = taskManager.getEpicById(epic.getId()).orElseThrow();
+        assertNull(savedEpic.getDescription(), "Пустое описание эпика должно сохраниться.");
+        assertEquals(Status.NEW, savedEpic.getStatus(), "Неверный статус эпика.");
+        assertEquals(localDateTime.plusHours(2), savedEpic.getStartTime(), "Неверное начало эпика.");
+        assertEquals(localDateTime.plusHours(2).plus(duration), savedEpic.getEndTime(), "Неверное окончание эпика.");
+        assertEquals(1, savedEpic.getSubtaskIds().size(), "Неверное количество подзадач эпика.");
+
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        assertEquals(2, prioritized.size(), "Неверное количество задач в расписании.");
+        assertEquals(task.getId(), prioritized.get(0).getId(), "Нарушен порядок расписания.");
+
+        Task next = taskManager.createTask(new Task("Next", "Description", Status.NEW, null, null));
+        assertTrue(next.getId() > first.getId(), "Новые id не должны повторять уже выданные.");
+    }
+
+    @Test
+    void shouldCloseFilesWhenRejectingForeignFile() throws IOException {
+        File foreign = File.createTempFile("foreign", ".bin");
+        File foreignStrings = new File(foreign.getPath() + MappedTaskStore.STRINGS_SUFFIX);
+        try {
+            byte[] garbage = new byte[4096];
+            Arrays.fill(garbage, (byte) 0x7F);
+            Files.write(foreign.toPath(), garbage);
+            long before = openFiles();
+            for (int i = 0; i < 20; i++) {
+                assertThrows(ManagerLoadException.class, () -> new OffHeapTaskManager(foreign),
+                        "Чужой файл должен отклоняться.");
+            }
+            if (before >= 0) {
+                assertTrue(openFiles() - before < 10, "Каналы отклоненного файла не закрыты.");
+            }
+        } finally {
+            Files.deleteIfExists(foreign.toPath());
+            Files.deleteIfExists(foreignStrings.toPath());
+        }
+    }
+
+    private static long openFiles() {
+        return ManagementFactory.getOperatingSystemMXBean() instanceof UnixOperatingSystemMXBean unix
+                ? unix.getOpenFileDescriptorCount() : -1;
+    }
+
+    @Test
+    void shouldKeepUnchangedStringsOnUpdate() {
+        Task task = taskManager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+        task.setStatus(Status.DONE);
+        taskManager.updateTask(task);
+        task.setName("Renamed");
+        taskManager.updateTask(task);
+
+        Task saved = taskManager.getTaskById(task.getId()).orElseThrow();
+        assertEquals("Renamed", saved.getName(), "Неверное имя задачи.");
+        assertEquals("Description", saved.getDescription(), "Неверное описание задачи.");
+        assertEquals(Status.DONE, saved.getStatus(), "Неверный статус задачи.");
+    }
+}
@@ -0,0 +1,167 @@
+package manager;
+
+import exceptions.ManagerOverlapException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedTaskManagerTest extends TaskManagerTest<ShardedTaskManager> {
+    private static final int SHARDS = 4;
+
+    @Override
+    protected ShardedTaskManager createTaskManager() {
+        return new ShardedTaskManager(SHARDS);
+    }
+
+    // Подзадача живет в шарде своего эпика, поэтому перенос возможен только в пределах шарда
+    @Override
+    protected Epic createEpicNextTo(Epic from) {
+        Epic epic;
+        do {
+            epic = taskManager.createEpic(new Epic("Other epic", "Description", null, null));
+        } while (Math.floorMod(epic.getId(), SHARDS) != Math.floorMod(from.getId(), SHARDS));
+        return epic;
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskManager.close();
+    }
+
+    @Test
+    void shouldKeepSubtasksInEpicShardAndMergeShardsInOrder() {
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < SHARDS * 2; i++) {
+            epics.add(taskManager.createEpic(new Epic("Epic " + i, "Description", null, null)));
+        }
+        int slot = 0;
+        for (Epic epic : epics) {
+            for (int i = 0; i < 3; i++) {
+                Subtask subtask = taskManager.createSubtask(new Subtask("Subtask", "Description", Status.NEW,
+                        epic.getId(), duration, localDateTime.plusHours(slot++)));
+                assertEquals(Math.floorMod(epic.getId(), SHARDS), Math.floorMod(subtask.getId(), SHARDS),
+                        "Подзадача должна попасть в шард своего эпика.");
+            }
+            taskManager.createTask(new Task("Task", "Description", Status.NEW, duration,
+                    localDateTime.minusHours(slot++)));
+        }
+
+        List<Integer> epicIds = taskManager.getAllEpics().stream().map(Task::getId).toList();
+        assertEquals(epics.stream().map(Task::getId).toList(), epicIds, "Эпики должны идти по порядку создания.");
+        assertEquals(SHARDS, taskManager.getAllTasks().stream()
+                .map(task -> Math.floorMod(task.getId(), SHARDS)).distinct().count(),
+                "Задачи должны распределиться по всем шардам.");
+        List<Task> prioritized = taskManager.getPrioritizedTasks();
+        assertEquals(epics.size() * 4, prioritized.size(), "Неверный размер расписания.");
+        assertEquals(prioritized.stream().sorted(Comparator.comparing(Task::getStartTime)).toList(), prioritized,
+                "Слияние шардов нарушило порядок расписания.");
+        assertSame(prioritized, taskManager.getPrioritizedTasks(), "Без изменений расписание не должно пересобираться.");
+        assertEquals(prioritized.subList(0, 5), taskManager.getPrioritizedTasks(null, null, 5),
+                "Неверная страница расписания.");
+        assertEquals(epics.size() * 5, taskManager.snapshot().size(), "Общий срез неполон.");
+    }
+
+    @Test
+    void shouldNotScheduleOverlappingTasksInDifferentShards() throws Exception {
+        LocalDateTime startTime = localDateTime.plusDays(1);
+        int threads = SHARDS * 2;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        int created = 0;
+        try {
+            for (int i = 0; i < threads; i++) {
+                int offset = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        taskManager.createTask(new Task("Task", "Description", Status.NEW,
+                                Duration.ofMinutes(60), startTime.plusMinutes(offset)));
+                        return true;
+                    } catch (ManagerOverlapException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> future : futures) {
+                if (future.get(30, TimeUnit.SECONDS)) {
+                    created++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, created, "Пересекающиеся задачи не должны создаваться.");
+        assertEquals(1, taskManager.getPrioritizedTasks().size(), "Неверное количество задач в расписании.");
+    }
+
+    @Test
+    void shouldWriteToShardsConcurrently() throws Exception {
+        int writers = SHARDS * 2;
+        int subtasksPerEpic = 200;
+        LocalDateTime base = localDateTime.plusDays(1);
+        List<Epic> createdEpics = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            createdEpics.add(taskManager.createEpic(new Epic("Epic " + i, "Description", null, null)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int e = 0; e < writers; e++) {
+                Epic epic = createdEpics.get(e);
+                LocalDateTime epicStart = base.plusMinutes((long) e * subtasksPerEpic);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < subtasksPerEpic; i++) {
+                        Subtask subtask = taskManager.createSubtask(new Subtask("Subtask", "Description",
+                                Status.DONE, epic.getId(), Duration.ofMinutes(1), epicStart.plusMinutes(i)));
+                        if (i % 2 == 0) {
+                            taskManager.deleteSubtaskById(subtask.getId());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Subtask> allSubtasks = taskManager.getAllSubtasks();
+        assertEquals(writers * subtasksPerEpic / 2, allSubtasks.size(), "Потеряны подзадачи.");
+        assertEquals(allSubtasks.size(), new HashSet<>(allSubtasks.stream().map(Task::getId).toList()).size(),
+                "Id подзадач должны быть уникальны.");
+        for (Epic epic : createdEpics) {
+            assertEquals(subtasksPerEpic / 2, taskManager.getSubtasksByEpicId(epic.getId()).size(),
+                    "Неверное количество подзадач эпика.");
+            assertEquals(Status.DONE, taskManager.getEpicById(epic.getId()).orElseThrow().getStatus(),
+                    "Неверный статус эпика.");
+        }
+        assertThrows(ManagerOverlapException.class, () -> taskManager.createTask(new Task("Busy", "Description",
+                Status.NEW, Duration.ofMinutes(1), base.plusMinutes(1))), "Время подзадачи другого шарда занято.");
+    }
+}
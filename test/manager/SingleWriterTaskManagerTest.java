@@ -0,0 +1,118 @@
+package manager;
+
+import exceptions.ManagerOverlapException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tasks.Epic;
+import tasks.Status;
+import tasks.Subtask;
+import tasks.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleWriterTaskManagerTest {
+    private SingleWriterTaskManager manager;
+    private Duration duration;
+    private LocalDateTime localDateTime;
+
+    @BeforeEach
+    void setUp() {
+        manager = new SingleWriterTaskManager(new InMemoryTaskManager());
+        duration = Duration.ofMinutes(30);
+        localDateTime = LocalDateTime.of(2024, 5, 1, 10, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void shouldApplyWritesFromManyThreadsInOrder() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        List<CompletableFuture<Task>> created = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    CompletableFuture<Task> future = manager.createTask(new Task("Task", "Description", Status.NEW,
+                            Duration.ofMinutes(1), localDateTime.plusMinutes(2L * (i * 4 + offset))));
+                    synchronized (created) {
+                        created.add(future);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        created.forEach(CompletableFuture::join);
+
+        assertEquals(1_000, manager.getAllTasks().join().size(), "Не все задачи созданы.");
+        assertEquals(1_000, manager.snapshot().size(), "Срез не опубликован.");
+    }
+
+    @Test
+    void shouldServeReadsFromPublishedSnapshotAfterWriteCompletes() {
+        Epic epic = manager.createEpic(new Epic("Epic", "Description", null, null)).join();
+        Subtask subtask = manager.createSubtask(new Subtask("Subtask", "Description", Status.DONE, epic.getId(),
+                duration, localDateTime)).join();
+
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).join().orElseThrow().getStatus(),
+                "Чтение должно видеть завершенное изменение.");
+        assertEquals(List.of(subtask), manager.getSubtasksByEpicId(epic.getId()).join());
+        assertEquals(List.of(epic.getId()), manager.getHistory().join().stream().map(Task::getId).toList(),
+                "Просмотр по срезу должен попадать в историю.");
+
+        Task copy = manager.getSubtaskById(subtask.getId()).join().orElseThrow();
+        copy.setName("Changed");
+        assertEquals("Subtask", manager.getSubtaskById(subtask.getId()).join().orElseThrow().getName(),
+                "Изменение выданной задачи не должно менять доску.");
+    }
+
+    @Test
+    void shouldCompleteExceptionallyOnOverlap() {
+        manager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime)).join();
+
+        CompletionException e = assertThrows(CompletionException.class, () -> manager.createTask(
+                new Task("Busy", "Description", Status.NEW, duration, localDateTime.plusMinutes(10))).join());
+        assertInstanceOf(ManagerOverlapException.class, e.getCause(), "Future должен завершаться ошибкой менеджера.");
+        assertEquals(1, manager.getPrioritizedTasks().join().size());
+    }
+
+    @Test
+    void shouldPersistWithoutBlockingCallerAndRejectAfterClose() throws IOException {
+        File file = Files.createTempFile("async", "tasks").toFile();
+        FileBackedTaskManager fileBacked = new FileBackedTaskManager(file, true, DurabilityPolicy.async());
+        try {
+            SingleWriterTaskManager async = new SingleWriterTaskManager(fileBacked);
+            try {
+                async.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+                async.flush().join();
+
+                assertEquals(1, FileBackedTaskManager.loadFromFile(file, true).getAllTasks().size(),
+                        "Изменение не сохранено после flush().");
+            } finally {
+                async.close();
+            }
+
+            CompletionException e = assertThrows(CompletionException.class, () -> async.deleteAllTasks().join());
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        } finally {
+            fileBacked.close();
+        }
+    }
+}
@@ -10,6 +10,7 @@ import tasks.Task;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -19,6 +20,11 @@ public abstract class TaskManagerTest<T extends TaskManager> {
 
     protected abstract T createTaskManager();
 
+    // Эпик, в который можно перенести подзадачу эпика from
+    protected Epic createEpicNextTo(Epic from) {
+        return taskManager.createEpic(new Epic("Other epic", "Description", null, null));
+    }
+
     protected Duration duration;
     protected LocalDateTime localDateTime;
 
@@ -230,6 +236,57 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertTrue(subtasks.contains(subtask2), "Подзадача 2 не найдена.");
     }
 
+    @Test
+    void shouldMoveSubtaskToAnotherEpicOnUpdate() {
+        Epic first = taskManager.createEpic(new Epic("Epic", "Description", null, null));
+        Subtask subtask = taskManager.createSubtask(new Subtask("Subtask", "Description", Status.NEW, first.getId(),
+                duration, localDateTime));
+        Epic second = createEpicNextTo(first);
+
+        Subtask moved = new Subtask("Subtask", "Description", Status.DONE, second.getId(), duration, localDateTime);
+        moved.setId(subtask.getId());
+        taskManager.updateSubtask(moved);
+
+        Epic oldEpic = taskManager.getEpicById(first.getId()).orElseThrow();
+        Epic newEpic = taskManager.getEpicById(second.getId()).orElseThrow();
+        assertTrue(taskManager.getSubtasksByEpicId(first.getId()).isEmpty(), "Подзадача осталась в прежнем эпике.");
+        assertTrue(oldEpic.getSubtaskIds().isEmpty(), "Id подзадачи остался в прежнем эпике.");
+        assertEquals(Status.NEW, oldEpic.getStatus(), "Статус прежнего эпика не пересчитан.");
+        assertNull(oldEpic.getStartTime(), "Сроки прежнего эпика не пересчитаны.");
+        assertEquals(List.of(subtask.getId()), taskManager.getSubtasksByEpicId(second.getId()).stream()
+                .map(Task::getId).toList(), "Подзадача не попала в новый эпик.");
+        assertEquals(List.of(subtask.getId()).toString(), newEpic.getSubtaskIds().toString(),
+                "Id подзадачи не попал в новый эпик.");
+        assertEquals(Status.DONE, newEpic.getStatus(), "Статус нового эпика не пересчитан.");
+
+        taskManager.deleteSubtaskById(subtask.getId());
+        assertTrue(taskManager.getEpicById(first.getId()).orElseThrow().getSubtaskIds().isEmpty(),
+                "Удаление оставило висячий id.");
+        assertEquals(Status.NEW, taskManager.getEpicById(second.getId()).orElseThrow().getStatus(),
+                "Статус нового эпика после удаления не пересчитан.");
+        assertThrows(IllegalArgumentException.class, () -> {
+            Subtask orphan = new Subtask("Orphan", "Description", Status.NEW, 999_999, duration, localDateTime);
+            orphan.setId(taskManager.createSubtask(new Subtask("Other", "Description", Status.NEW, second.getId(),
+                    duration, localDateTime.plusHours(1))).getId());
+            taskManager.updateSubtask(orphan);
+        }, "Перенос в несуществующий эпик должен отклоняться.");
+    }
+
+    @Test
+    void shouldReturnSubtasksInCreationOrder() {
+        Epic epic = taskManager.createEpic(new Epic("Epic", "Description", null, null));
+        List<Integer> created = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            created.add(taskManager.createSubtask(new Subtask("Subtask " + i, "Description", Status.NEW,
+                    epic.getId(), duration, localDateTime.plusHours(i))).getId());
+        }
+
+        assertEquals(created, taskManager.getSubtasksByEpicId(epic.getId()).stream().map(Task::getId).toList(),
+                "Подзадачи должны идти в порядке создания.");
+        assertEquals(created.toString(), taskManager.getEpicById(epic.getId()).orElseThrow().getSubtaskIds().toString(),
+                "Id подзадач эпика должны выводиться по порядку.");
+    }
+
     @Test
     void shouldCalculateEpicStatusWhenAllSubtasksNew() {
         Epic epic = new Epic("Epic", "Description", duration, localDateTime);
@@ -304,6 +361,34 @@ public abstract class TaskManagerTest<T extends TaskManager> {
                 "Должно быть исключение при пересечении времени задач.");
     }
 
+    @Test
+    void shouldFindOverlappingTasks() {
+        Task task1 = new Task("Task 1", "Description", Status.NEW, duration, localDateTime);
+        Task task2 = new Task("Task 2", "Description", Status.NEW, duration, localDateTime.plusMinutes(60));
+        Task task3 = new Task("Task 3", "Description", Status.NEW, duration, localDateTime.plusMinutes(120));
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        taskManager.createTask(task3);
+
+        List<Task> overlapping = taskManager.findOverlapping(localDateTime.plusMinutes(20), localDateTime.plusMinutes(70));
+        assertEquals(List.of(task1, task2), overlapping, "Неверный список пересекающихся задач.");
+        assertTrue(taskManager.findOverlapping(localDateTime.plusMinutes(30), localDateTime.plusMinutes(60)).isEmpty(),
+                "Промежуток между задачами не должен пересекаться с ними.");
+    }
+
+    @Test
+    void shouldReleaseTimeSlotAfterSubtaskDeletion() {
+        Epic epic = new Epic("Epic", "Description", duration, localDateTime);
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Subtask", "Description", Status.NEW, epic.getId(), duration, localDateTime);
+        taskManager.createSubtask(subtask);
+
+        taskManager.deleteSubtaskById(subtask.getId());
+
+        Task task = new Task("Task", "Description", Status.NEW, duration, localDateTime.plusMinutes(10));
+        assertDoesNotThrow(() -> taskManager.createTask(task), "Время удаленной подзадачи должно освободиться.");
+    }
+
     @Test
     void shouldGetHistory() {
         Task task = new Task("Task", "Description", Status.NEW, duration, localDateTime);
@@ -319,4 +404,207 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(task, history.get(0), "Первая задача в истории не совпадает.");
         assertEquals(epic, history.get(1), "Вторая задача в истории не совпадает.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldPageHistory() {
+        Task task = new Task("Task", "Description", Status.NEW, duration, localDateTime);
+        Epic epic = new Epic("Epic", "Description", duration, localDateTime.plusMinutes(60));
+        Task otherTask = new Task("Task 2", "Description", Status.NEW, duration, localDateTime.plusMinutes(120));
+        taskManager.createTask(task);
+        taskManager.createEpic(epic);
+        taskManager.createTask(otherTask);
+
+        taskManager.getTaskById(task.getId());
+        taskManager.getEpicById(epic.getId());
+        taskManager.getTaskById(otherTask.getId());
+
+        assertEquals(List.of(epic, otherTask), taskManager.getHistory(1, 5), "Неверная страница истории.");
+        assertEquals(List.of(otherTask, epic), taskManager.getRecentHistory(2), "Неверные последние просмотры.");
+        assertEquals(List.of(task, epic, otherTask), taskManager.streamHistory().toList(),
+                "Поток истории не совпадает с историей.");
+    }
+
+    @Test
+    void shouldPagePrioritizedTasksByStartTime() {
+        Task first = taskManager.createTask(new Task("Task 1", "Description", Status.NEW, duration, localDateTime));
+        Task second = taskManager.createTask(new Task("Task 2", "Description", Status.NEW, duration,
+                localDateTime.plusHours(1)));
+        Task third = taskManager.createTask(new Task("Task 3", "Description", Status.NEW, duration,
+                localDateTime.plusHours(2)));
+
+        List<Task> page = taskManager.getPrioritizedTasks(null, null, 2);
+        assertEquals(List.of(first, second), page, "Неверная первая страница.");
+        LocalDateTime nextFrom = page.get(1).getStartTime().plusNanos(1);
+        assertEquals(List.of(third), taskManager.getPrioritizedTasks(nextFrom, null, 2), "Неверная вторая страница.");
+        assertEquals(List.of(second), taskManager.getPrioritizedTasks(localDateTime.plusHours(1),
+                localDateTime.plusHours(2), 10), "Правая граница окна не должна входить в него.");
+        assertTrue(taskManager.getPrioritizedTasks(localDateTime.plusHours(2), localDateTime, 10).isEmpty(),
+                "Пустое окно должно давать пустой список.");
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getPrioritizedTasks(null, null, -1));
+    }
+
+    @Test
+    void shouldKeepSnapshotUnchangedByLaterWrites() {
+        Task task = taskManager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+        Epic epic = taskManager.createEpic(new Epic("Epic", "Description", null, null));
+        Subtask subtask = taskManager.createSubtask(new Subtask("Subtask", "Description", Status.DONE, epic.getId(),
+                duration, localDateTime.plusHours(1)));
+
+        TaskSnapshot snapshot = taskManager.snapshot();
+        Task changed = taskManager.getTaskById(task.getId()).orElseThrow();
+        changed.setName("Changed");
+        taskManager.updateTask(changed);
+        taskManager.deleteSubtaskById(subtask.getId());
+
+        assertEquals("Task", snapshot.getTaskById(task.getId()).orElseThrow().getName(),
+                "Срез не должен видеть последующих изменений.");
+        assertEquals(List.of(subtask), snapshot.getSubtasksByEpicId(epic.getId()), "Срез потерял подзадачу.");
+        Epic snapshotEpic = snapshot.getEpicById(epic.getId()).orElseThrow();
+        assertEquals(Status.DONE, snapshotEpic.getStatus(), "Неверный статус эпика в срезе.");
+        assertEquals(1, snapshotEpic.getSubtaskIds().size(), "Неверные подзадачи эпика в срезе.");
+        assertEquals(List.of(task.getId(), subtask.getId()),
+                snapshot.getPrioritizedTasks().stream().map(Task::getId).toList(), "Неверное расписание среза.");
+
+        snapshot.getAllTasks().get(0).setName("Mutated");
+        assertEquals("Task", snapshot.getAllTasks().get(0).getName(), "Срез нельзя изменить через результат.");
+
+        TaskSnapshot later = taskManager.snapshot();
+        assertTrue(later.getVersion() > snapshot.getVersion(), "Версия среза должна расти.");
+        assertEquals("Changed", later.getTaskById(task.getId()).orElseThrow().getName(), "Новый срез устарел.");
+        assertTrue(later.getAllSubtasks().isEmpty(), "Удаленная подзадача осталась в новом срезе.");
+        assertEquals(Status.NEW, later.getEpicById(epic.getId()).orElseThrow().getStatus(),
+                "Статус эпика в новом срезе не пересчитан.");
+    }
+
+    @Test
+    void shouldUpdateEpicEstimatesWhenSubtaskChanges() {
+        Epic epic = taskManager.createEpic(new Epic("Epic", "Description", null, null));
+        Subtask first = taskManager.createSubtask(new Subtask("Subtask 1", "Description", Status.NEW,
+                epic.getId(), Duration.ofMinutes(30), localDateTime));
+        Subtask second = taskManager.createSubtask(new Subtask("Subtask 2", "Description", Status.NEW,
+                epic.getId(), Duration.ofMinutes(60), localDateTime.plusHours(1)));
+
+        Epic saved = taskManager.getEpicById(epic.getId()).orElseThrow();
+        assertEquals(localDateTime, saved.getStartTime(), "Неверное начало эпика.");
+        assertEquals(localDateTime.plusHours(2), saved.getEndTime(), "Неверное окончание эпика.");
+        assertEquals(Duration.ofMinutes(90), saved.getDuration(), "Неверная длительность эпика.");
+
+        second.setStartTime(localDateTime.plusHours(3));
+        second.setStatus(Status.DONE);
+        taskManager.updateSubtask(second);
+        saved = taskManager.getEpicById(epic.getId()).orElseThrow();
+        assertEquals(localDateTime.plusHours(4), saved.getEndTime(), "Окончание эпика не пересчитано.");
+        assertEquals(Status.IN_PROGRESS, saved.getStatus(), "Статус эпика не пересчитан.");
+
+        taskManager.deleteSubtaskById(first.getId());
+        saved = taskManager.getEpicById(epic.getId()).orElseThrow();
+        assertEquals(localDateTime.plusHours(3), saved.getStartTime(), "Начало эпика не пересчитано.");
+        assertEquals(Duration.ofMinutes(60), saved.getDuration(), "Длительность эпика не пересчитана.");
+        assertEquals(Status.DONE, saved.getStatus(), "Статус эпика не пересчитан.");
+    }
+
+    @Test
+    void shouldFindTasksByStatusTypeAndStartWindow() {
+        Epic epic = taskManager.createEpic(new Epic("Epic", "Description", null, null));
+        Subtask early = taskManager.createSubtask(new Subtask("Early", "Description", Status.IN_PROGRESS,
+                epic.getId(), duration, localDateTime));
+        Subtask late = taskManager.createSubtask(new Subtask("Late", "Description", Status.IN_PROGRESS,
+                epic.getId(), duration, localDateTime.plusDays(10)));
+        Subtask done = taskManager.createSubtask(new Subtask("Done", "Description", Status.DONE,
+                epic.getId(), duration, localDateTime.plusHours(1)));
+        Task task = taskManager.createTask(new Task("Task", "Description", Status.IN_PROGRESS,
+                duration, localDateTime.plusHours(2)));
+
+        List<Task> found = taskManager.find(TaskQuery.all()
+                .withType(TaskType.SUBTASK)
+                .withStatus(Status.IN_PROGRESS)
+                .startingBetween(localDateTime, localDateTime.plusDays(7)));
+        assertEquals(List.of(early), found, "Неверный результат выборки.");
+
+        assertEquals(List.of(early, task), taskManager.find(TaskQuery.all()
+                .withType(TaskType.SUBTASK, TaskType.TASK)
+                .withStatus(Status.IN_PROGRESS)
+                .startingBetween(null, localDateTime.plusDays(1))), "Выборка должна идти по времени начала.");
+
+        assertEquals(List.of(epic.getId()), taskManager.find(TaskQuery.all().withType(TaskType.EPIC)
+                .withStatus(Status.IN_PROGRESS)).stream().map(Task::getId).toList(), "Эпик должен индексироваться по пересчитанному статусу.");
+
+        late.setStatus(Status.DONE);
+        taskManager.updateSubtask(late);
+        assertEquals(2, taskManager.find(TaskQuery.all().withStatus(Status.DONE)).size(),
+                "Индекс должен обновляться при изменении задачи.");
+
+        taskManager.deleteSubtaskById(done.getId());
+        assertEquals(List.of(late), taskManager.find(TaskQuery.all().withStatus(Status.DONE).limit(5)
+                .matching(t -> t.getName().startsWith("L"))), "Удаленная задача не должна находиться.");
+        assertEquals(1, taskManager.find(TaskQuery.all().limit(1)).size(), "Лимит не соблюден.");
+    }
+
+    @Test
+    void shouldCreateTasksAndSubtasksInBulk() {
+        List<Task> tasks = taskManager.createTasks(List.of(
+                new Task("Second", "Description", Status.NEW, duration, localDateTime.plusHours(1)),
+                new Task("First", "Description", Status.NEW, duration, localDateTime),
+                new Task("Unscheduled", "Description", Status.NEW, null, null)));
+        Epic epic = taskManager.createEpic(new Epic("Epic", "Description", null, null));
+        List<Subtask> subtasks = taskManager.createSubtasks(List.of(
+                new Subtask("Done", "Description", Status.DONE, epic.getId(), duration, localDateTime.plusHours(3)),
+                new Subtask("New", "Description", Status.NEW, epic.getId(), duration, localDateTime.plusHours(2))));
+
+        assertEquals(3, taskManager.getAllTasks().size(), "Неверное количество задач.");
+        assertEquals(3, tasks.stream().map(Task::getId).distinct().count(), "Задачам должны быть выданы разные id.");
+        assertEquals(subtasks, taskManager.getSubtasksByEpicId(epic.getId()), "Подзадачи не привязаны к эпику.");
+        assertEquals(List.of("First", "Second", "New", "Done"),
+                taskManager.getPrioritizedTasks().stream().map(Task::getName).toList(), "Нарушен порядок расписания.");
+
+        Epic saved = taskManager.getEpicById(epic.getId()).orElseThrow();
+        assertEquals(Status.IN_PROGRESS, saved.getStatus(), "Статус эпика не пересчитан.");
+        assertEquals(duration.multipliedBy(2), saved.getDuration(), "Длительность эпика не пересчитана.");
+    }
+
+    @Test
+    void shouldCreateNothingWhenBulkOverlaps() {
+        taskManager.createTask(new Task("Existing", "Description", Status.NEW, duration, localDateTime));
+        Epic epic = taskManager.createEpic(new Epic("Epic", "Description", null, null));
+
+        assertThrows(ManagerOverlapException.class, () -> taskManager.createTasks(List.of(
+                new Task("Free", "Description", Status.NEW, duration, localDateTime.plusHours(1)),
+                new Task("Busy", "Description", Status.NEW, duration, localDateTime.plusMinutes(10)))),
+                "Пересечение с расписанием должно отклонять весь пакет.");
+        assertThrows(ManagerOverlapException.class, () -> taskManager.createSubtasks(List.of(
+                new Subtask("A", "Description", Status.NEW, epic.getId(), duration, localDateTime.plusHours(2)),
+                new Subtask("B", "Description", Status.NEW, epic.getId(), duration, localDateTime.plusHours(2).plusMinutes(20)))),
+                "Пересечение внутри пакета должно отклонять весь пакет.");
+
+        assertEquals(1, taskManager.getAllTasks().size(), "Задачи из отклоненного пакета не должны создаваться.");
+        assertTrue(taskManager.getAllSubtasks().isEmpty(), "Подзадачи из отклоненного пакета не должны создаваться.");
+        assertEquals(1, taskManager.getPrioritizedTasks().size(), "Расписание не должно меняться.");
+    }
+
+    @Test
+    void shouldApplyBatchOrRollItBackEntirely() {
+        Task kept = taskManager.createTask(new Task("Kept", "Description", Status.NEW, duration, localDateTime));
+        Epic epic = taskManager.createEpic(new Epic("Epic", "Description", null, null));
+
+        assertThrows(IllegalStateException.class, () -> taskManager.batch(manager -> {
+            manager.deleteTaskById(kept.getId());
+            manager.createSubtask(new Subtask("Subtask", "Description", Status.DONE, epic.getId(), duration, localDateTime));
+            throw new IllegalStateException("Отмена");
+        }));
+
+        assertEquals(List.of(kept), taskManager.getAllTasks(), "Удаление внутри отмененного пакета не откатилось.");
+        assertTrue(taskManager.getAllSubtasks().isEmpty(), "Создание внутри отмененного пакета не откатилось.");
+        assertEquals(Status.NEW, taskManager.getEpicById(epic.getId()).orElseThrow().getStatus(), "Статус эпика не откатился.");
+        assertEquals(1, taskManager.getPrioritizedTasks().size(), "Расписание не откатилось.");
+        assertThrows(ManagerOverlapException.class, () -> taskManager.createTask(
+                new Task("Busy", "Description", Status.NEW, duration, localDateTime)), "Время восстановленной задачи должно быть занято.");
+
+        taskManager.batch(manager -> {
+            manager.deleteTaskById(kept.getId());
+            manager.createSubtask(new Subtask("Subtask", "Description", Status.DONE, epic.getId(), duration, localDateTime));
+        });
+
+        assertTrue(taskManager.getAllTasks().isEmpty(), "Изменения успешного пакета не применены.");
+        assertEquals(Status.DONE, taskManager.getEpicById(epic.getId()).orElseThrow().getStatus(), "Статус эпика не пересчитан.");
+    }
+}
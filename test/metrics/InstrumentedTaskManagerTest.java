@@ -0,0 +1,75 @@
+package metrics;
+
+import exceptions.ManagerOverlapException;
+import manager.FileBackedTaskManager;
+import manager.InMemoryTaskManager;
+import manager.TaskManagerTest;
+import org.junit.jupiter.api.Test;
+import tasks.Status;
+import tasks.Task;
+import utils.Managers;
+
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedTaskManagerTest extends TaskManagerTest<InstrumentedTaskManager> {
+    private MetricsRegistry registry;
+
+    @Override
+    protected InstrumentedTaskManager createTaskManager() {
+        registry = new DefaultMetricsRegistry();
+        return new InstrumentedTaskManager(new InMemoryTaskManager(), registry);
+    }
+
+    @Test
+    void shouldRecordOperationsAndOverlapChecks() {
+        Task task = taskManager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+        taskManager.getTaskById(task.getId());
+        assertThrows(ManagerOverlapException.class, () -> taskManager.createTask(
+                new Task("Overlap", "Description", Status.NEW, duration, localDateTime.plusMinutes(10))));
+
+        MetricsSnapshot snapshot = registry.snapshot();
+        assertEquals(2, snapshot.histogram("taskManager.createTask").getCount(), "Неверное число вызовов createTask.");
+        assertEquals(1, snapshot.histogram("taskManager.getTaskById").getCount(), "Неверное число вызовов getTaskById.");
+        assertEquals(1, snapshot.counter("taskManager.overlapRejected"), "Отказ по пересечению не посчитан.");
+        assertEquals(2, snapshot.histogram("taskManager.overlapScanLength").getCount(),
+                "Длина просмотра должна записываться при каждой проверке.");
+    }
+
+    @Test
+    void shouldRecordSavesAndHistorySize() throws IOException {
+        File file = File.createTempFile("metrics", ".csv");
+        MetricsRegistry fileRegistry = new DefaultMetricsRegistry();
+        InstrumentedTaskManager manager = new InstrumentedTaskManager(new FileBackedTaskManager(file), fileRegistry);
+        InstrumentedHistoryManager history = new InstrumentedHistoryManager(Managers.getDefaultHistory(), fileRegistry);
+        try {
+            Task task = manager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+            history.add(task);
+
+            MetricsSnapshot snapshot = fileRegistry.snapshot();
+            assertEquals(1, snapshot.histogram("taskManager.save.nanos").getCount(), "Запись на диск не посчитана.");
+            assertEquals(file.length(), snapshot.histogram("taskManager.save.bytes").getMax(),
+                    "Размер записи не совпадает с размером файла.");
+            assertEquals(1, snapshot.gauge("history.size"), "Неверный размер истории.");
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    void shouldExposeMetricsOverJmx() throws Exception {
+        taskManager.createTask(new Task("Task", "Description", Status.NEW, duration, localDateTime));
+
+        ObjectName name = JmxMetrics.register(registry, "test-" + System.nanoTime());
+        try {
+            Object count = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "taskManager.createTask.count");
+            assertEquals(1L, count, "Атрибут MBean не совпадает со снимком реестра.");
+        } finally {
+            JmxMetrics.unregister(name);
+        }
+    }
+}
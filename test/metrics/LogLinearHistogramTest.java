@@ -0,0 +1,56 @@
+package metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogLinearHistogramTest {
+
+    @Test
+    void shouldKeepSmallValuesExact() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (int value = 1; value <= 10; value++) {
+            histogram.record(value);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(10, snapshot.getCount(), "Неверное число значений.");
+        assertEquals(55, snapshot.getSum(), "Неверная сумма значений.");
+        assertEquals(5, snapshot.getPercentile(50), "Неверная медиана.");
+        assertEquals(10, snapshot.getPercentile(100), "Неверный максимум.");
+    }
+
+    @Test
+    void shouldBoundRelativeErrorOfLargeValues() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (long value = 1_000; value <= 1_000_000; value += 1_000) {
+            histogram.record(value);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        long p99 = snapshot.getPercentile(99);
+        assertTrue(p99 >= 990_000 && p99 <= 990_000 * 1.04, "Перцентиль за пределами точности: " + p99);
+        assertEquals(1_000_000, snapshot.getMax(), "Неверный максимум.");
+    }
+
+    @Test
+    void shouldMapEveryValueIntoBucketThatContainsIt() {
+        long[] values = {0, 31, 32, 33, 63, 64, 1_000_003, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LogLinearHistogram.indexOf(value);
+            assertTrue(LogLinearHistogram.upperBoundOf(index) >= value, "Граница корзины меньше значения " + value);
+            if (index > 0) {
+                assertTrue(LogLinearHistogram.upperBoundOf(index - 1) < value,
+                        "Значение " + value + " должно попасть в предыдущую корзину.");
+            }
+        }
+    }
+
+    @Test
+    void shouldTreatNegativeValuesAsZero() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        histogram.record(-5);
+
+        assertEquals(0, histogram.snapshot().getMax(), "Отрицательное значение должно считаться нулем.");
+    }
+}
@@ -0,0 +1,67 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashSetTest {
+
+    @Test
+    void shouldAddContainAndRemove() {
+        IntHashSet set = new IntHashSet();
+        assertTrue(set.add(3), "Элемент должен добавиться.");
+        assertFalse(set.add(3), "Дубликат не должен добавляться.");
+        assertTrue(set.add(0), "Ноль должен поддерживаться.");
+
+        assertEquals(2, set.size(), "Неверный размер.");
+        assertTrue(set.contains(0), "Ноль должен находиться.");
+        assertTrue(set.remove(3), "Элемент должен удалиться.");
+        assertFalse(set.contains(3), "Удаленный элемент не должен находиться.");
+        assertArrayEquals(new int[]{0}, set.toArray(), "Неверное содержимое.");
+    }
+
+    @Test
+    void shouldMatchHashSetUnderRandomOperations() {
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            int value = random.nextInt(5_000) * 32;
+            if (random.nextBoolean()) {
+                assertEquals(expected.remove(value), set.remove(value), "Неверный результат remove.");
+            } else {
+                assertEquals(expected.add(value), set.add(value), "Неверный результат add.");
+            }
+        }
+        int[] actual = set.toArray();
+        Arrays.sort(actual);
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).sorted().toArray(), actual,
+                "Содержимое не совпадает.");
+    }
+
+    @Test
+    void shouldReturnSortedArrayRegardlessOfInsertionOrder() {
+        IntHashSet set = new IntHashSet();
+        for (int value : new int[]{1_000, 7, 64, 0, 3, 512}) {
+            set.add(value);
+        }
+        assertArrayEquals(new int[]{0, 3, 7, 64, 512, 1_000}, set.toSortedArray(), "Массив должен быть упорядочен.");
+        assertEquals("[0, 3, 7, 64, 512, 1000]", set.toString(), "Строка должна быть упорядочена.");
+    }
+
+    @Test
+    void forEachWhileShouldStopEarly() {
+        IntHashSet set = new IntHashSet();
+        for (int i = 1; i <= 10; i++) {
+            set.add(i);
+        }
+        int[] visited = new int[1];
+        assertFalse(set.forEachWhile(value -> ++visited[0] < 3), "Обход должен прерваться.");
+        assertEquals(3, visited[0], "Неверное число посещенных элементов.");
+    }
+}
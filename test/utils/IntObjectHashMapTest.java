@@ -0,0 +1,53 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectHashMapTest {
+
+    @Test
+    void shouldPutGetAndRemove() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        assertNull(map.put(1, "one"), "Ключа еще не было.");
+        assertEquals("one", map.put(1, "uno"), "put должен вернуть прежнее значение.");
+        map.put(0, "zero");
+        map.put(-5, "minus five");
+
+        assertEquals(3, map.size(), "Неверный размер.");
+        assertEquals("uno", map.get(1), "Неверное значение.");
+        assertEquals("zero", map.get(0), "Ключ 0 должен поддерживаться.");
+        assertEquals("minus five", map.remove(-5), "remove должен вернуть удаленное значение.");
+        assertFalse(map.containsKey(-5), "Ключ должен быть удален.");
+        assertThrows(NullPointerException.class, () -> map.put(2, null));
+    }
+
+    @Test
+    void shouldMatchHashMapUnderRandomOperations() {
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // Ключи с шагом 64 дают длинные цепочки и проверяют удаление со сдвигом
+            int key = random.nextInt(2_000) * 64;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key), "Неверный результат remove.");
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i), "Неверный результат put.");
+            }
+        }
+        assertEquals(expected.size(), map.size(), "Неверный размер.");
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()), "Значение потеряно.");
+        }
+        List<Integer> values = new ArrayList<>(map.values());
+        assertEquals(expected.size(), values.size(), "Неверное число значений.");
+        assertEquals(expected.size(), map.keys().length, "Неверное число ключей.");
+    }
+}
@@ -1,8 +1,10 @@
 package utils;
 
+import manager.AsyncTaskManager;
 import manager.HistoryManager;
 import manager.InMemoryHistoryManager;
 import manager.InMemoryTaskManager;
+import manager.SingleWriterTaskManager;
 import manager.TaskManager;
 import org.junit.jupiter.api.Test;
 
@@ -24,4 +26,12 @@ class ManagersTest {
         assertInstanceOf(InMemoryHistoryManager.class, historyManager, "HistoryManager должен быть экземпляром HistoryManager");
     }
 
+    @Test
+    void asyncTaskManagerShouldBeSingleWriter() {
+        try (AsyncTaskManager taskManager = Managers.getAsync()) {
+            assertInstanceOf(SingleWriterTaskManager.class, taskManager, "Неверный тип асинхронного менеджера");
+            assertTrue(taskManager.getAllTasks().join().isEmpty(), "Новый менеджер должен быть пустым");
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentIntMapTest {
+
+    @Test
+    void shouldKeepPreviousVersionsUnchanged() {
+        PersistentIntMap<String> empty = PersistentIntMap.empty();
+        PersistentIntMap<String> first = empty.plus(1, "one").plus(2, "two");
+        PersistentIntMap<String> second = first.plus(1, "uno").minus(2);
+
+        assertEquals("one", first.get(1), "Старая версия не должна меняться.");
+        assertEquals("two", first.get(2), "Старая версия не должна меняться.");
+        assertEquals(2, first.size(), "Неверный размер старой версии.");
+        assertEquals("uno", second.get(1), "Неверное значение новой версии.");
+        assertNull(second.get(2), "Ключ должен быть удален в новой версии.");
+        assertEquals(1, second.size(), "Неверный размер новой версии.");
+        assertTrue(empty.isEmpty(), "Пустое отображение не должно меняться.");
+        assertSame(second, second.minus(42), "Удаление отсутствующего ключа не должно копировать.");
+        assertThrows(NullPointerException.class, () -> empty.plus(1, null));
+    }
+
+    @Test
+    void shouldMatchTreeMapUnderRandomOperations() {
+        PersistentIntMap<Integer> map = PersistentIntMap.empty();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            // Ключи с общими младшими битами и с разными старшими проверяют слияние и схлопывание узлов
+            int key = random.nextBoolean() ? random.nextInt(5_000) : random.nextInt(50) << 20;
+            if (random.nextInt(3) == 0) {
+                map = map.minus(key);
+                expected.remove(key);
+            } else {
+                map = map.plus(key, i);
+                expected.put(key, i);
+            }
+            assertEquals(expected.get(key), map.get(key), "Неверное значение для ключа " + key);
+        }
+        assertEquals(expected.size(), map.size(), "Неверный размер.");
+
+        List<Integer> keys = new ArrayList<>();
+        map.forEach((key, value) -> {
+            keys.add(key);
+            assertEquals(expected.get(key), value, "Неверное значение при обходе.");
+        });
+        assertEquals(new ArrayList<>(expected.keySet()), keys, "Обход должен идти по возрастанию ключей.");
+    }
+}
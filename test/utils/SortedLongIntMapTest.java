@@ -0,0 +1,64 @@
+package utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedLongIntMapTest {
+
+    @Test
+    void shouldMatchTreeMapUnderRandomOperations() {
+        SortedLongIntMap map = new SortedLongIntMap();
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(20_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key), "Неверный результат remove.");
+            } else {
+                expected.put(key, i);
+                map.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size(), "Неверный размер.");
+        assertEquals((long) expected.firstKey(), map.firstKey(), "Неверный первый ключ.");
+        assertEquals((long) expected.lastKey(), map.lastKey(), "Неверный последний ключ.");
+
+        List<Long> ascending = new ArrayList<>();
+        map.ascend(5_000, 15_000, (key, value) -> {
+            assertEquals((int) expected.get(key), value, "Неверное значение.");
+            return ascending.add(key);
+        });
+        assertEquals(new ArrayList<>(expected.subMap(5_000L, 15_000L).keySet()), ascending, "Неверный обход по возрастанию.");
+
+        List<Long> descending = new ArrayList<>();
+        map.descend(10_000, (key, value) -> descending.add(key));
+        assertEquals(new ArrayList<>(expected.headMap(10_000L, false).descendingKeySet()), descending, "Неверный обход по убыванию.");
+
+        for (long bound = -1; bound < 20_001; bound += 97) {
+            Map.Entry<Long, Integer> lower = expected.lowerEntry(bound);
+            assertEquals(lower == null ? SortedLongIntMap.NO_KEY : lower.getKey(), map.lowerKey(bound),
+                    "Неверный lowerKey.");
+        }
+    }
+
+    @Test
+    void ascendShouldStopWhenVisitorReturnsFalse() {
+        SortedLongIntMap map = new SortedLongIntMap();
+        for (int i = 0; i < 1_000; i++) {
+            map.put(i * 2L, i);
+        }
+        int[] visited = new int[1];
+        assertFalse(map.ascend(Long.MIN_VALUE, Long.MAX_VALUE, (key, value) -> ++visited[0] < 10),
+                "Обход должен прерваться.");
+        assertEquals(10, visited[0], "Неверное число посещенных ключей.");
+        assertEquals(7, map.get(14, -1), "Неверное значение.");
+        assertEquals(-1, map.get(15, -1), "Отсутствующий ключ должен давать значение по умолчанию.");
+    }
+}